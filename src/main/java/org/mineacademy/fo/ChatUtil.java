@@ -402,11 +402,141 @@ public final class ChatUtil {
 		return (longerLength - editDistance(longer, shorter)) / (double) longerLength;
 	}
 
-	/*
+	/**
+	 * Return true if {@link #getSimilarityPercentage(String, String)} is at least the given threshold,
+	 * stopping as soon as we know it is not instead of computing the exact similarity
+	 * <p>
+	 * To compare messages against many previous ones, see {@link org.mineacademy.fo.model.SimilarityIndex}.
+	 *
+	 * @param first
+	 * @param second
+	 * @param threshold the similarity within 0.00 and 1.00
+	 * @return
+	 */
+	public static boolean isSimilar(String first, String second, double threshold) {
+		if (first.isEmpty() && second.isEmpty())
+			return true;
+
+		first = removeSimilarity(first);
+		second = removeSimilarity(second);
+
+		final int longerLength = Math.max(first.length(), second.length());
+
+		if (longerLength == 0)
+			return threshold <= 0;
+
+		final int maxDistance = getMaxEditDistance(longerLength, threshold);
+
+		return maxDistance >= 0 && getEditDistance(first, second, maxDistance) <= maxDistance;
+	}
+
+	/**
+	 * Return the most edits two messages, the longer one having the given length, may differ by
+	 * to be at least the given similarity, or -1 if not even equal messages are that similar
+	 *
+	 * @param longerLength
+	 * @param threshold the similarity within 0.00 and 1.00
+	 * @return
+	 */
+	public static int getMaxEditDistance(int longerLength, double threshold) {
+		if (threshold > 1)
+			return -1;
+
+		return (int) Math.floor(longerLength * (1 - threshold) + 1E-9);
+	}
+
+	/**
+	 * Return the Levenshtein edit distance between the two messages as they are, or maxDistance + 1
+	 * if it is greater than maxDistance. We only compute edits within maxDistance of the diagonal
+	 * and stop once every edit path is longer, so similar messages are compared fast and different ones faster.
+	 *
+	 * @param first
+	 * @param second
+	 * @param maxDistance
+	 * @return
+	 */
+	public static int getEditDistance(String first, String second, int maxDistance) {
+		if (first.length() > second.length()) {
+			final String longer = first;
+
+			first = second;
+			second = longer;
+		}
+
+		final int exceeded = maxDistance + 1;
+
+		if (second.length() - first.length() > maxDistance)
+			return exceeded;
+
+		// Skip the same beginning and end
+		int start = 0;
+		int firstEnd = first.length();
+		int secondEnd = second.length();
+
+		while (start < firstEnd && first.charAt(start) == second.charAt(start))
+			start++;
+
+		while (firstEnd > start && first.charAt(firstEnd - 1) == second.charAt(secondEnd - 1)) {
+			firstEnd--;
+			secondEnd--;
+		}
+
+		final int shorterLength = firstEnd - start;
+		final int longerLength = secondEnd - start;
+
+		if (shorterLength == 0)
+			return longerLength;
+
+		int[] previous = new int[shorterLength + 1];
+		int[] current = new int[shorterLength + 1];
+
+		for (int i = 0; i <= shorterLength; i++)
+			previous[i] = Math.min(i, exceeded);
+
+		for (int j = 1; j <= longerLength; j++) {
+			final char c = second.charAt(start + j - 1);
+			final int from = Math.max(1, j - maxDistance);
+			final int to = Math.min(shorterLength, j + maxDistance);
+
+			current[0] = Math.min(j, exceeded);
+
+			if (from > 1)
+				current[from - 1] = exceeded;
+
+			int rowMinimum = from == 1 ? current[0] : exceeded;
+
+			for (int i = from; i <= to; i++) {
+				final int cost = first.charAt(start + i - 1) == c ? 0 : 1;
+				final int value = Math.min(Math.min(previous[i] + 1, current[i - 1] + 1), previous[i - 1] + cost);
+
+				current[i] = Math.min(value, exceeded);
+				rowMinimum = Math.min(rowMinimum, current[i]);
+			}
+
+			if (to < shorterLength)
+				current[to + 1] = exceeded;
+
+			if (rowMinimum > maxDistance)
+				return exceeded;
+
+			final int[] swap = previous;
+
+			previous = current;
+			current = swap;
+		}
+
+		return previous[shorterLength];
+	}
+
+	/**
 	 * Remove any similarity traits of a message such as removing colors,
-	 * lowercasing it, removing diacritic
+	 * lowercasing it and removing diacritic if enabled, as done before
+	 * comparing messages in {@link #getSimilarityPercentage(String, String)}
+	 *
+	 * @param message
+	 * @return
 	 */
-	private static String removeSimilarity(String message) {
+	public static String removeSimilarity(String message) {
 
 		if (SimplePlugin.getInstance().similarityStripAccents())
 			message = replaceDiacritic(message);
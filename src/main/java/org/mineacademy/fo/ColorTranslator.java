@@ -0,0 +1,355 @@
+package org.mineacademy.fo;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.bukkit.ChatColor;
+import org.mineacademy.fo.plugin.SimplePlugin;
+import org.mineacademy.fo.remain.Remain;
+import org.mineacademy.fo.settings.SimpleLocalization;
+
+import lombok.AccessLevel;
+import lombok.NoArgsConstructor;
+
+/**
+ * Translates, strips and compares colors in a single pass over the message
+ * without regular expressions, backing {@link Common#colorize(String)}
+ * and {@link Common#stripColors(String)}.
+ * <p>
+ * Supports &amp; codes, &amp;#RRGGBB, #RRGGBB and {#RRGGBB} (1.16+) as well as
+ * the {prefix}, {server}, {plugin_name} and {plugin_version} variables.
+ */
+@NoArgsConstructor(access = AccessLevel.PRIVATE)
+final class ColorTranslator {
+
+	/**
+	 * Letters that form a color or decoration when following &amp; or the color char
+	 */
+	private static final String COLOR_CODES = "0123456789AaBbCcDdEeFfKkLlMmNnOoRrXx";
+
+	/**
+	 * Letters that {@link Common#stripColors(String)} removes after &amp; or the color char
+	 */
+	private static final String STRIP_CODES = "0123456789abcdefklmnorABCDEFKLMNOR";
+
+	/**
+	 * The maximum amount of messages in {@link #cache}
+	 */
+	private static final int CACHE_SIZE = 1_000;
+
+	/**
+	 * Messages longer than this are not cached
+	 */
+	private static final int CACHE_MAX_LENGTH = 512;
+
+	/**
+	 * Recently colorized messages, least recently used are removed first
+	 */
+	private static final Map<String, String> cache = new LinkedHashMap<String, String>(CACHE_SIZE, 0.75F, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, String> eldest) {
+			return this.size() > CACHE_SIZE;
+		}
+	};
+
+	/**
+	 * The variable values the cache was built with, it is cleared when any changes
+	 */
+	private static String cachedTellPrefix, cachedServerPrefix, cachedPluginName, cachedPluginVersion;
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Colorizing
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * See {@link Common#colorize(String)}
+	 *
+	 * @param message
+	 * @param tellPrefix
+	 * @return
+	 */
+	static String colorize(final String message, final String tellPrefix) {
+		final boolean cacheable = message.length() <= CACHE_MAX_LENGTH;
+		final String serverPrefix = SimpleLocalization.SERVER_PREFIX;
+		final String pluginName = Common.getOrEmpty(SimplePlugin.getNamed());
+		final String pluginVersion = Common.getOrEmpty(SimplePlugin.getVersion());
+
+		if (cacheable)
+			synchronized (cache) {
+				if (tellPrefix != cachedTellPrefix || serverPrefix != cachedServerPrefix || pluginName != cachedPluginName || pluginVersion != cachedPluginVersion) {
+					cache.clear();
+
+					cachedTellPrefix = tellPrefix;
+					cachedServerPrefix = serverPrefix;
+					cachedPluginName = pluginName;
+					cachedPluginVersion = pluginVersion;
+				}
+
+				final String cached = cache.get(message);
+
+				if (cached != null)
+					return cached;
+			}
+
+		final String[] variables = {
+				"{prefix}", message.startsWith(tellPrefix) ? "" : Common.removeSurroundingSpaces(tellPrefix.trim()),
+				"{server}", serverPrefix,
+				"{plugin_name}", pluginName,
+				"{plugin_version}", pluginVersion
+		};
+
+		final StringBuilder builder = new StringBuilder(message.length() + 16);
+		translate(message, builder, variables, MinecraftVersion.atLeast(MinecraftVersion.V.v1_16), 0);
+
+		final String result = builder.toString();
+
+		if (cacheable)
+			synchronized (cache) {
+				cache.put(message, result);
+			}
+
+		return result;
+	}
+
+	/*
+	 * Append the translated message to the builder
+	 */
+	private static void translate(final String message, final StringBuilder builder, final String[] variables, final boolean hex, final int depth) {
+		final int length = message.length();
+
+		for (int i = 0; i < length; i++) {
+			final char c = message.charAt(i);
+
+			// & colors, with &#RRGGBB on 1.16+
+			if (c == '&' && i + 1 < length) {
+				final char next = message.charAt(i + 1);
+
+				if (COLOR_CODES.indexOf(next) != -1) {
+					builder.append(ChatColor.COLOR_CHAR).append(Character.toLowerCase(next));
+
+					i++;
+					continue;
+				}
+
+				if (hex && next == '#' && (i == 0 || message.charAt(i - 1) != '\\')) {
+					final int hexLength = hexLength(message, i + 2);
+
+					if (hexLength > 0) {
+						appendHex(message, i + 2, hexLength, builder);
+
+						i += 1 + hexLength;
+						continue;
+					}
+				}
+			}
+
+			else if (c == '{') {
+				final int variableIndex = depth < 2 ? variableIndex(message, i, variables) : -1;
+
+				// Our variables, their values are translated as well
+				if (variableIndex != -1) {
+					translate(variables[variableIndex + 1], builder, variables, hex, depth + 1);
+
+					i += variables[variableIndex].length() - 1;
+					continue;
+				}
+
+				// {#RRGGBB} on 1.16+
+				if (hex && i + 1 < length && message.charAt(i + 1) == '#') {
+					final int hexLength = hexLength(message, i + 2);
+
+					if (hexLength > 0 && i + 2 + hexLength < length && message.charAt(i + 2 + hexLength) == '}') {
+						appendHex(message, i + 2, hexLength, builder);
+
+						i += 2 + hexLength;
+						continue;
+					}
+				}
+			}
+
+			else if (hex && c == '#') {
+
+				// Escaped \#RRGGBB stays as #RRGGBB
+				if (i > 0 && message.charAt(i - 1) == '\\') {
+					builder.setCharAt(builder.length() - 1, '#');
+
+					continue;
+				}
+
+				final int hexLength = hexLength(message, i + 1);
+
+				if (hexLength > 0) {
+					appendHex(message, i + 1, hexLength, builder);
+
+					i += hexLength;
+					continue;
+				}
+			}
+
+			builder.append(c);
+		}
+	}
+
+	/*
+	 * Return the index of the variable name starting at the given index, or -1 if none
+	 */
+	private static int variableIndex(final String message, final int index, final String[] variables) {
+		for (int v = 0; v < variables.length; v += 2)
+			if (message.startsWith(variables[v], index))
+				return v;
+
+		return -1;
+	}
+
+	/*
+	 * Return 6 or 3 if there are that many hex digits at the given index, otherwise 0
+	 */
+	private static int hexLength(final String message, final int index) {
+		int count = 0;
+
+		while (count < 6 && index + count < message.length() && isHexDigit(message.charAt(index + count)))
+			count++;
+
+		return count == 6 ? 6 : count >= 3 ? 3 : 0;
+	}
+
+	/*
+	 * Return true if the character is 0-9, a-f or A-F
+	 */
+	private static boolean isHexDigit(final char c) {
+		return (c >= '0' && c <= '9') || (c >= 'a' && c <= 'f') || (c >= 'A' && c <= 'F');
+	}
+
+	/*
+	 * Append the hex color in the §x§R§R§G§G§B§B format. Short #RGB codes
+	 * are not valid colors and are removed, as they always were.
+	 */
+	private static void appendHex(final String message, final int index, final int hexLength, final StringBuilder builder) {
+		if (hexLength != 6)
+			return;
+
+		builder.append(ChatColor.COLOR_CHAR).append('x');
+
+		for (int i = index; i < index + 6; i++)
+			builder.append(ChatColor.COLOR_CHAR).append(message.charAt(i));
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Stripping
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * See {@link Common#stripColors(String)}
+	 *
+	 * @param message
+	 * @return
+	 */
+	static String stripColors(final String message) {
+		final boolean hex = Remain.hasHexColors();
+		final int length = message.length();
+
+		StringBuilder builder = null;
+
+		for (int i = 0; i < length; i++) {
+			final int skip = colorCodeLength(message, i, hex);
+
+			if (skip > 0) {
+				if (builder == null)
+					builder = new StringBuilder(length).append(message, 0, i);
+
+				i += skip - 1;
+
+			} else if (builder != null)
+				builder.append(message.charAt(i));
+		}
+
+		return builder == null ? message : builder.toString();
+	}
+
+	/**
+	 * Return true if both messages are equal after {@link #stripColors(String)},
+	 * without creating the stripped messages
+	 *
+	 * @param first
+	 * @param second
+	 * @return
+	 */
+	static boolean equalsIgnoreColors(final String first, final String second) {
+		final boolean hex = Remain.hasHexColors();
+
+		int i = 0;
+		int j = 0;
+
+		while (true) {
+			i = skipColorCodes(first, i, hex);
+			j = skipColorCodes(second, j, hex);
+
+			if (i >= first.length() || j >= second.length())
+				return i >= first.length() && j >= second.length();
+
+			if (first.charAt(i) != second.charAt(j))
+				return false;
+
+			i++;
+			j++;
+		}
+	}
+
+	/*
+	 * Return the index of the first character from the given index that is not part of a color code
+	 */
+	private static int skipColorCodes(final String message, int index, final boolean hex) {
+		int skip;
+
+		while (index < message.length() && (skip = colorCodeLength(message, index, hex)) > 0)
+			index += skip;
+
+		return index;
+	}
+
+	/*
+	 * Return how many characters the color code at the index has, or 0 if there is none
+	 */
+	private static int colorCodeLength(final String message, final int index, final boolean hex) {
+		final char c = message.charAt(index);
+		final char next = index + 1 < message.length() ? message.charAt(index + 1) : 0;
+		final boolean notEscaped = index == 0 || message.charAt(index - 1) != '\\';
+
+		if ((c == '&' || c == ChatColor.COLOR_CHAR) && STRIP_CODES.indexOf(next) != -1)
+			return 2;
+
+		if (hex && c == ChatColor.COLOR_CHAR && next == 'x')
+			return isParsedHex(message, index) ? 14 : 2;
+
+		if (hex && c == '&' && next == '#' && notEscaped) {
+			final int hexLength = hexLength(message, index + 2);
+
+			return hexLength > 0 ? 2 + hexLength : 0;
+		}
+
+		if (hex && c == '#' && notEscaped) {
+			final int hexLength = hexLength(message, index + 1);
+
+			return hexLength > 0 ? 1 + hexLength : 0;
+		}
+
+		return 0;
+	}
+
+	/*
+	 * Return true if there is a parsed §x§R§R§G§G§B§B color at the index
+	 */
+	private static boolean isParsedHex(final String message, final int index) {
+		if (index + 14 > message.length())
+			return false;
+
+		for (int i = index + 2; i < index + 14; i += 2)
+			if (message.charAt(i) != ChatColor.COLOR_CHAR || !isHexDigit(message.charAt(i + 1)))
+				return false;
+
+		return true;
+	}
+}
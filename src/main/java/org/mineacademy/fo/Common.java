@@ -599,54 +599,11 @@ public final class Common {
 		if (message == null || message.isEmpty())
 			return "";
 
-		String result = ChatColor.translateAlternateColorCodes('&', message
-				.replace("{prefix}", message.startsWith(tellPrefix) ? "" : removeSurroundingSpaces(tellPrefix.trim()))
-				.replace("{server}", SimpleLocalization.SERVER_PREFIX)
-				.replace("{plugin_name}", SimplePlugin.getNamed())
-				.replace("{plugin_version}", SimplePlugin.getVersion()));
-
-		// RGB colors
-		if (MinecraftVersion.atLeast(MinecraftVersion.V.v1_16)) {
-
-			// Preserve compatibility with former systems
-			Matcher match = RGB_HEX_BRACKET_COLOR_REGEX.matcher(result);
-
-			while (match.find()) {
-				final String colorCode = match.group(1);
-				String replacement = "";
-
-				try {
-					replacement = CompChatColor.of("#" + colorCode).toString();
-
-				} catch (final IllegalArgumentException ex) {
-				}
-
-				result = result.replaceAll("\\{#" + colorCode + "\\}", replacement);
-			}
-
-			match = RGB_HEX_COLOR_REGEX.matcher(result);
-
-			while (match.find()) {
-				final String colorCode = match.group(2);
-				String replacement = "";
-
-				try {
-					replacement = CompChatColor.of("#" + colorCode).toString();
-
-				} catch (final IllegalArgumentException ex) {
-				}
-
-				result = result.replaceAll("(&|)#" + colorCode, replacement);
-			}
-
-			result = result.replace("\\#", "#");
-		}
-
-		return result;
+		return ColorTranslator.colorize(message, tellPrefix);
 	}
 
 	// Remove first and last spaces from the given message
-	private static String removeSurroundingSpaces(String message) {
+	static String removeSurroundingSpaces(String message) {
 		message = getOrEmpty(message);
 
 		while (message.endsWith(" "))
@@ -689,28 +646,7 @@ public final class Common {
 		if (message == null || message.isEmpty())
 			return message;
 
-		// Replace & color codes
-		Matcher matcher = COLOR_AND_DECORATION_REGEX.matcher(message);
-
-		while (matcher.find())
-			message = matcher.replaceAll("");
-
-		// Replace hex colors, both raw and parsed
-		if (Remain.hasHexColors()) {
-			matcher = RGB_HEX_COLOR_REGEX.matcher(message);
-
-			while (matcher.find())
-				message = matcher.replaceAll("");
-
-			matcher = RGB_X_COLOR_REGEX.matcher(message);
-
-			while (matcher.find())
-				message = matcher.replaceAll("");
-
-			message = message.replace(ChatColor.COLOR_CHAR + "x", "");
-		}
-
-		return message;
+		return ColorTranslator.stripColors(message);
 	}
 
 	/**
@@ -1466,12 +1402,40 @@ public final class Common {
 	 * @return
 	 */
 	public static Matcher compileMatcher(@NonNull final Pattern pattern, final String message) {
+		return compileNormalizedMatcher(pattern, normalizeRegexInput(message));
+	}
 
-		try {
-			String strippedMessage = SimplePlugin.getInstance().regexStripColors() ? stripColors(message) : message;
-			strippedMessage = SimplePlugin.getInstance().regexStripAccents() ? ChatUtil.replaceDiacritic(strippedMessage) : strippedMessage;
+	/**
+	 * Strips colors and accents from the message if your plugin strips them
+	 * before matching, as {@link #compileMatcher(Pattern, String)} does.
+	 * <p>
+	 * Use this with {@link #compileNormalizedMatcher(Pattern, String)} to match
+	 * one message against many patterns without normalizing it each time.
+	 *
+	 * @param message
+	 * @return
+	 */
+	public static String normalizeRegexInput(final String message) {
+		String strippedMessage = SimplePlugin.getInstance().regexStripColors() ? stripColors(message) : message;
+		strippedMessage = SimplePlugin.getInstance().regexStripAccents() ? ChatUtil.replaceDiacritic(strippedMessage) : strippedMessage;
 
-			return pattern.matcher(TimedCharSequence.withSettingsLimit(strippedMessage));
+		return strippedMessage;
+	}
+
+	/**
+	 * Compiles a matcher for the given pattern and a message returned from {@link #normalizeRegexInput(String)}
+	 * <p>
+	 * We also evaluate how long the evaluation took and stop it in case it takes too long,
+	 * see {@link SimplePlugin#getRegexTimeout()}
+	 *
+	 * @param pattern
+	 * @param normalizedMessage
+	 * @return
+	 */
+	public static Matcher compileNormalizedMatcher(@NonNull final Pattern pattern, final String normalizedMessage) {
+
+		try {
+			return pattern.matcher(TimedCharSequence.withSettingsLimit(normalizedMessage));
 
 		} catch (final RegexTimeoutException ex) {
 			handleRegexTimeoutException(ex, pattern);
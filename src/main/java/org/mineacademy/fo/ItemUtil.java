@@ -200,8 +200,8 @@ public final class ItemUtil {
 		}
 
 		if (MinecraftVersion.atLeast(V.v1_7)) {
-			final NBTItem firstNbt = new NBTItem(first);
-			final NBTItem secondNbt = new NBTItem(second);
+			final NBTItem firstNbt = NBTItem.readOnly(first);
+			final NBTItem secondNbt = NBTItem.readOnly(second);
 
 			return matchNbt(SimplePlugin.getNamed(), firstNbt, secondNbt) && matchNbt(SimplePlugin.getNamed() + "_Item", firstNbt, secondNbt);
 		}
@@ -1,8 +1,12 @@
 package org.mineacademy.fo;
 
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.NavigableMap;
 import java.util.TreeMap;
 
@@ -37,6 +41,34 @@ public final class MathUtil {
 	 */
 	private final static DecimalFormat fiveDigitsFormat = new DecimalFormat("#.#####");
 
+	/**
+	 * Expressions from {@link #calculate(String)} longer than this are not cached
+	 */
+	private final static int EXPRESSION_CACHE_MAX_LENGTH = 256;
+
+	/**
+	 * The maximum amount of expressions in {@link #expressionCache}
+	 */
+	private final static int EXPRESSION_CACHE_SIZE = 500;
+
+	/**
+	 * Recently calculated expressions, least recently used are removed first
+	 */
+	private final static Map<String, Expression> expressionCache = new LinkedHashMap<String, Expression>(EXPRESSION_CACHE_SIZE, 0.75F, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<String, Expression> eldest) {
+			return this.size() > EXPRESSION_CACHE_SIZE;
+		}
+	};
+
+	/**
+	 * Values for expressions without variables
+	 */
+	private final static double[] NO_VALUES = new double[0];
+
 	/**
 	 * Holds all valid roman numbers
 	 */
@@ -386,12 +418,52 @@ public final class MathUtil {
 
 	/**
 	 * Evaluate the given expression, e.g. 5*(4-2) returns... let me check!
+	 * <p>
+	 * Recently used expressions are kept compiled, if you evaluate the same formula
+	 * with different numbers, see {@link #compile(String)} instead.
 	 *
 	 * @param expression
 	 * @return
 	 */
 	public static double calculate(final String expression) {
+		final boolean cacheable = expression.length() <= EXPRESSION_CACHE_MAX_LENGTH;
+		Expression compiled = null;
+
+		if (cacheable)
+			synchronized (expressionCache) {
+				compiled = expressionCache.get(expression);
+			}
+
+		if (compiled == null) {
+			compiled = compile(expression);
+
+			if (compiled.variables.length > 0)
+				throw new CalculatorException("Unexpected: " + compiled.variables[0]);
+
+			if (cacheable)
+				synchronized (expressionCache) {
+					expressionCache.put(expression, compiled);
+				}
+		}
+
+		return compiled.evaluate(NO_VALUES);
+	}
+
+	/**
+	 * Parse the given expression once into a reusable {@link Expression} that can be
+	 * evaluated many times without parsing it again. Words in the expression,
+	 * such as "base" or "level_2" in "base * 1.5^level_2", are variables
+	 * whose values you give when evaluating.
+	 * <p>
+	 * Supports +, -, *, /, ^ and brackets, same as {@link #calculate(String)}.
+	 *
+	 * @param expression
+	 * @return
+	 * @throws CalculatorException if the expression is malformed
+	 */
+	public static Expression compile(final String expression) {
 		class Parser {
+			final List<String> variables = new ArrayList<>();
 			int pos = -1, c;
 
 			void eatChar() {
@@ -403,61 +475,60 @@ public final class MathUtil {
 					eatChar();
 			}
 
-			double parse() {
+			ExpressionNode parse() {
 				eatChar();
 
-				final double v = parseExpression();
+				final ExpressionNode node = parseExpression();
 
 				if (c != -1)
 					throw new CalculatorException("Unexpected: " + (char) c);
 
-				return v;
+				return node;
 			}
 
 			// Grammar:
 			// expression = term | expression `+` term | expression `-` term
 			// term = factor | term `*` factor | term `/` factor | term brackets
-			// factor = brackets | number | factor `^` factor
+			// factor = brackets | number | variable | factor `^` factor
 			// brackets = `(` expression `)`
 
-			double parseExpression() {
-				double v = parseTerm();
+			ExpressionNode parseExpression() {
+				ExpressionNode node = parseTerm();
 
 				for (;;) {
 					eatSpace();
 
 					if (c == '+') { // addition
 						eatChar();
-						v += parseTerm();
+						node = combine(node, parseTerm(), '+');
 					} else if (c == '-') { // subtraction
 						eatChar();
-						v -= parseTerm();
+						node = combine(node, parseTerm(), '-');
 					} else
-						return v;
-
+						return node;
 				}
 			}
 
-			double parseTerm() {
-				double v = parseFactor();
+			ExpressionNode parseTerm() {
+				ExpressionNode node = parseFactor();
 
 				for (;;) {
 					eatSpace();
 
 					if (c == '/') { // division
 						eatChar();
-						v /= parseFactor();
+						node = combine(node, parseFactor(), '/');
 					} else if (c == '*' || c == '(') { // multiplication
 						if (c == '*')
 							eatChar();
-						v *= parseFactor();
+						node = combine(node, parseFactor(), '*');
 					} else
-						return v;
+						return node;
 				}
 			}
 
-			double parseFactor() {
-				double v;
+			ExpressionNode parseFactor() {
+				ExpressionNode node;
 				boolean negate = false;
 
 				eatSpace();
@@ -470,33 +541,214 @@ public final class MathUtil {
 
 				if (c == '(') { // brackets
 					eatChar();
-					v = parseExpression();
+					node = parseExpression();
 					if (c == ')')
 						eatChar();
-				} else { // numbers
-					final StringBuilder sb = new StringBuilder();
+				} else if (Character.isLetter(c) || c == '_') { // variables
+					final int start = pos;
 
-					while (c >= '0' && c <= '9' || c == '.') {
-						sb.append((char) c);
+					while (Character.isLetterOrDigit(c) || c == '_')
 						eatChar();
+
+					final String name = expression.substring(start, pos);
+					int slot = variables.indexOf(name);
+
+					if (slot == -1) {
+						slot = variables.size();
+						variables.add(name);
 					}
 
-					if (sb.length() == 0)
+					final int index = slot;
+					node = values -> values[index];
+				} else { // numbers
+					final int start = pos;
+
+					while (c >= '0' && c <= '9' || c == '.')
+						eatChar();
+
+					if (start == pos)
 						throw new CalculatorException("Unexpected: " + (char) c);
 
-					v = Double.parseDouble(sb.toString());
+					final double value = Double.parseDouble(expression.substring(start, pos));
+					node = constant(value);
 				}
 				eatSpace();
 				if (c == '^') { // exponentiation
 					eatChar();
-					v = Math.pow(v, parseFactor());
+					node = combine(node, parseFactor(), '^');
+				}
+				if (negate) { // unary minus is applied after exponentiation; e.g. -3^2=-9
+					final ExpressionNode negated = node;
+					node = fold(values -> -negated.evaluate(values), negated);
 				}
-				if (negate)
-					v = -v; // unary minus is applied after exponentiation; e.g. -3^2=-9
-				return v;
+				return node;
 			}
+
+			// Join two nodes by the operator, evaluating them now if they have no variables
+			ExpressionNode combine(final ExpressionNode left, final ExpressionNode right, final char operator) {
+				final ExpressionNode node;
+
+				switch (operator) {
+					case '+':
+						node = values -> left.evaluate(values) + right.evaluate(values);
+						break;
+					case '-':
+						node = values -> left.evaluate(values) - right.evaluate(values);
+						break;
+					case '*':
+						node = values -> left.evaluate(values) * right.evaluate(values);
+						break;
+					case '/':
+						node = values -> left.evaluate(values) / right.evaluate(values);
+						break;
+					default:
+						node = values -> Math.pow(left.evaluate(values), right.evaluate(values));
+				}
+
+				return fold(node, left, right);
+			}
+
+			// Replace the node with its value if all of its operands are constants
+			ExpressionNode fold(final ExpressionNode node, final ExpressionNode... operands) {
+				for (final ExpressionNode operand : operands)
+					if (!(operand instanceof ConstantNode))
+						return node;
+
+				return constant(node.evaluate(NO_VALUES));
+			}
+
+			ExpressionNode constant(final double value) {
+				return new ConstantNode(value);
+			}
+		}
+
+		final Parser parser = new Parser();
+		final ExpressionNode root = parser.parse();
+
+		return new Expression(expression, parser.variables.toArray(new String[parser.variables.size()]), root);
+	}
+
+	/**
+	 * An expression parsed by {@link MathUtil#compile(String)}, safe
+	 * to evaluate from multiple threads at once
+	 */
+	public static final class Expression {
+
+		/**
+		 * The expression as it was written
+		 */
+		private final String expression;
+
+		/**
+		 * Variable names in the order they first appear in the expression
+		 */
+		private final String[] variables;
+
+		/**
+		 * The parsed expression
+		 */
+		private final ExpressionNode root;
+
+		/**
+		 * Reused arrays for {@link #evaluate(Map)} on each thread
+		 */
+		private final ThreadLocal<double[]> mapValues;
+
+		private Expression(final String expression, final String[] variables, final ExpressionNode root) {
+			this.expression = expression;
+			this.variables = variables;
+			this.root = root;
+			this.mapValues = ThreadLocal.withInitial(() -> new double[variables.length]);
+		}
+
+		/**
+		 * Return variable names in the order their values are expected in {@link #evaluate(double...)}
+		 *
+		 * @return
+		 */
+		public String[] getVariables() {
+			return variables.clone();
+		}
+
+		/**
+		 * Return the index of the variable's value in {@link #evaluate(double...)}, or -1 if there is no such variable
+		 *
+		 * @param variable
+		 * @return
+		 */
+		public int getVariableIndex(final String variable) {
+			for (int i = 0; i < variables.length; i++)
+				if (variables[i].equals(variable))
+					return i;
+
+			return -1;
+		}
+
+		/**
+		 * Evaluate the expression with the values of variables in the order of {@link #getVariables()}.
+		 * Pass a reused array to avoid creating a new one for each call.
+		 *
+		 * @param values
+		 * @return
+		 * @throws CalculatorException if there are less values than variables
+		 */
+		public double evaluate(final double... values) {
+			if (values.length < variables.length)
+				throw new CalculatorException("Expected " + variables.length + " values for " + Arrays.toString(variables) + " in '" + expression + "', got " + values.length);
+
+			return root.evaluate(values);
+		}
+
+		/**
+		 * Evaluate the expression with variable values from the map
+		 *
+		 * @param values
+		 * @return
+		 * @throws CalculatorException if a variable is missing from the map
+		 */
+		public double evaluate(final Map<String, ? extends Number> values) {
+			final double[] array = mapValues.get();
+
+			for (int i = 0; i < variables.length; i++) {
+				final Number value = values.get(variables[i]);
+
+				if (value == null)
+					throw new CalculatorException("Missing variable '" + variables[i] + "' in '" + expression + "'");
+
+				array[i] = value.doubleValue();
+			}
+
+			return root.evaluate(array);
+		}
+
+		@Override
+		public String toString() {
+			return "Expression{" + expression + "}";
+		}
+	}
+
+	/*
+	 * A part of a compiled expression
+	 */
+	@FunctionalInterface
+	private interface ExpressionNode {
+		double evaluate(double[] values);
+	}
+
+	/*
+	 * A part of a compiled expression with a fixed value
+	 */
+	private static final class ConstantNode implements ExpressionNode {
+		private final double value;
+
+		private ConstantNode(final double value) {
+			this.value = value;
+		}
+
+		@Override
+		public double evaluate(final double[] values) {
+			return value;
 		}
-		return new Parser().parse();
 	}
 
 	/**
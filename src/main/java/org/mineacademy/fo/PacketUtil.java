@@ -1,9 +1,10 @@
 package org.mineacademy.fo;
 
 import java.util.ArrayList;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.function.Consumer;
 
 import org.bukkit.entity.Player;
@@ -145,40 +146,37 @@ public final class PacketUtil {
 
 	/**
 	 * A convenience adapter for handling chat packets doing most of the heavy work for you.
+	 * <p>
+	 * Each packet is processed in its own context, so this adapter may also
+	 * be registered as an asynchronous listener in ProtocolLib.
 	 */
 	public static abstract class SimpleChatAdapter extends SimpleAdapter {
 
 		/**
-		 * Players being processed RIGHT NOW inside the method. Prevents dead loop.
+		 * The maximum amount of messages in each conversion cache
 		 */
-		private final Set<String> processedPlayers = new HashSet<>();
+		private static final int CACHE_SIZE = 1_000;
 
 		/**
-		 * The event field for convenient calling in the overridable methods
+		 * Messages longer than this are not cached
 		 */
-		@Getter
-		private PacketEvent event;
-
-		/**
-		 * The player field you can use below
-		 */
-		@Getter
-		private Player player;
+		private static final int CACHE_MAX_LENGTH = 2_048;
 
 		/**
-		 * The currently filtered json message
+		 * Recently converted JSON messages to legacy text, such as repeating system messages
 		 */
-		private String jsonMessage;
+		private static final Map<String, String> legacyCache = newCache();
 
 		/**
-		 * Support md_5 BaseComponent API
+		 * Recently converted legacy text messages to JSON
 		 */
-		private boolean isBaseComponent = false;
+		private static final Map<String, String> jsonCache = newCache();
 
 		/**
-		 * Support Adventure PaperSpigot library
+		 * The packet being processed on this thread, used to prevent dead loop when
+		 * a message is sent to the same player while processing
 		 */
-		private boolean adventure = false;
+		private final ThreadLocal<ChatContext> context = new ThreadLocal<>();
 
 		/**
 		 * @param params
@@ -187,49 +185,73 @@ public final class PacketUtil {
 			super(ListenerPriority.HIGHEST, PacketType.Play.Server.CHAT);
 		}
 
+		/**
+		 * Return the event being processed, for convenient calling in the overridable methods
+		 *
+		 * @return
+		 */
+		public PacketEvent getEvent() {
+			final ChatContext current = this.context.get();
+
+			return current != null ? current.event : null;
+		}
+
+		/**
+		 * Return the player receiving the packet being processed
+		 *
+		 * @return
+		 */
+		public Player getPlayer() {
+			final ChatContext current = this.context.get();
+
+			return current != null ? current.player : null;
+		}
+
 		@Override
 		public void onPacketSending(final PacketEvent event) {
-			if (event.getPlayer() == null)
-				return;
-
-			this.event = event;
-			this.player = event.getPlayer();
+			final Player player = event.getPlayer();
 
-			final String playerName = event.getPlayer().getName();
+			if (player == null)
+				return;
 
 			// Ignore temporary players
 			try {
-				this.player.getUniqueId();
+				player.getUniqueId();
 
 			} catch (final UnsupportedOperationException ex) {
 				return;
 			}
 
 			// Ignore dummy instances and rare reload case
-			if (!this.player.isOnline() || SimplePlugin.isReloading())
+			if (!player.isOnline() || SimplePlugin.isReloading())
 				return;
 
+			final ChatContext previous = this.context.get();
+
 			// Prevent deadlock
-			if (this.processedPlayers.contains(playerName))
+			if (previous != null && previous.player.getName().equals(player.getName()))
 				return;
 
 			// Lock processing to one instance only to prevent another packet filtering
 			// in a filtering
+			final ChatContext context = new ChatContext(event, player);
+
 			try {
-				this.processedPlayers.add(playerName);
+				this.context.set(context);
 
-				final String legacyText = this.compileChatMessage(event);
+				final String legacyText = this.compileChatMessage(context);
 				String parsedText = legacyText;
 
 				try {
-					Debugger.debug("packet", "Chat packet parsed message: '" + Common.stripColors(parsedText) + "'");
+					if (Debugger.isDebugged("packet"))
+						Debugger.debug("packet", "Chat packet parsed message: '" + Common.stripColors(parsedText) + "'");
 
 					parsedText = this.onMessage(parsedText);
 
 				} catch (final RegexTimeoutException ex) {
 					// Such errors mean the parsed message took too long to process.
 					// Only show such errors every 30 minutes to prevent console spam
-					Common.logTimed(1800, "&cWarning: &fPacket message '" + Common.limit(jsonMessage, 500)
+					Common.logTimed(1800, "&cWarning: &fPacket message '" + Common.limit(context.jsonMessage, 500)
 							+ "' (possibly longer) took too long time to edit received message and was ignored."
 							+ " This message only shows once per 30 minutes when that happens. For most cases, this can be ignored.");
 
@@ -241,24 +263,25 @@ public final class PacketUtil {
 					return;
 				}
 
-				if (this.jsonMessage != null && !this.jsonMessage.isEmpty())
-					this.onJsonMessage(jsonMessage);
+				if (context.jsonMessage != null && !context.jsonMessage.isEmpty())
+					this.onJsonMessage(context.jsonMessage);
 
-				if (!Common.stripColors(legacyText).equals(Common.stripColors(parsedText)))
-					this.writeEditedMessage(parsedText, event);
+				if (parsedText != legacyText && !ColorTranslator.equalsIgnoreColors(legacyText, parsedText))
+					this.writeEditedMessage(parsedText, context);
 
 			} finally {
-				this.processedPlayers.remove(this.player.getName());
+				if (previous != null)
+					this.context.set(previous);
+				else
+					this.context.remove();
 			}
 		}
 
 		/*
 		 * Read the chat message in unpacked format from the event
 		 */
-		private String compileChatMessage(PacketEvent event) {
-
-			// Reset
-			jsonMessage = null;
+		private String compileChatMessage(final ChatContext context) {
+			final PacketEvent event = context.event;
 
 			// No components for this MC version
 			if (MinecraftVersion.atLeast(V.v1_7)) {
@@ -278,7 +301,7 @@ public final class PacketUtil {
 				}
 
 				if (component != null)
-					jsonMessage = component.getJson();
+					context.jsonMessage = component.getJson();
 
 				// Md_5 way of dealing with packets
 				else if (packet.size() > 1) {
@@ -289,19 +312,21 @@ public final class PacketUtil {
 						secondField = packet.readSafely(2);
 
 						if (secondField != null)
-							adventure = true;
+							context.adventure = true;
 					}
 
 					if (secondField instanceof BaseComponent[]) {
-						jsonMessage = Remain.toJson((BaseComponent[]) secondField);
+						context.jsonMessage = Remain.toJson((BaseComponent[]) secondField);
 
-						isBaseComponent = true;
+						context.baseComponent = true;
 					}
 				}
 			}
 
 			else
-				jsonMessage = event.getPacket().getStrings().read(0);
+				context.jsonMessage = event.getPacket().getStrings().read(0);
+
+			final String jsonMessage = context.jsonMessage;
 
 			if (jsonMessage != null && !jsonMessage.isEmpty()) {
 
@@ -309,14 +334,19 @@ public final class PacketUtil {
 				// to take too long and overflow. 99% packets are below this size, it may even be
 				// that such oversized packets are maliciously sent so we protect the server from freeze
 				if (jsonMessage.length() < 50_000) {
-					final String legacyText;
+					String legacyText = getCached(legacyCache, jsonMessage);
 
-					// Catch errors from other plugins and silence them
-					try {
-						legacyText = Remain.toLegacyText(jsonMessage, false);
+					if (legacyText == null) {
 
-					} catch (final Throwable t) {
-						return "";
+						// Catch errors from other plugins and silence them
+						try {
+							legacyText = Remain.toLegacyText(jsonMessage, false);
+
+						} catch (final Throwable t) {
+							return "";
+						}
+
+						putCached(legacyCache, jsonMessage, legacyText);
 					}
 
 					return legacyText;
@@ -329,13 +359,22 @@ public final class PacketUtil {
 		/*
 		 * Writes the edited message as JSON format from the event
 		 */
-		private void writeEditedMessage(String message, PacketEvent event) {
+		private void writeEditedMessage(final String message, final ChatContext context) {
+			final PacketEvent event = context.event;
 			final StructureModifier<Object> packet = event.getPacket().getModifier();
 
-			jsonMessage = Remain.toJson(message);
+			String jsonMessage = getCached(jsonCache, message);
+
+			if (jsonMessage == null) {
+				jsonMessage = Remain.toJson(message);
 
-			if (isBaseComponent)
-				packet.writeSafely(adventure ? 2 : 1, Remain.toComponent(jsonMessage));
+				putCached(jsonCache, message, jsonMessage);
+			}
+
+			context.jsonMessage = jsonMessage;
+
+			if (context.baseComponent)
+				packet.writeSafely(context.adventure ? 2 : 1, Remain.toComponent(jsonMessage));
 
 			else {
 				if (MinecraftVersion.atLeast(V.v1_7))
@@ -346,6 +385,36 @@ public final class PacketUtil {
 			}
 		}
 
+		/*
+		 * Create a new synchronized cache removing least recently used messages
+		 */
+		private static Map<String, String> newCache() {
+			return Collections.synchronizedMap(new LinkedHashMap<String, String>(CACHE_SIZE, 0.75F, true) {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(final Map.Entry<String, String> eldest) {
+					return this.size() > CACHE_SIZE;
+				}
+			});
+		}
+
+		/*
+		 * Return the cached conversion of the message, or null
+		 */
+		private static String getCached(final Map<String, String> cache, final String message) {
+			return message.length() <= CACHE_MAX_LENGTH ? cache.get(message) : null;
+		}
+
+		/*
+		 * Cache the conversion of the message if it is not too long
+		 */
+		private static void putCached(final Map<String, String> cache, final String message, final String converted) {
+			if (message.length() <= CACHE_MAX_LENGTH)
+				cache.put(message, converted);
+		}
+
 		/**
 		 * Called automatically when we receive and decipher a chat message packet.
 		 * <p>
@@ -369,6 +438,42 @@ public final class PacketUtil {
 		 */
 		protected void onJsonMessage(final String jsonMessage) {
 		}
+
+		/*
+		 * The state of a single chat packet being processed
+		 */
+		private static final class ChatContext {
+
+			/**
+			 * The packet event
+			 */
+			private final PacketEvent event;
+
+			/**
+			 * The player receiving the packet
+			 */
+			private final Player player;
+
+			/**
+			 * The currently filtered json message
+			 */
+			private String jsonMessage;
+
+			/**
+			 * Support md_5 BaseComponent API
+			 */
+			private boolean baseComponent = false;
+
+			/**
+			 * Support Adventure PaperSpigot library
+			 */
+			private boolean adventure = false;
+
+			private ChatContext(final PacketEvent event, final Player player) {
+				this.event = event;
+				this.player = player;
+			}
+		}
 	}
 
 	/**
@@ -1,13 +1,21 @@
 package org.mineacademy.fo;
 
+import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Enumeration;
 import java.util.HashMap;
@@ -26,11 +34,13 @@ import org.bukkit.event.entity.EntityDamageEvent.DamageCause;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.java.JavaPlugin;
 import org.mineacademy.fo.MinecraftVersion.V;
+import org.mineacademy.fo.annotation.ClassIndexProcessor;
 import org.mineacademy.fo.exception.FoException;
 import org.mineacademy.fo.plugin.SimplePlugin;
 import org.mineacademy.fo.remain.CompMaterial;
 
 import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
 import lombok.SneakyThrows;
@@ -65,6 +75,11 @@ public final class ReflectionUtil {
 	private static final Map<Class<?>, ReflectionData<?>> reflectionDataCache = new ConcurrentHashMap<>();
 	private static final Collection<String> classNameGuard = ConcurrentHashMap.newKeySet();
 
+	/**
+	 * Plugin jars we already read, by plugin name
+	 */
+	private static final Map<String, PluginJar> pluginJarCache = new ConcurrentHashMap<>();
+
 	/**
 	 * Find a class automatically for older MC version (such as type EntityPlayer for oldName
 	 * and we automatically find the proper NMS import) or if MC 1.17+ is used then type
@@ -532,6 +547,79 @@ public final class ReflectionUtil {
 		}
 	}
 
+	/**
+	 * Bind the method into a {@link MethodAccessor} that invokes it through a method handle,
+	 * skipping access checks and argument validation of {@link Method#invoke(Object, Object...)}
+	 * <p>
+	 * Bind once and store the accessor, binding itself is not cheap.
+	 *
+	 * @param method
+	 * @return
+	 */
+	public static MethodAccessor bind(@NonNull final Method method) {
+		try {
+			method.setAccessible(true);
+
+			return new MethodAccessor(method, MethodHandles.lookup().unreflect(method), Modifier.isStatic(method.getModifiers()));
+
+		} catch (final ReflectiveOperationException ex) {
+			throw new ReflectionException(ex, "Could not bind method " + method);
+		}
+	}
+
+	/**
+	 * Bind the field into a {@link FieldAccessor}, see {@link #bind(Method)}
+	 *
+	 * @param field
+	 * @return
+	 */
+	public static FieldAccessor bind(@NonNull final Field field) {
+		try {
+			field.setAccessible(true);
+
+			final boolean isStatic = Modifier.isStatic(field.getModifiers());
+			final MethodHandle getter = MethodHandles.lookup().unreflectGetter(field);
+			MethodHandle setter = null;
+
+			if (!Modifier.isFinal(field.getModifiers()))
+				setter = MethodHandles.lookup().unreflectSetter(field);
+
+			return new FieldAccessor(field, getter, setter, isStatic);
+
+		} catch (final ReflectiveOperationException ex) {
+			throw new ReflectionException(ex, "Could not bind field " + field);
+		}
+	}
+
+	/**
+	 * Bind the constructor into a {@link ConstructorAccessor}, see {@link #bind(Method)}
+	 *
+	 * @param <T>
+	 * @param constructor
+	 * @return
+	 */
+	public static <T> ConstructorAccessor<T> bind(@NonNull final Constructor<T> constructor) {
+		try {
+			constructor.setAccessible(true);
+
+			return new ConstructorAccessor<>(constructor, MethodHandles.lookup().unreflectConstructor(constructor));
+
+		} catch (final ReflectiveOperationException ex) {
+			throw new ReflectionException(ex, "Could not bind constructor " + constructor);
+		}
+	}
+
+	/*
+	 * Adapt the handle to take and return only objects, taking the instance
+	 * as the first argument even for static members
+	 */
+	private static MethodHandle toGenericHandle(MethodHandle handle, final boolean isStatic) {
+		if (isStatic)
+			handle = MethodHandles.dropArguments(handle, 0, Object.class);
+
+		return handle.asType(MethodType.genericMethodType(handle.type().parameterCount()));
+	}
+
 	/**
 	 * Return true if the given absolute class path is available,
 	 * useful for checking for older MC versions for classes such as org.bukkit.entity.Phantom
@@ -860,51 +948,46 @@ public final class ReflectionUtil {
 	/**
 	 * Get all classes in the java plugin
 	 *
+	 * If the plugin was compiled with {@link ClassIndexProcessor}, we only load classes
+	 * listed in its index as extending the given class, otherwise we scan the jar once
+	 * and reuse the result for subsequent calls.
+	 *
 	 * @param plugin
 	 * @return
 	 */
-	@SneakyThrows
 	public static <T> TreeSet<Class<T>> getClasses(final Plugin plugin, Class<T> extendingClass) {
-		Valid.checkNotNull(plugin, "Plugin is null!");
-		Valid.checkBoolean(JavaPlugin.class.isAssignableFrom(plugin.getClass()), "Plugin must be a JavaPlugin");
-
-		// Get the plugin .jar
-		final Method getFileMethod = JavaPlugin.class.getDeclaredMethod("getFile");
-		getFileMethod.setAccessible(true);
-
-		final File pluginFile = (File) getFileMethod.invoke(plugin);
-
+		final PluginJar jar = getPluginJar(plugin);
 		final TreeSet<Class<T>> classes = new TreeSet<>(Comparator.comparing(Class::toString));
 
-		try (final JarFile jarFile = new JarFile(pluginFile)) {
-			final Enumeration<JarEntry> entries = jarFile.entries();
+		final Iterable<Class<?>> candidates = extendingClass != null && jar.hasIndex() ? jar.getIndexedSubclasses(extendingClass) : jar.getLoadedClasses();
 
-			while (entries.hasMoreElements()) {
-				String name = entries.nextElement().getName();
+		for (final Class<?> clazz : candidates)
+			if (extendingClass == null || (extendingClass.isAssignableFrom(clazz) && clazz != extendingClass))
+				classes.add((Class<T>) clazz);
 
-				if (name.endsWith(".class")) {
-					name = name.replace("/", ".").replaceFirst(".class", "");
-
-					Class<?> clazz = null;
-
-					try {
-						clazz = Class.forName(name, false, SimplePlugin.class.getClassLoader());
-
-						if (extendingClass == null || (extendingClass.isAssignableFrom(clazz) && clazz != extendingClass))
-							classes.add((Class<T>) clazz);
-
-					} catch (final Throwable throwable) {
+		return classes;
+	}
 
-						if (extendingClass != null && (clazz != null && extendingClass.isAssignableFrom(clazz)) && clazz != extendingClass)
-							Common.log("Unable to load class '" + name + "' due to error: " + throwable);
+	/**
+	 * Return names of all files in the plugin's jar, such as org/mineacademy/fo/Common.class
+	 *
+	 * The jar is only read once and then cached.
+	 *
+	 * @param plugin
+	 * @return
+	 */
+	public static List<String> getJarEntries(final Plugin plugin) {
+		return Collections.unmodifiableList(getPluginJar(plugin).getEntries());
+	}
 
-						continue;
-					}
-				}
-			}
-		}
+	/*
+	 * Read the plugin's jar or return it from cache
+	 */
+	private static PluginJar getPluginJar(final Plugin plugin) {
+		Valid.checkNotNull(plugin, "Plugin is null!");
+		Valid.checkBoolean(JavaPlugin.class.isAssignableFrom(plugin.getClass()), "Plugin must be a JavaPlugin");
 
-		return classes;
+		return pluginJarCache.computeIfAbsent(plugin.getName(), name -> PluginJar.read(plugin));
 	}
 
 	static {
@@ -1096,6 +1179,407 @@ public final class ReflectionUtil {
 		}
 	}
 
+	/**
+	 * A method bound into a method handle, see {@link ReflectionUtil#bind(Method)}
+	 * <p>
+	 * Prefer the fixed arity invoke methods, they do not allocate an argument array.
+	 * The instance is ignored for static methods.
+	 */
+	public static final class MethodAccessor {
+
+		/**
+		 * The bound method
+		 */
+		@Getter
+		private final Method method;
+
+		/**
+		 * The handle taking the instance followed by the method arguments
+		 */
+		private final MethodHandle handle;
+
+		/**
+		 * The handle taking the instance followed by an array of the method arguments
+		 */
+		private final MethodHandle spreader;
+
+		private MethodAccessor(final Method method, final MethodHandle handle, final boolean isStatic) {
+			this.method = method;
+			this.handle = toGenericHandle(handle, isStatic);
+			this.spreader = this.handle.asSpreader(Object[].class, method.getParameterCount());
+		}
+
+		/**
+		 * Invoke the method without arguments
+		 *
+		 * @param <T>
+		 * @param instance
+		 * @return
+		 */
+		public <T> T invoke(final Object instance) {
+			try {
+				return (T) (Object) this.handle.invokeExact(instance);
+
+			} catch (final Throwable t) {
+				throw new ReflectionException(t, "Could not invoke method " + this.method + " on instance " + instance);
+			}
+		}
+
+		/**
+		 * Invoke the method with one argument
+		 *
+		 * @param <T>
+		 * @param instance
+		 * @param argument
+		 * @return
+		 */
+		public <T> T invoke(final Object instance, final Object argument) {
+			try {
+				return (T) (Object) this.handle.invokeExact(instance, argument);
+
+			} catch (final Throwable t) {
+				throw new ReflectionException(t, "Could not invoke method " + this.method + " on instance " + instance + " with param " + argument);
+			}
+		}
+
+		/**
+		 * Invoke the method with two arguments
+		 *
+		 * @param <T>
+		 * @param instance
+		 * @param first
+		 * @param second
+		 * @return
+		 */
+		public <T> T invoke(final Object instance, final Object first, final Object second) {
+			try {
+				return (T) (Object) this.handle.invokeExact(instance, first, second);
+
+			} catch (final Throwable t) {
+				throw new ReflectionException(t, "Could not invoke method " + this.method + " on instance " + instance + " with params " + first + ", " + second);
+			}
+		}
+
+		/**
+		 * Invoke the method with any amount of arguments
+		 *
+		 * @param <T>
+		 * @param instance
+		 * @param arguments
+		 * @return
+		 */
+		public <T> T invokeWithArguments(final Object instance, final Object... arguments) {
+			try {
+				return (T) (Object) this.spreader.invokeExact(instance, arguments);
+
+			} catch (final Throwable t) {
+				throw new ReflectionException(t, "Could not invoke method " + this.method + " on instance " + instance + " with params " + StringUtils.join(arguments));
+			}
+		}
+	}
+
+	/**
+	 * A field bound into method handles, see {@link ReflectionUtil#bind(Field)}
+	 * <p>
+	 * The instance is ignored for static fields.
+	 */
+	public static final class FieldAccessor {
+
+		/**
+		 * The bound field
+		 */
+		@Getter
+		private final Field field;
+
+		/**
+		 * The handles to get and set the field, the setter is null for final fields
+		 */
+		private final MethodHandle getter, setter;
+
+		private FieldAccessor(final Field field, final MethodHandle getter, final MethodHandle setter, final boolean isStatic) {
+			this.field = field;
+			this.getter = toGenericHandle(getter, isStatic);
+			this.setter = setter == null ? null : toGenericHandle(setter, isStatic).asType(MethodType.methodType(void.class, Object.class, Object.class));
+		}
+
+		/**
+		 * Return the field value
+		 *
+		 * @param <T>
+		 * @param instance
+		 * @return
+		 */
+		public <T> T get(final Object instance) {
+			try {
+				return (T) (Object) this.getter.invokeExact(instance);
+
+			} catch (final Throwable t) {
+				throw new ReflectionException(t, "Could not get field " + this.field + " from instance " + instance);
+			}
+		}
+
+		/**
+		 * Set the field value
+		 *
+		 * @param instance
+		 * @param value
+		 */
+		public void set(final Object instance, final Object value) {
+			if (this.setter == null)
+				throw new ReflectionException("Cannot set final field " + this.field);
+
+			try {
+				this.setter.invokeExact(instance, value);
+
+			} catch (final Throwable t) {
+				throw new ReflectionException(t, "Could not set field " + this.field + " on instance " + instance + " to " + value);
+			}
+		}
+	}
+
+	/**
+	 * A constructor bound into a method handle, see {@link ReflectionUtil#bind(Constructor)}
+	 *
+	 * @param <T>
+	 */
+	public static final class ConstructorAccessor<T> {
+
+		/**
+		 * The bound constructor
+		 */
+		@Getter
+		private final Constructor<T> constructor;
+
+		/**
+		 * The handle taking the constructor arguments, and the one taking them as an array
+		 */
+		private final MethodHandle handle, spreader;
+
+		private ConstructorAccessor(final Constructor<T> constructor, final MethodHandle handle) {
+			this.constructor = constructor;
+			this.handle = toGenericHandle(handle, false);
+			this.spreader = this.handle.asSpreader(Object[].class, constructor.getParameterCount());
+		}
+
+		/**
+		 * Make a new instance without arguments
+		 *
+		 * @return
+		 */
+		public T newInstance() {
+			try {
+				return (T) (Object) this.handle.invokeExact();
+
+			} catch (final Throwable t) {
+				throw new ReflectionException(t, "Could not make new instance of " + this.constructor);
+			}
+		}
+
+		/**
+		 * Make a new instance with one argument
+		 *
+		 * @param argument
+		 * @return
+		 */
+		public T newInstance(final Object argument) {
+			try {
+				return (T) (Object) this.handle.invokeExact(argument);
+
+			} catch (final Throwable t) {
+				throw new ReflectionException(t, "Could not make new instance of " + this.constructor + " with param " + argument);
+			}
+		}
+
+		/**
+		 * Make a new instance with any amount of arguments
+		 *
+		 * @param arguments
+		 * @return
+		 */
+		public T newInstanceWithArguments(final Object... arguments) {
+			try {
+				return (T) (Object) this.spreader.invokeExact(arguments);
+
+			} catch (final Throwable t) {
+				throw new ReflectionException(t, "Could not make new instance of " + this.constructor + " with params " + StringUtils.join(arguments));
+			}
+		}
+	}
+
+	/**
+	 * Holds the entries and the class index of a plugin's jar, read once
+	 */
+	private static final class PluginJar {
+
+		/**
+		 * Where Foundation is located at runtime, possibly relocated
+		 */
+		private static final String FOUNDATION_PACKAGE = ReflectionUtil.class.getName().substring(0, ReflectionUtil.class.getName().length() - ".ReflectionUtil".length());
+
+		/**
+		 * All file names in the jar
+		 */
+		@Getter
+		private final List<String> entries;
+
+		/**
+		 * Class names by each of their super classes and interfaces, from {@link ClassIndexProcessor#INDEX_PATH},
+		 * or null if the plugin was compiled without it
+		 */
+		private final Map<String, List<String>> subclasses;
+
+		/**
+		 * All classes in the jar, loaded on first use
+		 */
+		private volatile List<Class<?>> loadedClasses;
+
+		/**
+		 * Foundation classes in the jar, which are never in the index, loaded on first use
+		 */
+		private volatile List<Class<?>> foundationClasses;
+
+		private PluginJar(final List<String> entries, final Map<String, List<String>> subclasses) {
+			this.entries = entries;
+			this.subclasses = subclasses;
+		}
+
+		/*
+		 * Return true if the plugin has a class index
+		 */
+		private boolean hasIndex() {
+			return this.subclasses != null;
+		}
+
+		/*
+		 * Return classes the index lists as extending the given class, plus Foundation's own
+		 */
+		private List<Class<?>> getIndexedSubclasses(final Class<?> extendingClass) {
+			final List<Class<?>> classes = new ArrayList<>();
+
+			for (final String name : this.subclasses.getOrDefault(extendingClass.getName(), Collections.emptyList())) {
+				final Class<?> clazz = loadClass(name, extendingClass);
+
+				if (clazz != null)
+					classes.add(clazz);
+			}
+
+			if (extendingClass.getName().startsWith(FOUNDATION_PACKAGE + "."))
+				classes.addAll(this.getFoundationClasses());
+
+			return classes;
+		}
+
+		/*
+		 * Load and cache Foundation classes in the jar
+		 */
+		private List<Class<?>> getFoundationClasses() {
+			if (this.foundationClasses == null)
+				this.foundationClasses = this.loadClasses(FOUNDATION_PACKAGE.replace('.', '/') + "/");
+
+			return this.foundationClasses;
+		}
+
+		/*
+		 * Load and cache all classes in the jar
+		 */
+		private List<Class<?>> getLoadedClasses() {
+			if (this.loadedClasses == null)
+				this.loadedClasses = this.loadClasses("");
+
+			return this.loadedClasses;
+		}
+
+		/*
+		 * Load all classes in the jar which path starts with the given prefix
+		 */
+		private List<Class<?>> loadClasses(final String pathPrefix) {
+			final List<Class<?>> classes = new ArrayList<>();
+
+			for (final String entry : this.entries)
+				if (entry.endsWith(".class") && entry.startsWith(pathPrefix)) {
+					final Class<?> clazz = loadClass(entry.substring(0, entry.length() - ".class".length()).replace('/', '.'), null);
+
+					if (clazz != null)
+						classes.add(clazz);
+				}
+
+			return Collections.unmodifiableList(classes);
+		}
+
+		/*
+		 * Load the class without initializing it, returning null and logging if it is expected
+		 * to extend the given class yet fails to load
+		 */
+		private static Class<?> loadClass(final String name, final Class<?> extendingClass) {
+			try {
+				return Class.forName(name, false, SimplePlugin.class.getClassLoader());
+
+			} catch (final Throwable throwable) {
+				if (extendingClass != null)
+					Common.log("Unable to load class '" + name + "' due to error: " + throwable);
+
+				return null;
+			}
+		}
+
+		/*
+		 * Read entries and the class index from the plugin's jar
+		 */
+		@SneakyThrows
+		private static PluginJar read(final Plugin plugin) {
+			final Method getFileMethod = JavaPlugin.class.getDeclaredMethod("getFile");
+			getFileMethod.setAccessible(true);
+
+			final File pluginFile = (File) getFileMethod.invoke(plugin);
+			final List<String> entries = new ArrayList<>();
+			Map<String, List<String>> subclasses = null;
+
+			try (final JarFile jarFile = new JarFile(pluginFile)) {
+				final Enumeration<JarEntry> jarEntries = jarFile.entries();
+
+				while (jarEntries.hasMoreElements())
+					entries.add(jarEntries.nextElement().getName());
+
+				final JarEntry indexEntry = jarFile.getJarEntry(ClassIndexProcessor.INDEX_PATH);
+
+				if (indexEntry != null)
+					try (BufferedReader reader = new BufferedReader(new InputStreamReader(jarFile.getInputStream(indexEntry), StandardCharsets.UTF_8))) {
+						subclasses = readIndex(reader);
+					}
+			}
+
+			return new PluginJar(entries, subclasses);
+		}
+
+		/*
+		 * Parse the index lines, each a class followed by its super types, into class names by super type
+		 */
+		private static Map<String, List<String>> readIndex(final BufferedReader reader) throws IOException {
+			final Map<String, List<String>> subclasses = new HashMap<>();
+			String line;
+
+			while ((line = reader.readLine()) != null) {
+				if (line.isEmpty())
+					continue;
+
+				final String[] parts = line.split(" ");
+				final String className = relocate(parts[0]);
+
+				for (int i = 1; i < parts.length; i++)
+					subclasses.computeIfAbsent(relocate(parts[i]), key -> new ArrayList<>()).add(className);
+			}
+
+			return subclasses;
+		}
+
+		/*
+		 * Replace the Foundation placeholder with where Foundation is at runtime
+		 */
+		private static String relocate(final String name) {
+			return name.startsWith(ClassIndexProcessor.FOUNDATION_PREFIX) ? FOUNDATION_PACKAGE + name.substring(ClassIndexProcessor.FOUNDATION_PREFIX.length()) : name;
+		}
+	}
+
 	/**
 	 * Represents an exception during reflection operation
 	 */
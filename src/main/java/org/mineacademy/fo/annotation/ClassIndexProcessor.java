@@ -0,0 +1,173 @@
+package org.mineacademy.fo.annotation;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import org.mineacademy.fo.ReflectionUtil;
+
+/**
+ * Writes an index of all classes compiled in your plugin together with all of their
+ * super classes and interfaces into {@link #INDEX_PATH} in your jar, so that
+ * {@link ReflectionUtil#getClasses(org.bukkit.plugin.Plugin, Class)} does not need
+ * to load every class in the jar to find those extending a given class.
+ * <p>
+ * The processor is registered automatically when Foundation is on the compile classpath.
+ * If you configure annotationProcessorPaths in your pom.xml, add Foundation there too.
+ * Without the index, we fall back to scanning the jar once.
+ */
+@SupportedAnnotationTypes("*")
+public final class ClassIndexProcessor extends AbstractProcessor {
+
+	/**
+	 * Where the index is stored in the jar
+	 */
+	public static final String INDEX_PATH = "META-INF/foundation/class-index.txt";
+
+	/**
+	 * Foundation types are written with this prefix instead of their package,
+	 * so that the index works when Foundation gets relocated in your jar
+	 */
+	public static final String FOUNDATION_PREFIX = "~";
+
+	/**
+	 * The Foundation package when the processor runs, not relocated yet
+	 */
+	private static final String FOUNDATION_PACKAGE = ClassIndexProcessor.class.getName().substring(0, ClassIndexProcessor.class.getName().length() - ".annotation.ClassIndexProcessor".length());
+
+	/**
+	 * Super types for each class compiled in this run
+	 */
+	private final Map<String, Set<String>> index = new TreeMap<>();
+
+	@Override
+	public SourceVersion getSupportedSourceVersion() {
+		return SourceVersion.latestSupported();
+	}
+
+	@Override
+	public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+		if (roundEnv.processingOver()) {
+			if (!this.index.isEmpty())
+				this.writeIndex();
+
+		} else
+			for (final Element element : roundEnv.getRootElements())
+				if (element instanceof TypeElement)
+					this.addType((TypeElement) element);
+
+		return false;
+	}
+
+	/*
+	 * Index the type and all types declared inside it
+	 */
+	private void addType(TypeElement type) {
+		final Set<String> supertypes = new TreeSet<>();
+
+		this.collectSupertypes(type.asType(), supertypes);
+		this.index.put(this.getName(type), supertypes);
+
+		for (final Element enclosed : type.getEnclosedElements())
+			if (enclosed instanceof TypeElement)
+				this.addType((TypeElement) enclosed);
+	}
+
+	/*
+	 * Add all super classes and interfaces of the type, except Object
+	 */
+	private void collectSupertypes(TypeMirror type, Set<String> supertypes) {
+		for (final TypeMirror supertype : this.processingEnv.getTypeUtils().directSupertypes(type)) {
+			if (supertype.getKind() != TypeKind.DECLARED)
+				continue;
+
+			final String name = this.getName((TypeElement) ((DeclaredType) supertype).asElement());
+
+			if (!"java.lang.Object".equals(name) && supertypes.add(name))
+				this.collectSupertypes(supertype, supertypes);
+		}
+	}
+
+	/*
+	 * Return the binary name of the type, with Foundation package replaced
+	 */
+	private String getName(TypeElement type) {
+		final String name = this.processingEnv.getElementUtils().getBinaryName(type).toString();
+
+		return name.startsWith(FOUNDATION_PACKAGE + ".") ? FOUNDATION_PREFIX + name.substring(FOUNDATION_PACKAGE.length()) : name;
+	}
+
+	/*
+	 * Merge the classes compiled now into the index from previous compilations and write it,
+	 * dropping classes from before that no longer exist
+	 */
+	private void writeIndex() {
+		final Map<String, Set<String>> merged = new TreeMap<>();
+
+		try {
+			final FileObject existing = this.processingEnv.getFiler().getResource(StandardLocation.CLASS_OUTPUT, "", INDEX_PATH);
+
+			try (Reader reader = existing.openReader(true); BufferedReader lines = new BufferedReader(reader)) {
+				String line;
+
+				while ((line = lines.readLine()) != null)
+					if (!line.isEmpty()) {
+						final String[] parts = line.split(" ");
+
+						if (this.exists(parts[0]))
+							merged.put(parts[0], new TreeSet<>(Arrays.asList(parts).subList(1, parts.length)));
+					}
+			}
+
+		} catch (final IOException | IllegalArgumentException ex) {
+			// No index yet
+		}
+
+		merged.putAll(this.index);
+
+		try (Writer writer = this.processingEnv.getFiler().createResource(StandardLocation.CLASS_OUTPUT, "", INDEX_PATH).openWriter()) {
+			for (final Map.Entry<String, Set<String>> entry : merged.entrySet()) {
+				writer.write(entry.getKey());
+
+				for (final String supertype : entry.getValue())
+					writer.write(" " + supertype);
+
+				writer.write("\n");
+			}
+
+		} catch (final IOException ex) {
+			this.processingEnv.getMessager().printMessage(Diagnostic.Kind.WARNING, "Foundation could not write class index to " + INDEX_PATH + ": " + ex);
+		}
+	}
+
+	/*
+	 * Return true if the type from the index is compiled now or still on the class path
+	 */
+	private boolean exists(String name) {
+		if (this.index.containsKey(name))
+			return true;
+
+		final String binaryName = name.startsWith(FOUNDATION_PREFIX) ? FOUNDATION_PACKAGE + name.substring(FOUNDATION_PREFIX.length()) : name;
+
+		return this.processingEnv.getElementUtils().getTypeElement(binaryName.replace('$', '.')) != null;
+	}
+}
@@ -295,11 +295,10 @@ public final class ExpiringMap<K, V> implements ConcurrentMap<K, V> {
 	}
 
 	/**
-	 * Creates a new instance of ExpiringMap.
-	 *
-	 * @param builder The map builder
+	 * Returns the thread expiring entries, creating it if needed.
+	 * Shared with {@link WheelExpiringMap} for sweeping idle maps.
 	 */
-	private ExpiringMap(final Builder<K, V> builder) {
+	static ScheduledExecutorService getExpirer() {
 		if (EXPIRER == null)
 			synchronized (ExpiringMap.class) {
 				if (EXPIRER == null)
@@ -307,6 +306,17 @@ public final class ExpiringMap<K, V> implements ConcurrentMap<K, V> {
 							THREAD_FACTORY == null ? new NamedThreadFactory("ExpiringMap-Expirer") : THREAD_FACTORY);
 			}
 
+		return EXPIRER;
+	}
+
+	/**
+	 * Creates a new instance of ExpiringMap.
+	 *
+	 * @param builder The map builder
+	 */
+	private ExpiringMap(final Builder<K, V> builder) {
+		getExpirer();
+
 		if (LISTENER_SERVICE == null && builder.asyncExpirationListeners != null)
 			synchronized (ExpiringMap.class) {
 				if (LISTENER_SERVICE == null)
@@ -0,0 +1,834 @@
+package org.mineacademy.fo.collection.expiringmap;
+
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.mineacademy.fo.Valid;
+import org.mineacademy.fo.collection.expiringmap.ExpiringMap.ExpirationListener;
+
+import lombok.NonNull;
+
+/**
+ * A thread-safe map that expires entries, built for small caches with
+ * short expiration that are read and written from many threads at once.
+ * <p>
+ * Unlike {@link ExpiringMap}, which guards all entries with one lock and schedules
+ * each entry on the expirer thread, entries are split into segments with their own lock.
+ * Each segment tracks expiration in a hierarchical timing wheel that it advances
+ * whenever it is accessed, so expiring entries costs O(1) per entry regardless of
+ * their expiration and needs no scheduling. Idle maps are also swept once a second.
+ * <p>
+ * Expired entries are never returned even if the wheel did not reach them yet.
+ * Expiration listeners are called synchronously by the thread that expired the entry,
+ * after releasing the segment lock. Every entry can have its own expiration.
+ * <p>
+ * This map is opt-in, Foundation's own caches use {@link ExpiringMap}. With few cores it
+ * is slower than {@link ExpiringMap}, so only switch a cache to it after measuring both
+ * with your real thread count, for example with ExpiringMapBenchmark in src/test.
+ *
+ * <pre>
+ * Map&lt;String, String&gt; cache = WheelExpiringMap.builder().expiration(500, TimeUnit.MILLISECONDS).build();
+ * </pre>
+ *
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public final class WheelExpiringMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+	/**
+	 * Bit shifts of the bucket durations in each wheel, the buckets last
+	 * ~67 ms, ~4.3 s, ~4.6 min and ~4.9 h. Each wheel spans one bucket of the next one.
+	 * Entries expiring after the last wheel (~13 days) wait in it and are rescheduled.
+	 */
+	private static final int[] SHIFTS = { 26, 32, 38, 44 };
+
+	/**
+	 * The amount of buckets in each wheel
+	 */
+	private static final int BUCKETS = 64;
+
+	/**
+	 * How often idle maps are swept for expired entries
+	 */
+	private static final long SWEEP_PERIOD_MILLIS = 1_000;
+
+	/**
+	 * The segments, a power of two of them
+	 */
+	private final Segment[] segments;
+
+	/**
+	 * The expiration of entries put without their own
+	 */
+	private final long expirationNanos;
+
+	/**
+	 * The policy for all entries
+	 */
+	private final ExpirationPolicy expirationPolicy;
+
+	/**
+	 * Listeners called when an entry expires
+	 */
+	private final List<ExpirationListener<K, V>> expirationListeners = new CopyOnWriteArrayList<>();
+
+	private WheelExpiringMap(Builder<K, V> builder) {
+		this.expirationNanos = builder.timeUnit.toNanos(builder.duration);
+		this.expirationPolicy = builder.expirationPolicy;
+		this.expirationListeners.addAll(builder.expirationListeners);
+
+		int segmentCount = 1;
+
+		while (segmentCount < builder.concurrencyLevel)
+			segmentCount <<= 1;
+
+		this.segments = new WheelExpiringMap.Segment[segmentCount];
+
+		final long now = System.nanoTime();
+
+		for (int i = 0; i < segmentCount; i++)
+			this.segments[i] = new Segment(now);
+
+		final Sweeper sweeper = new Sweeper(this);
+
+		sweeper.task = ExpiringMap.getExpirer().scheduleWithFixedDelay(sweeper, SWEEP_PERIOD_MILLIS, SWEEP_PERIOD_MILLIS, TimeUnit.MILLISECONDS);
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Map
+	// ------------------------------------------------------------------------------------------------------------
+
+	@Override
+	public V get(Object key) {
+		Valid.checkNotNull(key, "key");
+
+		final Segment segment = this.segmentFor(key);
+		final long now = System.nanoTime();
+		final List<Node<K, V>> expired = this.newExpiredList();
+		V value = null;
+
+		segment.lock();
+
+		try {
+			segment.advance(now, expired);
+
+			final Node<K, V> node = segment.entries.get(key);
+
+			if (node != null)
+				if (node.isExpired(now))
+					segment.expire(node, expired);
+
+				else {
+					if (this.expirationPolicy == ExpirationPolicy.ACCESSED)
+						segment.reschedule(node, now + node.durationNanos);
+
+					value = node.value;
+				}
+
+		} finally {
+			segment.unlock();
+		}
+
+		this.notifyListeners(expired);
+		return value;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return this.get(key) != null;
+	}
+
+	@Override
+	public V put(K key, V value) {
+		return this.put(key, value, this.expirationNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Puts the value in the map, expiring after the given duration instead of the default one
+	 *
+	 * @param key
+	 * @param value
+	 * @param duration
+	 * @param timeUnit
+	 * @return the old value
+	 */
+	public V put(K key, V value, long duration, @NonNull TimeUnit timeUnit) {
+		return this.putInternal(key, value, timeUnit.toNanos(duration), false);
+	}
+
+	@Override
+	public V putIfAbsent(K key, V value) {
+		return this.putInternal(key, value, this.expirationNanos, true);
+	}
+
+	/*
+	 * Put the value, or only return the present value if onlyIfAbsent is true
+	 */
+	private V putInternal(K key, V value, long durationNanos, boolean onlyIfAbsent) {
+		Valid.checkNotNull(key, "key");
+		Valid.checkNotNull(value, "value");
+
+		final Segment segment = this.segmentFor(key);
+		final long now = System.nanoTime();
+		final List<Node<K, V>> expired = this.newExpiredList();
+		V oldValue = null;
+
+		segment.lock();
+
+		try {
+			segment.advance(now, expired);
+
+			Node<K, V> node = segment.entries.get(key);
+
+			if (node != null && node.isExpired(now)) {
+				segment.expire(node, expired);
+
+				node = null;
+			}
+
+			if (node == null) {
+				node = new Node<>(key, value, durationNanos);
+
+				segment.entries.put(key, node);
+				segment.schedule(node, now + durationNanos);
+
+			} else {
+				oldValue = node.value;
+
+				// Like ExpiringMap, putting the same value again does not reset its expiration
+				if (!onlyIfAbsent && (this.expirationPolicy == ExpirationPolicy.ACCESSED || !value.equals(oldValue) || durationNanos != node.durationNanos)) {
+					node.value = value;
+					node.durationNanos = durationNanos;
+
+					segment.reschedule(node, now + durationNanos);
+				}
+			}
+
+		} finally {
+			segment.unlock();
+		}
+
+		this.notifyListeners(expired);
+		return oldValue;
+	}
+
+	@Override
+	public V remove(Object key) {
+		return this.removeInternal(key, null);
+	}
+
+	@Override
+	public boolean remove(Object key, Object value) {
+		return value != null && this.removeInternal(key, value) != null;
+	}
+
+	/*
+	 * Remove the entry if present and its value equals the expected value unless it is null
+	 */
+	private V removeInternal(Object key, Object expectedValue) {
+		Valid.checkNotNull(key, "key");
+
+		final Segment segment = this.segmentFor(key);
+		final long now = System.nanoTime();
+		final List<Node<K, V>> expired = this.newExpiredList();
+		V oldValue = null;
+
+		segment.lock();
+
+		try {
+			segment.advance(now, expired);
+
+			final Node<K, V> node = segment.entries.get(key);
+
+			if (node != null)
+				if (node.isExpired(now))
+					segment.expire(node, expired);
+
+				else if (expectedValue == null || expectedValue.equals(node.value)) {
+					segment.entries.remove(key);
+					segment.unlink(node);
+
+					oldValue = node.value;
+				}
+
+		} finally {
+			segment.unlock();
+		}
+
+		this.notifyListeners(expired);
+		return oldValue;
+	}
+
+	@Override
+	public boolean replace(K key, V oldValue, V newValue) {
+		Valid.checkNotNull(oldValue, "oldValue");
+
+		return this.replaceInternal(key, oldValue, newValue) != null;
+	}
+
+	@Override
+	public V replace(K key, V value) {
+		return this.replaceInternal(key, null, value);
+	}
+
+	/*
+	 * Replace the value if present and it equals the expected value unless it is null
+	 */
+	private V replaceInternal(K key, V expectedValue, V newValue) {
+		Valid.checkNotNull(key, "key");
+		Valid.checkNotNull(newValue, "value");
+
+		final Segment segment = this.segmentFor(key);
+		final long now = System.nanoTime();
+		final List<Node<K, V>> expired = this.newExpiredList();
+		V oldValue = null;
+
+		segment.lock();
+
+		try {
+			segment.advance(now, expired);
+
+			final Node<K, V> node = segment.entries.get(key);
+
+			if (node != null)
+				if (node.isExpired(now))
+					segment.expire(node, expired);
+
+				else if (expectedValue == null || expectedValue.equals(node.value)) {
+					oldValue = node.value;
+					node.value = newValue;
+
+					segment.reschedule(node, now + node.durationNanos);
+				}
+
+		} finally {
+			segment.unlock();
+		}
+
+		this.notifyListeners(expired);
+		return oldValue;
+	}
+
+	@Override
+	public void clear() {
+		for (final Segment segment : this.segments) {
+			segment.lock();
+
+			try {
+				for (final Node<K, V> node : segment.entries.values())
+					segment.unlink(node);
+
+				segment.entries.clear();
+
+			} finally {
+				segment.unlock();
+			}
+		}
+	}
+
+	/**
+	 * Return the amount of entries that are not expired, expiring the rest
+	 */
+	@Override
+	public int size() {
+		int size = 0;
+
+		for (final Segment segment : this.segments)
+			size += this.cleanUp(segment, false);
+
+		return size;
+	}
+
+	@Override
+	public boolean isEmpty() {
+		return this.size() == 0;
+	}
+
+	/**
+	 * Return a snapshot of entries that are not expired, removing from it removes from the map
+	 */
+	@Override
+	public Set<Map.Entry<K, V>> entrySet() {
+		final List<Map.Entry<K, V>> snapshot = new ArrayList<>();
+		final long now = System.nanoTime();
+
+		for (final Segment segment : this.segments) {
+			segment.lock();
+
+			try {
+				for (final Node<K, V> node : segment.entries.values())
+					if (!node.isExpired(now))
+						snapshot.add(new SimpleImmutableEntry<>(node.key, node.value));
+
+			} finally {
+				segment.unlock();
+			}
+		}
+
+		return new AbstractSet<Map.Entry<K, V>>() {
+
+			@Override
+			public Iterator<Map.Entry<K, V>> iterator() {
+				final Iterator<Map.Entry<K, V>> iterator = snapshot.iterator();
+
+				return new Iterator<Map.Entry<K, V>>() {
+					private Map.Entry<K, V> current;
+
+					@Override
+					public boolean hasNext() {
+						return iterator.hasNext();
+					}
+
+					@Override
+					public Map.Entry<K, V> next() {
+						return this.current = iterator.next();
+					}
+
+					@Override
+					public void remove() {
+						Valid.checkNotNull(this.current, "next() not called");
+
+						iterator.remove();
+						WheelExpiringMap.this.remove(this.current.getKey(), this.current.getValue());
+
+						this.current = null;
+					}
+				};
+			}
+
+			@Override
+			public int size() {
+				return snapshot.size();
+			}
+		};
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Expiration
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Adds a listener called when an entry expires
+	 *
+	 * @param listener
+	 */
+	public void addExpirationListener(@NonNull ExpirationListener<K, V> listener) {
+		this.expirationListeners.add(listener);
+	}
+
+	/**
+	 * Removes an expiration listener
+	 *
+	 * @param listener
+	 */
+	public void removeExpirationListener(@NonNull ExpirationListener<K, V> listener) {
+		this.expirationListeners.remove(listener);
+	}
+
+	/**
+	 * Returns the default expiration of entries in milliseconds
+	 *
+	 * @return
+	 */
+	public long getExpiration() {
+		return TimeUnit.NANOSECONDS.toMillis(this.expirationNanos);
+	}
+
+	/**
+	 * Removes all expired entries now instead of waiting for the next access
+	 */
+	public void cleanUp() {
+		for (final Segment segment : this.segments)
+			this.cleanUp(segment, false);
+	}
+
+	/*
+	 * Clean up segments that are not in use right now
+	 */
+	private void sweep() {
+		for (final Segment segment : this.segments)
+			this.cleanUp(segment, true);
+	}
+
+	/*
+	 * Advance the wheel of the segment and return how many entries are left in it,
+	 * or -1 if we only try to lock it and it is busy
+	 */
+	private int cleanUp(Segment segment, boolean tryLock) {
+		final List<Node<K, V>> expired = this.newExpiredList();
+		final int size;
+
+		if (tryLock) {
+			if (!segment.tryLock())
+				return -1;
+
+		} else
+			segment.lock();
+
+		try {
+			segment.advance(System.nanoTime(), expired);
+
+			size = segment.entries.size();
+
+		} finally {
+			segment.unlock();
+		}
+
+		this.notifyListeners(expired);
+		return size;
+	}
+
+	/*
+	 * Return a list to collect expired entries into, or null if nobody listens
+	 */
+	private List<Node<K, V>> newExpiredList() {
+		return this.expirationListeners.isEmpty() ? null : new ArrayList<>(0);
+	}
+
+	/*
+	 * Call listeners for the expired entries, outside of any lock
+	 */
+	private void notifyListeners(List<Node<K, V>> expired) {
+		if (expired == null || expired.isEmpty())
+			return;
+
+		for (final Node<K, V> node : expired)
+			for (final ExpirationListener<K, V> listener : this.expirationListeners)
+				try {
+					listener.expired(node.key, node.value);
+
+				} catch (final Exception ignoreUserExceptions) {
+				}
+	}
+
+	/*
+	 * Return the segment the key belongs to
+	 */
+	private Segment segmentFor(Object key) {
+		final int hash = key.hashCode();
+
+		return this.segments[(hash ^ (hash >>> 16)) & (this.segments.length - 1)];
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Classes
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * An entry linked into a bucket of the timing wheel
+	 */
+	private static final class Node<K, V> {
+
+		private final K key;
+		private V value;
+
+		/**
+		 * How long the entry lives since it was put or accessed
+		 */
+		private long durationNanos;
+
+		/**
+		 * When the entry expires in {@link System#nanoTime()}
+		 */
+		private long expiresAt;
+
+		/**
+		 * Links in the bucket, null when not scheduled
+		 */
+		private Node<K, V> previous, next;
+
+		private Node(K key, V value, long durationNanos) {
+			this.key = key;
+			this.value = value;
+			this.durationNanos = durationNanos;
+		}
+
+		/*
+		 * Return true if the entry is expired at the given time
+		 */
+		private boolean isExpired(long now) {
+			return this.expiresAt - now <= 0;
+		}
+	}
+
+	/**
+	 * A part of the map with its own lock, entries and timing wheel
+	 */
+	private final class Segment extends ReentrantLock {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Entries in this segment
+		 */
+		private final Map<K, Node<K, V>> entries = new HashMap<>();
+
+		/**
+		 * Sentinels of the buckets in each wheel, linked into a circle
+		 */
+		private final Node<K, V>[][] wheels;
+
+		/**
+		 * The time the wheels were last advanced to
+		 */
+		private long nanos;
+
+		private Segment(long now) {
+			this.wheels = new Node[SHIFTS.length][BUCKETS];
+			this.nanos = now;
+
+			for (final Node<K, V>[] wheel : this.wheels)
+				for (int i = 0; i < BUCKETS; i++) {
+					final Node<K, V> sentinel = new Node<>(null, null, 0);
+
+					sentinel.previous = sentinel;
+					sentinel.next = sentinel;
+
+					wheel[i] = sentinel;
+				}
+		}
+
+		/*
+		 * Expire entries in all buckets the time passed since the last advance,
+		 * rescheduling entries that are not expired yet into lower wheels
+		 */
+		private void advance(long now, List<Node<K, V>> expired) {
+			final long previous = this.nanos;
+
+			// Same bucket of the lowest wheel, nothing is due
+			if ((now >>> SHIFTS[0]) - (previous >>> SHIFTS[0]) <= 0)
+				return;
+
+			this.nanos = now;
+
+			for (int level = 0; level < SHIFTS.length; level++) {
+				final long previousTicks = previous >>> SHIFTS[level];
+				final long delta = (now >>> SHIFTS[level]) - previousTicks;
+
+				if (delta <= 0)
+					break;
+
+				final int steps = (int) Math.min(delta + 1, BUCKETS);
+				final int start = (int) (previousTicks & (BUCKETS - 1));
+
+				for (int i = start; i < start + steps; i++)
+					this.advanceBucket(this.wheels[level][i & (BUCKETS - 1)], now, expired);
+			}
+		}
+
+		/*
+		 * Detach all entries from the bucket and expire or reschedule them
+		 */
+		private void advanceBucket(Node<K, V> sentinel, long now, List<Node<K, V>> expired) {
+			Node<K, V> node = sentinel.next;
+
+			sentinel.previous = sentinel;
+			sentinel.next = sentinel;
+
+			while (node != sentinel) {
+				final Node<K, V> next = node.next;
+
+				node.previous = null;
+				node.next = null;
+
+				if (node.isExpired(now))
+					this.expire(node, expired);
+				else
+					this.link(node);
+
+				node = next;
+			}
+		}
+
+		/*
+		 * Remove the expired entry, collecting it for listeners
+		 */
+		private void expire(Node<K, V> node, List<Node<K, V>> expired) {
+			this.entries.remove(node.key);
+			this.unlink(node);
+
+			if (expired != null)
+				expired.add(node);
+		}
+
+		/*
+		 * Set when the entry expires and link it into the wheels
+		 */
+		private void schedule(Node<K, V> node, long expiresAt) {
+			node.expiresAt = expiresAt;
+
+			this.link(node);
+		}
+
+		/*
+		 * Move the entry to the bucket of its new expiration
+		 */
+		private void reschedule(Node<K, V> node, long expiresAt) {
+			this.unlink(node);
+			this.schedule(node, expiresAt);
+		}
+
+		/*
+		 * Link the entry into the lowest wheel whose span covers its remaining time
+		 */
+		private void link(Node<K, V> node) {
+			final long remaining = node.expiresAt - this.nanos;
+			int level = 0;
+
+			while (level < SHIFTS.length - 1 && remaining >= 1L << SHIFTS[level + 1])
+				level++;
+
+			final Node<K, V> sentinel = this.wheels[level][(int) ((node.expiresAt >>> SHIFTS[level]) & (BUCKETS - 1))];
+
+			node.next = sentinel;
+			node.previous = sentinel.previous;
+
+			sentinel.previous.next = node;
+			sentinel.previous = node;
+		}
+
+		/*
+		 * Unlink the entry from its bucket if it is in one
+		 */
+		private void unlink(Node<K, V> node) {
+			if (node.next == null)
+				return;
+
+			node.previous.next = node.next;
+			node.next.previous = node.previous;
+
+			node.previous = null;
+			node.next = null;
+		}
+	}
+
+	/**
+	 * Periodically expires entries of a map nobody accesses,
+	 * holding it weakly so that unused maps are collected
+	 */
+	private static final class Sweeper implements Runnable {
+
+		private final WeakReference<WheelExpiringMap<?, ?>> reference;
+
+		/**
+		 * This task, cancelled once the map is collected
+		 */
+		private volatile Future<?> task;
+
+		private Sweeper(WheelExpiringMap<?, ?> map) {
+			this.reference = new WeakReference<>(map);
+		}
+
+		@Override
+		public void run() {
+			final WheelExpiringMap<?, ?> map = this.reference.get();
+
+			if (map != null)
+				map.sweep();
+
+			else if (this.task != null)
+				this.task.cancel(false);
+		}
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Building
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Creates a new builder, by default entries expire 60 seconds after they were put
+	 *
+	 * @return
+	 */
+	public static Builder<Object, Object> builder() {
+		return new Builder<>();
+	}
+
+	/**
+	 * Builds WheelExpiringMap instances
+	 */
+	public static final class Builder<K, V> {
+		private ExpirationPolicy expirationPolicy = ExpirationPolicy.CREATED;
+		private final List<ExpirationListener<K, V>> expirationListeners = new ArrayList<>();
+		private TimeUnit timeUnit = TimeUnit.SECONDS;
+		private long duration = 60;
+		private int concurrencyLevel = 16;
+
+		private Builder() {
+		}
+
+		/**
+		 * Builds and returns the map
+		 *
+		 * @param <K1> Key type
+		 * @param <V1> Value type
+		 * @return
+		 */
+		public <K1 extends K, V1 extends V> WheelExpiringMap<K1, V1> build() {
+			return new WheelExpiringMap<>((Builder<K1, V1>) this);
+		}
+
+		/**
+		 * Sets the default expiration of entries
+		 *
+		 * @param duration
+		 * @param timeUnit
+		 * @return
+		 */
+		public Builder<K, V> expiration(long duration, @NonNull TimeUnit timeUnit) {
+			Valid.checkBoolean(duration > 0, "Expiration must be positive");
+
+			this.duration = duration;
+			this.timeUnit = timeUnit;
+			return this;
+		}
+
+		/**
+		 * Sets whether entries expire after they were put or after they were last accessed
+		 *
+		 * @param expirationPolicy
+		 * @return
+		 */
+		public Builder<K, V> expirationPolicy(@NonNull ExpirationPolicy expirationPolicy) {
+			this.expirationPolicy = expirationPolicy;
+			return this;
+		}
+
+		/**
+		 * Sets how many threads are expected to use the map at once, rounded
+		 * up to a power of two segments. Defaults to 16.
+		 *
+		 * @param concurrencyLevel
+		 * @return
+		 */
+		public Builder<K, V> concurrencyLevel(int concurrencyLevel) {
+			Valid.checkBoolean(concurrencyLevel > 0, "Concurrency level must be positive");
+
+			this.concurrencyLevel = concurrencyLevel;
+			return this;
+		}
+
+		/**
+		 * Adds a listener called when an entry expires
+		 *
+		 * @param listener
+		 * @return
+		 */
+		public <K1 extends K, V1 extends V> Builder<K1, V1> expirationListener(@NonNull ExpirationListener<? super K1, ? super V1> listener) {
+			this.expirationListeners.add((ExpirationListener<K, V>) listener);
+			return (Builder<K1, V1>) this;
+		}
+	}
+}
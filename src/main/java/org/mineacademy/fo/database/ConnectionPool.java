@@ -0,0 +1,307 @@
+package org.mineacademy.fo.database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * A minimal connection pool used by {@link SimpleDatabase}
+ * <p>
+ * Connections are opened lazily up to the given size and handed out
+ * in LIFO order so that the warmest connection is reused first. Each
+ * connection keeps its own cache of prepared statements keyed by the
+ * already variable-expanded SQL.
+ * <p>
+ * Connections are only pinged when they have been idle for longer than
+ * {@link #VALIDATION_INTERVAL_MS} or after they reported an error, instead
+ * of before every single query.
+ * <p>
+ * The pool only depends on JDBC, so it works with any JDBC url.
+ */
+@RequiredArgsConstructor
+final class ConnectionPool {
+
+	/**
+	 * How long a connection may stay unused until we ping it before handing it out again
+	 */
+	private static final long VALIDATION_INTERVAL_MS = 30_000;
+
+	/**
+	 * How long to wait for a free connection when the pool is exhausted
+	 */
+	private static final long BORROW_TIMEOUT_MS = 10_000;
+
+	/**
+	 * The JDBC url
+	 */
+	private final String url;
+
+	/**
+	 * The user name
+	 */
+	private final String user;
+
+	/**
+	 * The password
+	 */
+	private final String password;
+
+	/**
+	 * The maximum amount of open connections
+	 */
+	private final int maxSize;
+
+	/**
+	 * The maximum amount of cached prepared statements per connection
+	 */
+	private final int statementCacheSize;
+
+	/**
+	 * Connections ready to be borrowed
+	 */
+	private final BlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+
+	/**
+	 * The amount of connections currently open, borrowed or idle
+	 */
+	private final AtomicInteger openCount = new AtomicInteger();
+
+	/**
+	 * Set when the pool was closed, no new connections will be given out
+	 */
+	private volatile boolean closed = false;
+
+	/**
+	 * Borrow a connection from the pool, opening a new one if the pool is not
+	 * yet full or waiting for one to be released otherwise
+	 * <p>
+	 * You must call {@link #release(PooledConnection)} when done
+	 *
+	 * @return
+	 * @throws SQLException
+	 */
+	PooledConnection borrow() throws SQLException {
+		if (this.closed)
+			throw new SQLException("Connection pool has been closed");
+
+		PooledConnection pooled;
+
+		// Prefer an idle connection
+		while ((pooled = this.idle.pollFirst()) != null)
+			if (pooled.validate())
+				return pooled;
+			else
+				this.discard(pooled);
+
+		// Open a new one if we still have room
+		if (this.openCount.incrementAndGet() <= this.maxSize)
+			try {
+				return new PooledConnection(DriverManager.getConnection(this.url, this.user, this.password), this.statementCacheSize);
+
+			} catch (final SQLException ex) {
+				this.openCount.decrementAndGet();
+
+				throw ex;
+			}
+
+		this.openCount.decrementAndGet();
+
+		// Wait for someone to release theirs
+		try {
+			pooled = this.idle.pollFirst(BORROW_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+
+		} catch (final InterruptedException ex) {
+			Thread.currentThread().interrupt();
+
+			throw new SQLException("Interrupted while waiting for a free database connection");
+		}
+
+		if (pooled == null)
+			throw new SQLException("Timed out after " + BORROW_TIMEOUT_MS + "ms waiting for a free database connection (pool size " + this.maxSize + ")");
+
+		if (!pooled.validate()) {
+			this.discard(pooled);
+
+			return this.borrow();
+		}
+
+		return pooled;
+	}
+
+	/**
+	 * Return the connection back to the pool
+	 *
+	 * @param pooled
+	 */
+	void release(PooledConnection pooled) {
+		if (this.closed)
+			this.discard(pooled);
+
+		else {
+			pooled.lastUsed = System.currentTimeMillis();
+
+			this.idle.offerFirst(pooled);
+		}
+	}
+
+	/**
+	 * Close all idle connections and prevent new ones from being given out,
+	 * connections currently borrowed are closed when released
+	 */
+	void close() {
+		this.closed = true;
+
+		PooledConnection pooled;
+
+		while ((pooled = this.idle.pollFirst()) != null)
+			this.discard(pooled);
+	}
+
+	/*
+	 * Close the connection and free its slot
+	 */
+	private void discard(PooledConnection pooled) {
+		this.openCount.decrementAndGet();
+
+		pooled.close();
+	}
+
+	/**
+	 * Represents a single pooled connection with its statement cache
+	 */
+	static final class PooledConnection {
+
+		/**
+		 * The underlying connection
+		 */
+		@Getter
+		private final Connection connection;
+
+		/**
+		 * Prepared statements by their SQL, least recently used are closed first
+		 */
+		private final Map<String, PreparedStatement> statements;
+
+		/**
+		 * The last time this connection was released or validated
+		 */
+		private volatile long lastUsed = System.currentTimeMillis();
+
+		/*
+		 * Create a new pooled connection
+		 */
+		private PooledConnection(Connection connection, int statementCacheSize) {
+			this.connection = connection;
+			this.statements = new LinkedHashMap<String, PreparedStatement>(16, 0.75F, true) {
+
+				private static final long serialVersionUID = 1L;
+
+				@Override
+				protected boolean removeEldestEntry(Map.Entry<String, PreparedStatement> eldest) {
+					if (this.size() > statementCacheSize) {
+						closeQuietly(eldest.getValue());
+
+						return true;
+					}
+
+					return false;
+				}
+			};
+		}
+
+		/**
+		 * Return a cached prepared statement for the given SQL, preparing it if needed
+		 * <p>
+		 * The connection is only ever used by one thread at a time so the statement
+		 * can be reused as long as the caller closes its result sets
+		 *
+		 * @param sql
+		 * @return
+		 * @throws SQLException
+		 */
+		PreparedStatement prepare(String sql) throws SQLException {
+			PreparedStatement statement = this.statements.get(sql);
+
+			if (statement == null || statement.isClosed()) {
+				statement = this.connection.prepareStatement(sql);
+
+				this.statements.put(sql, statement);
+
+			} else
+				statement.clearParameters();
+
+			return statement;
+		}
+
+		/**
+		 * Mark this connection to be pinged before it is borrowed again,
+		 * call this after it reported an error
+		 */
+		void invalidate() {
+			this.lastUsed = 0;
+		}
+
+		/*
+		 * Return true if the connection is still usable, only pinging
+		 * the server if it was idle for too long
+		 */
+		private boolean validate() {
+			try {
+				if (this.connection.isClosed())
+					return false;
+
+				if (System.currentTimeMillis() - this.lastUsed < VALIDATION_INTERVAL_MS)
+					return true;
+
+				final boolean valid = this.connection.isValid(1);
+
+				if (valid)
+					this.lastUsed = System.currentTimeMillis();
+
+				return valid;
+
+			} catch (final SQLException ex) {
+				return false;
+			}
+		}
+
+		/*
+		 * Close all statements and the connection
+		 */
+		private void close() {
+			for (final PreparedStatement statement : this.statements.values())
+				closeQuietly(statement);
+
+			this.statements.clear();
+
+			try {
+				this.connection.close();
+
+			} catch (final SQLException ex) {
+				// Already closed or broken
+			}
+		}
+
+		/*
+		 * Close the statement ignoring errors
+		 */
+		private static void closeQuietly(PreparedStatement statement) {
+			try {
+				statement.close();
+
+			} catch (final SQLException ex) {
+				// Ignore
+			}
+		}
+	}
+}
@@ -2,24 +2,33 @@ package org.mineacademy.fo.database;
 
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
+import java.sql.Types;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Timer;
-import java.util.TimerTask;
+import java.util.stream.Stream;
+
+import javax.sql.rowset.CachedRowSet;
+import javax.sql.rowset.RowSetFactory;
+import javax.sql.rowset.RowSetProvider;
 
 import org.mineacademy.fo.Common;
 import org.mineacademy.fo.FileUtil;
-import org.mineacademy.fo.RandomUtil;
 import org.mineacademy.fo.ReflectionUtil;
 import org.mineacademy.fo.SerializeUtil;
 import org.mineacademy.fo.TimeUtil;
 import org.mineacademy.fo.Valid;
 import org.mineacademy.fo.collection.SerializedMap;
 import org.mineacademy.fo.collection.StrictMap;
+import org.mineacademy.fo.database.ConnectionPool.PooledConnection;
 import org.mineacademy.fo.debug.Debugger;
 import org.mineacademy.fo.remain.Remain;
 
@@ -37,15 +46,33 @@ import lombok.RequiredArgsConstructor;
  * connection has been established.
  * <p>
  * To use this class you must know the MySQL command syntax!
+ * <p>
+ * The query methods such as {@link #insert(SerializedMap)}, {@link #update(String, Object...)}
+ * and {@link #query(String, Object...)} run through a small connection pool
+ * using cached prepared statements, so they are safe to call from multiple threads.
+ * See {@link #getPoolSize()} to configure it.
  */
 public class SimpleDatabase {
 
+	/**
+	 * Used to copy query results so that pooled connections can be released right away
+	 */
+	private static RowSetFactory rowSetFactory;
+
 	/**
 	 * The established connection, or null if none
+	 * <p>
+	 * This connection is kept outside of the pool for {@link #getConnection()}
+	 * and {@link #prepareStatement(String)} compatibility
 	 */
 	@Getter(value = AccessLevel.PROTECTED)
 	private volatile Connection connection;
 
+	/**
+	 * The connection pool used for queries, or null if never connected
+	 */
+	private volatile ConnectionPool pool;
+
 	/**
 	 * The last credentials from the connect function, or null if never called
 	 */
@@ -56,11 +83,6 @@ public class SimpleDatabase {
 	 */
 	private final StrictMap<String, String> sqlVariables = new StrictMap<>();
 
-	/**
-	 * Indicates that {@link #batchUpdate(List)} is ongoing
-	 */
-	private boolean batchUpdateGoingOn = false;
-
 	// --------------------------------------------------------------------
 	// Connecting
 	// --------------------------------------------------------------------
@@ -140,6 +162,9 @@ public class SimpleDatabase {
 
 			this.lastCredentials = new LastCredentials(url, user, password, table);
 			this.connection = DriverManager.getConnection(url, user, password);
+			this.pool = new ConnectionPool(url, user, password, Math.max(1, getPoolSize()), Math.max(0, getStatementCacheSize()));
+
+			Debugger.debug("mysql", "Connected to " + url + ", pooling up to " + Math.max(1, getPoolSize()) + " connections");
 
 			onConnected();
 
@@ -181,14 +206,59 @@ public class SimpleDatabase {
 	protected void onConnected() {
 	}
 
+	/**
+	 * How many connections the query pool may open at once.
+	 * Connections are opened lazily when needed.
+	 * <p>
+	 * Default: 4
+	 *
+	 * @return
+	 */
+	protected int getPoolSize() {
+		return 4;
+	}
+
+	/**
+	 * How many prepared statements to keep open per pooled connection.
+	 * <p>
+	 * Default: 64
+	 *
+	 * @return
+	 */
+	protected int getStatementCacheSize() {
+		return 64;
+	}
+
+	/**
+	 * How many queries {@link #batchUpdate(List)} sends and commits at once.
+	 * <p>
+	 * Default: 1000
+	 *
+	 * @return
+	 */
+	protected int getBatchChunkSize() {
+		return 1000;
+	}
+
 	// --------------------------------------------------------------------
 	// Disconnecting
 	// --------------------------------------------------------------------
 
 	/**
-	 * Attempts to close the connection, if not null
+	 * Attempts to close the connection and the pool, if not null
 	 */
 	public final void close() {
+		if (pool != null)
+			try {
+				onClosing();
+
+			} catch (final Throwable t) {
+				Common.error(t, "Error while closing MySQL database!");
+			}
+
+		if (pool != null)
+			pool.close();
+
 		if (connection != null)
 			try {
 				connection.close();
@@ -198,6 +268,13 @@ public class SimpleDatabase {
 			}
 	}
 
+	/**
+	 * Called automatically before the connection is closed, including
+	 * before reconnecting. The connection is still usable at this point.
+	 */
+	protected void onClosing() {
+	}
+
 	// --------------------------------------------------------------------
 	// Querying
 	// --------------------------------------------------------------------
@@ -218,11 +295,7 @@ public class SimpleDatabase {
 	 * @param columsAndValues
 	 */
 	protected final void insert(String table, @NonNull SerializedMap columsAndValues) {
-		final String columns = Common.join(columsAndValues.keySet());
-		final String values = Common.join(columsAndValues.values(), ", ", value -> value == null || value.equals("NULL") ? "NULL" : "'" + SerializeUtil.serialize(value).toString() + "'");
-		final String duplicateUpdate = Common.join(columsAndValues.entrySet(), ", ", entry -> entry.getKey() + "=VALUES(" + entry.getKey() + ")");
-
-		update("INSERT INTO " + replaceVariables(table) + " (" + columns + ") VALUES (" + values + ") ON DUPLICATE KEY UPDATE " + duplicateUpdate + ";");
+		update(buildInsert(table, columsAndValues), columsAndValues.values().toArray());
 	}
 
 	/**
@@ -236,93 +309,258 @@ public class SimpleDatabase {
 
 	/**
 	 * Insert the batch map into the database
+	 * <p>
+	 * Maps sharing the same columns are sent as one prepared statement batch
 	 *
 	 * @param table
 	 * @param maps
 	 */
 	protected final void insertBatch(String table, @NonNull List<SerializedMap> maps) {
-		final List<String> sqls = new ArrayList<>();
+		if (maps.isEmpty())
+			return;
+
+		checkEstablished();
+
+		// Group rows by their SQL so that each group reuses one statement
+		final Map<String, List<SerializedMap>> groups = new LinkedHashMap<>();
+
+		for (final SerializedMap map : maps)
+			groups.computeIfAbsent(buildInsert(table, map), sql -> new ArrayList<>()).add(map);
+
+		for (final Entry<String, List<SerializedMap>> entry : groups.entrySet()) {
+			final String sql = entry.getKey();
+
+			Debugger.debug("mysql", "Inserting batch of " + entry.getValue().size() + " rows with: " + sql);
+
+			PooledConnection pooled = null;
+
+			try {
+				pooled = pool.borrow();
+
+				final Connection batchConnection = pooled.getConnection();
+				final PreparedStatement statement = pooled.prepare(sql);
+
+				batchConnection.setAutoCommit(false);
 
-		for (final SerializedMap map : maps) {
-			final String columns = Common.join(map.keySet());
-			final String values = Common.join(map.values(), ", ", this::parseValue);
-			final String duplicateUpdate = Common.join(map.entrySet(), ", ", entry -> entry.getKey() + "=VALUES(" + entry.getKey() + ")");
+				try {
+					for (final SerializedMap map : entry.getValue()) {
+						bindValues(statement, map.values().toArray());
 
-			sqls.add("INSERT INTO " + table + " (" + columns + ") VALUES (" + values + ") ON DUPLICATE KEY UPDATE " + duplicateUpdate + ";");
+						statement.addBatch();
+					}
+
+					statement.executeBatch();
+					batchConnection.commit();
+
+				} catch (final SQLException ex) {
+					batchConnection.rollback();
+
+					throw ex;
+
+				} finally {
+					statement.clearBatch();
+					batchConnection.setAutoCommit(true);
+				}
+
+			} catch (final SQLException ex) {
+				if (pooled != null)
+					pooled.invalidate();
+
+				handleError(ex, "Error on inserting batch of " + entry.getValue().size() + " rows to MySQL with: " + sql);
+
+			} finally {
+				if (pooled != null)
+					pool.release(pooled);
+			}
 		}
+	}
+
+	/*
+	 * Build the prepared insert-or-update statement for the given table and columns
+	 */
+	private String buildInsert(String table, SerializedMap columsAndValues) {
+		final String columns = Common.join(columsAndValues.keySet());
+		final String values = Common.join(Collections.nCopies(columsAndValues.size(), "?"));
+		final String duplicateUpdate = Common.join(columsAndValues.keySet(), ", ", column -> column + "=VALUES(" + column + ")");
 
-		this.batchUpdate(sqls);
+		return replaceVariables("INSERT INTO " + table + " (" + columns + ") VALUES (" + values + ") ON DUPLICATE KEY UPDATE " + duplicateUpdate + ";");
 	}
 
 	/*
-	 * A helper method to insert compatible value to db
+	 * Bind the given values to the statement parameters in order, values are
+	 * bound as the same strings they used to be quoted into the SQL as, so that
+	 * for example booleans are still stored as 'true' and not as 1 in text columns
 	 */
-	private final String parseValue(Object value) {
-		return value == null || value.equals("NULL") ? "NULL" : "'" + SerializeUtil.serialize(value).toString() + "'";
+	private void bindValues(PreparedStatement statement, Object[] values) throws SQLException {
+		for (int index = 0; index < values.length; index++) {
+			final Object value = values[index];
+
+			if (value == null || value.equals("NULL"))
+				statement.setNull(index + 1, Types.NULL);
+
+			else
+				statement.setString(index + 1, SerializeUtil.serialize(value).toString());
+		}
 	}
 
 	/**
-	 * Attempts to execute a new update query
+	 * Attempts to execute a new update query, binding the given values to the ? placeholders in order
 	 * <p>
 	 * Make sure you called connect() first otherwise an error will be thrown
 	 *
 	 * @param sql
+	 * @param values
 	 */
-	protected final void update(String sql) {
+	protected final void update(String sql, Object... values) {
 		checkEstablished();
 
-		if (!isConnected())
-			connectUsingLastCredentials();
-
 		sql = replaceVariables(sql);
 		Valid.checkBoolean(!sql.contains("{table}"), "Table not set! Either use connect() method that specifies it or call addVariable(table, 'yourtablename') in your constructor!");
 
 		Debugger.debug("mysql", "Updating MySQL with: " + sql);
 
+		PooledConnection pooled = null;
+
 		try {
-			final Statement statement = connection.createStatement();
+			pooled = pool.borrow();
+
+			final PreparedStatement statement = pooled.prepare(sql);
 
-			statement.executeUpdate(sql);
-			statement.close();
+			bindValues(statement, values);
+			statement.executeUpdate();
 
 		} catch (final SQLException e) {
+			if (pooled != null)
+				pooled.invalidate();
+
 			handleError(e, "Error on updating MySQL with: " + sql);
+
+		} finally {
+			if (pooled != null)
+				pool.release(pooled);
 		}
 	}
 
 	/**
-	 * Attempts to execute a new query
+	 * Attempts to execute a new query, binding the given values to the ? placeholders in order
+	 * <p>
+	 * The returned result set is fully read into memory and detached from the connection
+	 * which is returned to the pool right away. You can still close it as before.
 	 * <p>
 	 * Make sure you called connect() first otherwise an error will be thrown
 	 *
 	 * @param sql
+	 * @param values
 	 * @return
 	 */
-	protected final ResultSet query(String sql) {
+	protected final ResultSet query(String sql, Object... values) {
 		checkEstablished();
 
-		if (!isConnected())
-			connectUsingLastCredentials();
-
 		sql = replaceVariables(sql);
 
 		Debugger.debug("mysql", "Querying MySQL with: " + sql);
 
+		PooledConnection pooled = null;
+
 		try {
-			final Statement statement = connection.createStatement();
-			final ResultSet resultSet = statement.executeQuery(sql);
+			pooled = pool.borrow();
+
+			final PreparedStatement statement = pooled.prepare(sql);
+			bindValues(statement, values);
 
-			return resultSet;
+			final CachedRowSet rowSet = getRowSetFactory().createCachedRowSet();
+
+			try (ResultSet resultSet = statement.executeQuery()) {
+				rowSet.populate(resultSet);
+			}
+
+			return rowSet;
 
 		} catch (final SQLException ex) {
+			if (pooled != null)
+				pooled.invalidate();
+
 			handleError(ex, "Error on querying MySQL with: " + sql);
+
+		} finally {
+			if (pooled != null)
+				pool.release(pooled);
 		}
 
 		return null;
 	}
 
 	/**
-	 * Executes a massive batch update
+	 * Attempts to execute the given update queries in one transaction on a single connection,
+	 * binding the values at the same index to each query. If any query fails, none are applied.
+	 * <p>
+	 * Make sure you called connect() first otherwise an error will be thrown
+	 *
+	 * @param sqls
+	 * @param values
+	 * @throws SQLException if the transaction failed and was rolled back
+	 */
+	protected final void updateInTransaction(@NonNull List<String> sqls, @NonNull List<Object[]> values) throws SQLException {
+		checkEstablished();
+		Valid.checkBoolean(sqls.size() == values.size(), "Got " + sqls.size() + " queries but " + values.size() + " value sets");
+
+		if (sqls.isEmpty())
+			return;
+
+		final PooledConnection pooled = pool.borrow();
+		final Connection transactionConnection = pooled.getConnection();
+
+		try {
+			transactionConnection.setAutoCommit(false);
+
+			for (int i = 0; i < sqls.size(); i++) {
+				final String sql = replaceVariables(sqls.get(i));
+				Debugger.debug("mysql", "Updating MySQL in transaction with: " + sql);
+
+				final PreparedStatement statement = pooled.prepare(sql);
+
+				bindValues(statement, values.get(i));
+				statement.executeUpdate();
+			}
+
+			transactionConnection.commit();
+
+		} catch (final SQLException ex) {
+			pooled.invalidate();
+
+			try {
+				transactionConnection.rollback();
+
+			} catch (final SQLException rollbackEx) {
+				// Connection is likely gone, the server will roll back for us
+			}
+
+			throw ex;
+
+		} finally {
+			try {
+				transactionConnection.setAutoCommit(true);
+
+			} catch (final SQLException ex) {
+				pooled.invalidate();
+			}
+
+			pool.release(pooled);
+		}
+	}
+
+	/*
+	 * Return the shared row set factory, creating it on first use
+	 */
+	private static synchronized RowSetFactory getRowSetFactory() throws SQLException {
+		if (rowSetFactory == null)
+			rowSetFactory = RowSetProvider.newFactory();
+
+		return rowSetFactory;
+	}
+
+	/**
+	 * Executes a massive batch update, see {@link #batchUpdate(Iterator, int, int, BatchProgressListener)}
 	 *
 	 * @param sqls
 	 */
@@ -330,68 +568,136 @@ public class SimpleDatabase {
 		if (sqls.size() == 0)
 			return;
 
-		try {
-			final Statement batchStatement = getConnection().createStatement(ResultSet.TYPE_SCROLL_SENSITIVE, ResultSet.CONCUR_UPDATABLE);
-			final int processedCount = sqls.size();
+		if (sqls.size() > 10_000)
+			Common.log("Updating your database (" + sqls.size() + " entries)... PLEASE BE PATIENT, progress will be reported below.");
+
+		batchUpdate(sqls.iterator(), sqls.size(), getBatchChunkSize(), null);
+	}
 
-			// Prevent automatically sending db instructions
-			getConnection().setAutoCommit(false);
+	/**
+	 * Executes a massive batch update from the given stream of queries,
+	 * see {@link #batchUpdate(Iterator, int, int, BatchProgressListener)}
+	 *
+	 * @param sqls
+	 * @param listener the progress listener, or null to log progress to the console
+	 * @return the final progress
+	 */
+	protected final BatchProgress batchUpdate(@NonNull Stream<String> sqls, BatchProgressListener listener) {
+		return batchUpdate(sqls.iterator(), -1, getBatchChunkSize(), listener);
+	}
 
-			for (final String sql : sqls)
-				batchStatement.addBatch(replaceVariables(sql));
+	/**
+	 * Executes a massive batch update, reading the queries lazily and sending
+	 * and committing them in chunks of the given size so that no single huge
+	 * transaction is held open.
+	 * <p>
+	 * A failed chunk is retried on a fresh connection, and if it still fails,
+	 * only its queries are written to sql-error.log and the update continues
+	 * with the next chunk.
+	 *
+	 * @param sqls the queries, {table} and other variables are replaced
+	 * @param totalRows the total amount of queries if known to compute ETA, or -1
+	 * @param chunkSize how many queries to commit at once
+	 * @param listener notified after each chunk, or null to log progress to the console every 30 seconds
+	 * @return the final progress
+	 */
+	protected final BatchProgress batchUpdate(@NonNull Iterator<String> sqls, int totalRows, int chunkSize, BatchProgressListener listener) {
+		checkEstablished();
+		Valid.checkBoolean(chunkSize > 0, "Chunk size must be above 0, got " + chunkSize);
 
-			if (processedCount > 10_000)
-				Common.log("Updating your database (" + processedCount + " entries)... PLEASE BE PATIENT THIS WILL TAKE "
-						+ (processedCount > 50_000 ? "10-20 MINUTES" : "5-10 MINUTES") + " - If server will print a crash report, ignore it, update will proceed.");
+		final BatchProgress progress = new BatchProgress(totalRows);
+		final List<String> chunk = new ArrayList<>(Math.min(chunkSize, 10_000));
 
-			// Set the flag to start time notifications timer
-			batchUpdateGoingOn = true;
+		long lastLog = System.currentTimeMillis();
 
-			// Notify console that progress still is being made
-			new Timer().scheduleAtFixedRate(new TimerTask() {
+		while (sqls.hasNext()) {
+			chunk.add(replaceVariables(sqls.next()));
 
-				@Override
-				public void run() {
-					if (batchUpdateGoingOn)
-						Common.log("Still executing, " + RandomUtil.nextItem("keep calm", "stand by", "watch the show", "check your db", "drink water", "call your friend") + " and DO NOT SHUTDOWN YOUR SERVER.");
-					else
-						cancel();
-				}
-			}, 1000 * 30, 1000 * 30);
+			if (chunk.size() < chunkSize && sqls.hasNext())
+				continue;
 
-			// Execute
-			batchStatement.executeBatch();
+			executeChunk(chunk, progress);
+			chunk.clear();
 
-			// This will block the thread
-			getConnection().commit();
+			if (listener != null)
+				listener.onProgress(progress);
 
-			//Common.log("Updated " + processedCount + " database entries.");
+			else if (System.currentTimeMillis() - lastLog > 30_000) {
+				lastLog = System.currentTimeMillis();
 
-		} catch (final Throwable t) {
-			final List<String> errorLog = new ArrayList<>();
+				Common.log("Still executing, " + progress + ". DO NOT SHUTDOWN YOUR SERVER.");
+			}
+		}
 
-			errorLog.add(Common.consoleLine());
-			errorLog.add(" [" + TimeUtil.getFormattedDateShort() + "] Failed to save batch sql, please contact the plugin author with this file content: " + t);
-			errorLog.add(Common.consoleLine());
+		if (progress.getFailedRows() > 0)
+			Common.log("Failed to save " + progress.getFailedRows() + " out of " + progress.getProcessedRows() + " database entries, see sql-error.log and contact the plugin author with its content.");
 
-			for (final String statement : sqls)
-				errorLog.add(replaceVariables(statement));
+		return progress;
+	}
 
-			FileUtil.write("sql-error.log", sqls);
+	/*
+	 * Send and commit one chunk of a batch update, retrying it on a fresh connection on failure
+	 */
+	private void executeChunk(List<String> chunk, BatchProgress progress) {
+		final long start = System.currentTimeMillis();
+		Throwable lastError = null;
 
-			t.printStackTrace();
+		for (int attempt = 0; attempt <= BatchProgress.CHUNK_RETRIES; attempt++) {
+			PooledConnection pooled = null;
 
-		} finally {
 			try {
-				getConnection().setAutoCommit(true);
+				pooled = pool.borrow();
 
-			} catch (final SQLException ex) {
-				ex.printStackTrace();
-			}
+				final Connection chunkConnection = pooled.getConnection();
+
+				try (Statement statement = chunkConnection.createStatement()) {
+					chunkConnection.setAutoCommit(false);
+
+					for (final String sql : chunk)
+						statement.addBatch(sql);
 
-			// Even in case of failure, cancel
-			batchUpdateGoingOn = false;
+					statement.executeBatch();
+					chunkConnection.commit();
+
+				} catch (final SQLException ex) {
+					chunkConnection.rollback();
+
+					throw ex;
+
+				} finally {
+					chunkConnection.setAutoCommit(true);
+				}
+
+				progress.onChunkDone(chunk.size(), System.currentTimeMillis() - start, false);
+				return;
+
+			} catch (final Throwable t) {
+				lastError = t;
+
+				if (pooled != null)
+					pooled.invalidate();
+
+				Debugger.debug("mysql", "Batch chunk #" + (progress.getChunks() + 1) + " failed on attempt " + (attempt + 1) + ": " + t);
+
+			} finally {
+				if (pooled != null)
+					pool.release(pooled);
+			}
 		}
+
+		progress.onChunkDone(chunk.size(), System.currentTimeMillis() - start, true);
+
+		final List<String> errorLog = new ArrayList<>();
+
+		errorLog.add(Common.consoleLine());
+		errorLog.add(" [" + TimeUtil.getFormattedDateShort() + "] Failed to save batch sql chunk #" + progress.getChunks() + ", please contact the plugin author with this file content: " + lastError);
+		errorLog.add(Common.consoleLine());
+		errorLog.addAll(chunk);
+
+		FileUtil.write("sql-error.log", errorLog);
+
+		if (lastError != null)
+			lastError.printStackTrace();
 	}
 
 	/**
@@ -508,6 +814,122 @@ public class SimpleDatabase {
 		return sql.replace("{table}", getTable());
 	}
 
+	/**
+	 * Notified after each chunk of a batch update was committed or failed
+	 */
+	@FunctionalInterface
+	public interface BatchProgressListener {
+
+		/**
+		 * Called after a chunk was processed
+		 *
+		 * @param progress
+		 */
+		void onProgress(BatchProgress progress);
+	}
+
+	/**
+	 * Represents the progress of a running batch update
+	 */
+	@Getter
+	public static final class BatchProgress {
+
+		/**
+		 * How many times we retry a failed chunk
+		 */
+		private static final int CHUNK_RETRIES = 1;
+
+		/**
+		 * The total amount of rows, or -1 if unknown
+		 */
+		private final int totalRows;
+
+		/**
+		 * When the batch update started
+		 */
+		private final long startTime = System.currentTimeMillis();
+
+		/**
+		 * Rows processed so far, including failed ones
+		 */
+		private int processedRows;
+
+		/**
+		 * Rows in chunks that failed even after retrying
+		 */
+		private int failedRows;
+
+		/**
+		 * Chunks processed so far
+		 */
+		private int chunks;
+
+		/**
+		 * How long the last chunk took including retries, in milliseconds
+		 */
+		private long lastChunkMillis;
+
+		private BatchProgress(int totalRows) {
+			this.totalRows = totalRows;
+		}
+
+		/*
+		 * Record the given chunk
+		 */
+		private void onChunkDone(int rows, long tookMillis, boolean failed) {
+			this.processedRows += rows;
+			this.chunks++;
+			this.lastChunkMillis = tookMillis;
+
+			if (failed)
+				this.failedRows += rows;
+		}
+
+		/**
+		 * Return how long the update has been running, in milliseconds
+		 *
+		 * @return
+		 */
+		public long getElapsedMillis() {
+			return System.currentTimeMillis() - this.startTime;
+		}
+
+		/**
+		 * Return the average amount of rows processed per second
+		 *
+		 * @return
+		 */
+		public double getRowsPerSecond() {
+			final long elapsed = this.getElapsedMillis();
+
+			return elapsed == 0 ? 0 : this.processedRows * 1000D / elapsed;
+		}
+
+		/**
+		 * Return the estimated remaining time in milliseconds, or -1 if
+		 * the total amount of rows is unknown or nothing was processed yet
+		 *
+		 * @return
+		 */
+		public long getEtaMillis() {
+			final double rowsPerSecond = this.getRowsPerSecond();
+
+			if (this.totalRows < 0 || rowsPerSecond == 0)
+				return -1;
+
+			return (long) (Math.max(0, this.totalRows - this.processedRows) / rowsPerSecond * 1000);
+		}
+
+		@Override
+		public String toString() {
+			final long eta = this.getEtaMillis();
+
+			return this.processedRows + (this.totalRows < 0 ? "" : "/" + this.totalRows) + " rows done"
+					+ " (" + Math.round(this.getRowsPerSecond()) + " rows/s, last chunk " + this.lastChunkMillis + " ms"
+					+ (eta == -1 ? "" : ", ETA " + TimeUtil.formatTimeShort(eta / 1000)) + ")";
+		}
+	}
+
 	/**
 	 * Stores last known credentials from the connect() functions
 	 */
@@ -2,19 +2,36 @@ package org.mineacademy.fo.database;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 import org.apache.commons.lang.WordUtils;
 import org.bukkit.Bukkit;
 import org.mineacademy.fo.Common;
 import org.mineacademy.fo.MathUtil;
 import org.mineacademy.fo.collection.SerializedMap;
+import org.mineacademy.fo.collection.expiringmap.ExpiringMap;
+import org.mineacademy.fo.collection.expiringmap.NamedThreadFactory;
 import org.mineacademy.fo.debug.Debugger;
 import org.mineacademy.fo.debug.LagCatcher;
 import org.mineacademy.fo.settings.SimpleSettings;
 
 import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
 
 /**
  * Represents a simple database where values are flattened and stored
@@ -33,6 +50,9 @@ import lombok.NonNull;
  * Also see {@link #getExpirationDays()}, by default we remove values not touched
  * within the last 90 days.
  * <p>
+ * Override {@link #isWriteBehind()} to queue saves and write them in batches
+ * from a background thread instead of blocking the caller, see {@link #save(String, UUID, Object)}.
+ * <p>
  * For a less-restricting solution see {@link SimpleDatabase} however you will
  * need to run own queries and implement own table structure that requires MySQL
  * command syntax knowledge.
@@ -41,6 +61,47 @@ import lombok.NonNull;
  */
 public abstract class SimpleFlatDatabase<T> extends SimpleDatabase {
 
+	/**
+	 * The maximum amount of rows sent or requested in one multi-row statement
+	 */
+	private static final int BATCH_CHUNK_SIZE = 500;
+
+	/**
+	 * How long preloaded data is kept when the player does not join
+	 */
+	private static final int PRELOAD_EXPIRATION_MINUTES = 5;
+
+	/**
+	 * Databases with a running write-behind worker, drained when the plugin is disabled
+	 */
+	private static final Set<SimpleFlatDatabase<?>> writeBehindDatabases = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Saves waiting to be written, only the latest one per unique ID is kept
+	 */
+	private final Map<UUID, PendingSave> pendingSaves = new ConcurrentHashMap<>();
+
+	/**
+	 * Data fetched by {@link #preload(Collection)} waiting to be consumed by {@link #load(UUID, Object)}
+	 */
+	private final Map<UUID, SerializedMap> preloadedData = ExpiringMap.builder().expiration(PRELOAD_EXPIRATION_MINUTES, TimeUnit.MINUTES).build();
+
+	/**
+	 * The value of {@link #saveCounter} at the last save of each unique ID, so that
+	 * {@link #preload(Collection)} can skip data fetched before a save
+	 */
+	private final Map<UUID, Long> lastSaves = ExpiringMap.builder().expiration(PRELOAD_EXPIRATION_MINUTES, TimeUnit.MINUTES).build();
+
+	/**
+	 * Incremented on each save
+	 */
+	private final AtomicLong saveCounter = new AtomicLong();
+
+	/**
+	 * The background worker flushing {@link #pendingSaves}, or null if not started
+	 */
+	private ScheduledExecutorService writeBehindWorker;
+
 	/**
 	 * An internal flag to prevent dead lock so that we do not call any
 	 * more queries within the {@link #load(UUID, Object)} or {@link #save(UUID, Object)} methods
@@ -65,6 +126,14 @@ public abstract class SimpleFlatDatabase<T> extends SimpleDatabase {
 		onConnectFinish();
 	}
 
+	/**
+	 * Writes all pending saves before the connection is closed
+	 */
+	@Override
+	protected final void onClosing() {
+		stopWriteBehind();
+	}
+
 	/**
 	 * You can override this to run code after the connection was made and
 	 * the table created as well as purged ({@link #removeOldEntries()})
@@ -95,6 +164,33 @@ public abstract class SimpleFlatDatabase<T> extends SimpleDatabase {
 		return 90;
 	}
 
+	/**
+	 * Return true to queue {@link #save(String, UUID, Object)} calls and write them
+	 * from a background thread every {@link #getWriteBehindIntervalTicks()}.
+	 * <p>
+	 * Repeated saves for the same unique ID are merged so only the latest data is written,
+	 * and all queued saves are written in one transaction. Pending saves are written
+	 * when the connection is closed or the plugin is disabled.
+	 * <p>
+	 * Default: false
+	 *
+	 * @return
+	 */
+	protected boolean isWriteBehind() {
+		return false;
+	}
+
+	/**
+	 * How often to write queued saves when {@link #isWriteBehind()} is enabled.
+	 * <p>
+	 * Default: 100 ticks (5 seconds)
+	 *
+	 * @return
+	 */
+	protected int getWriteBehindIntervalTicks() {
+		return 20 * 5;
+	}
+
 	/**
 	 * Load the data for the given unique ID and his cache
 	 *
@@ -111,19 +207,34 @@ public abstract class SimpleFlatDatabase<T> extends SimpleDatabase {
 
 			Debugger.debug("mysql", "---------------- MySQL - Loading data for " + uuid);
 
-			final ResultSet resultSet = query("SELECT * FROM {table} WHERE UUID='" + uuid + "'");
-			final String dataRaw = resultSet.next() ? resultSet.getString("Data") : "{}";
-			Debugger.debug("mysql", "JSON: " + dataRaw);
+			final PendingSave pending = pendingSaves.get(uuid);
+			final SerializedMap preloaded = preloadedData.remove(uuid);
+			final SerializedMap data;
+
+			// Serve queued data that was not yet written
+			if (pending != null)
+				data = SerializedMap.fromJson(pending.json == null ? "{}" : pending.json);
+
+			// Or data fetched in bulk before
+			else if (preloaded != null)
+				data = preloaded;
+
+			else {
+				final ResultSet resultSet = query("SELECT * FROM {table} WHERE UUID=?", uuid);
+				final String dataRaw = resultSet.next() ? resultSet.getString("Data") : "{}";
+				Debugger.debug("mysql", "JSON: " + dataRaw);
+
+				data = SerializedMap.fromJson(dataRaw);
+
+				// Close connection at the end
+				resultSet.close();
+			}
 
-			final SerializedMap data = SerializedMap.fromJson(dataRaw);
 			Debugger.debug("mysql", "Deserialized data: " + data);
 
 			// Call the user specified load method
 			onLoad(data, cache);
 
-			// Close connection at the end
-			resultSet.close();
-
 		} catch (final Throwable t) {
 			Common.error(t,
 					"Failed to load data from MySQL!",
@@ -137,6 +248,149 @@ public abstract class SimpleFlatDatabase<T> extends SimpleDatabase {
 		}
 	}
 
+	/**
+	 * Fetch the data for all given unique IDs using one query per 500 IDs
+	 * and parse them in parallel. Unique IDs not stored get an empty map.
+	 * <p>
+	 * This does not call {@link #onLoad(SerializedMap, Object)}, see {@link #loadAll(Map)}
+	 * and {@link #loadAllAsync(Map)} for that.
+	 *
+	 * @param uuids
+	 * @return the data by unique ID, in the order given
+	 */
+	public final Map<UUID, SerializedMap> loadAll(@NonNull final Collection<UUID> uuids) {
+		final Map<UUID, SerializedMap> loaded = new LinkedHashMap<>();
+
+		if (!isLoaded() || uuids.isEmpty())
+			return loaded;
+
+		final List<UUID> ids = new ArrayList<>(uuids);
+		final Map<UUID, String> rawData = new ConcurrentHashMap<>();
+
+		try {
+			LagCatcher.start("mysql");
+
+			Debugger.debug("mysql", "---------------- MySQL - Loading data for " + ids.size() + " players");
+
+			for (int from = 0; from < ids.size(); from += BATCH_CHUNK_SIZE) {
+				final List<UUID> chunk = ids.subList(from, Math.min(ids.size(), from + BATCH_CHUNK_SIZE));
+				final ResultSet resultSet = query("SELECT UUID, Data FROM {table} WHERE UUID IN (" + Common.join(Collections.nCopies(chunk.size(), "?")) + ")", chunk.toArray());
+
+				if (resultSet == null)
+					continue;
+
+				while (resultSet.next())
+					rawData.put(UUID.fromString(resultSet.getString("UUID")), resultSet.getString("Data"));
+
+				resultSet.close();
+			}
+
+			// Queued saves are newer than what is stored
+			for (final UUID uuid : ids) {
+				final PendingSave pending = pendingSaves.get(uuid);
+
+				if (pending != null)
+					rawData.put(uuid, pending.json == null ? "{}" : pending.json);
+			}
+
+			final Map<UUID, SerializedMap> parsed = rawData.entrySet().parallelStream()
+					.collect(Collectors.toConcurrentMap(Entry::getKey, entry -> SerializedMap.fromJson(entry.getValue())));
+
+			for (final UUID uuid : ids)
+				loaded.put(uuid, parsed.getOrDefault(uuid, new SerializedMap()));
+
+		} catch (final Throwable t) {
+			Common.error(t,
+					"Failed to load data from MySQL!",
+					"Players: " + ids.size(),
+					"Error: %error");
+
+		} finally {
+			logPerformance("loading");
+		}
+
+		return loaded;
+	}
+
+	/**
+	 * Load the data for all given unique IDs using {@link #loadAll(Collection)}
+	 * and call {@link #onLoad(SerializedMap, Object)} for each cache on this thread
+	 *
+	 * @param caches
+	 */
+	public final void loadAll(@NonNull final Map<UUID, T> caches) {
+		final Map<UUID, SerializedMap> loaded = loadAll(caches.keySet());
+
+		for (final Entry<UUID, SerializedMap> entry : loaded.entrySet())
+			callOnLoad(entry.getKey(), entry.getValue(), caches.get(entry.getKey()));
+	}
+
+	/**
+	 * Load the data for all given unique IDs using {@link #loadAll(Collection)} off the main thread,
+	 * then call {@link #onLoad(SerializedMap, Object)} for each cache on the main thread
+	 *
+	 * @param caches
+	 * @return a future completed after all caches were loaded
+	 */
+	public final CompletableFuture<Void> loadAllAsync(@NonNull final Map<UUID, T> caches) {
+		return CompletableFuture
+				.supplyAsync(() -> loadAll(caches.keySet()), Common::runAsync)
+				.thenAcceptAsync(loaded -> {
+					for (final Entry<UUID, SerializedMap> entry : loaded.entrySet())
+						callOnLoad(entry.getKey(), entry.getValue(), caches.get(entry.getKey()));
+
+				}, Common::runLater);
+	}
+
+	/**
+	 * Fetch the data for all given unique IDs off the main thread and keep it in memory so that
+	 * the next {@link #load(UUID, Object)} call for each of them does not need to query the database.
+	 * <p>
+	 * Use this for players you expect to join soon, for example all whitelisted players after restart.
+	 * Preloaded data is dropped once consumed, when the player is saved or after 5 minutes.
+	 *
+	 * @param uuids
+	 * @return a future completed after the data was fetched
+	 */
+	public final CompletableFuture<Void> preload(@NonNull final Collection<UUID> uuids) {
+		final List<UUID> ids = new ArrayList<>(uuids);
+		final long startCounter = saveCounter.get();
+
+		return CompletableFuture.runAsync(() -> {
+			final Map<UUID, SerializedMap> loaded = loadAll(ids);
+
+			synchronized (preloadedData) {
+				for (final Entry<UUID, SerializedMap> entry : loaded.entrySet()) {
+					final Long lastSave = lastSaves.get(entry.getKey());
+
+					// Saved after we started fetching, what we have is outdated
+					if (lastSave != null && lastSave > startCounter)
+						continue;
+
+					preloadedData.put(entry.getKey(), entry.getValue());
+				}
+			}
+		}, Common::runAsync);
+	}
+
+	/*
+	 * Call the user specified load method catching errors
+	 */
+	private void callOnLoad(final UUID uuid, final SerializedMap data, final T cache) {
+		if (cache == null)
+			return;
+
+		try {
+			onLoad(data, cache);
+
+		} catch (final Throwable t) {
+			Common.error(t,
+					"Failed to load data from MySQL!",
+					"UUID: " + uuid,
+					"Error: %error");
+		}
+	}
+
 	/**
 	 * Your method to load the data for the given unique ID and his cache
 	 *
@@ -150,13 +404,31 @@ public abstract class SimpleFlatDatabase<T> extends SimpleDatabase {
 	 * Save the data for the given name, unique ID and his cache
 	 * <p>
 	 * If the onSave returns empty data we delete the row
+	 * <p>
+	 * If {@link #isWriteBehind()} is enabled, we only call {@link #onSave(Object)}
+	 * here and queue the result to be written later.
 	 *
 	 * @param name  last known name - players may change those
 	 * @param uuid
 	 * @param cache
 	 */
 	public final void save(final String name, final UUID uuid, final T cache) {
-		if (!isLoaded() || isQuerying)
+		if (!isLoaded())
+			return;
+
+		// The preloaded data would be outdated now
+		synchronized (preloadedData) {
+			lastSaves.put(uuid, saveCounter.incrementAndGet());
+			preloadedData.remove(uuid);
+		}
+
+		if (isWriteBehind()) {
+			queueSave(name, uuid, cache);
+
+			return;
+		}
+
+		if (isQuerying)
 			return;
 
 		try {
@@ -172,15 +444,15 @@ public abstract class SimpleFlatDatabase<T> extends SimpleDatabase {
 
 			// Remove data if empty
 			if (data == null || data.isEmpty()) {
-				update("DELETE FROM {table} WHERE UUID= '" + uuid + "';");
+				update("DELETE FROM {table} WHERE UUID=?", uuid);
 
 				if (Debugger.isDebugged("mysql"))
 					Debugger.debug("mysql", "Data was empty, row has been removed.");
 
 			} else if (isStored(uuid))
-				update("UPDATE {table} SET Data='" + data.toJson() + "', Updated='" + System.currentTimeMillis() + "' WHERE UUID='" + uuid + "';");
+				update("UPDATE {table} SET Data=?, Updated=? WHERE UUID=?", data.toJson(), System.currentTimeMillis(), uuid);
 			else
-				update("INSERT INTO {table}(UUID, Name, Data, Updated) VALUES ('" + uuid + "', '" + name + "', '" + data.toJson() + "', '" + System.currentTimeMillis() + "');");
+				update("INSERT INTO {table}(UUID, Name, Data, Updated) VALUES (?, ?, ?, ?)", uuid, name, data.toJson(), System.currentTimeMillis());
 
 		} catch (final Throwable ex) {
 			Common.error(ex,
@@ -195,6 +467,142 @@ public abstract class SimpleFlatDatabase<T> extends SimpleDatabase {
 		}
 	}
 
+	/*
+	 * Snapshot the data on the calling thread and queue it for the write-behind worker
+	 */
+	private void queueSave(final String name, final UUID uuid, final T cache) {
+		try {
+			final SerializedMap data = onSave(cache);
+			final String json = data == null || data.isEmpty() ? null : data.toJson();
+
+			Debugger.debug("mysql", "---------------- MySQL - Queuing data for " + uuid + ": " + json);
+
+			pendingSaves.put(uuid, new PendingSave(name, json, System.currentTimeMillis()));
+			startWriteBehind();
+
+		} catch (final Throwable ex) {
+			Common.error(ex,
+					"Failed to queue data to save to MySQL!",
+					"UUID: " + uuid,
+					"Error: %error");
+		}
+	}
+
+	/**
+	 * Immediately write all saves queued by the write-behind mode on the calling thread.
+	 * <p>
+	 * Rows of all queued unique IDs are deleted and the non-empty ones inserted again
+	 * using multi-row statements within one transaction. Saves stay queued until the transaction
+	 * commits, so they are retried on failure and {@link #load(UUID, Object)} never reads older rows.
+	 */
+	public final void flushPendingSaves() {
+		synchronized (pendingSaves) {
+			if (pendingSaves.isEmpty() || !isLoaded())
+				return;
+
+			// Keep the saves queued until written so that load() still finds them meanwhile
+			final Map<UUID, PendingSave> batch = new LinkedHashMap<>(pendingSaves);
+
+			final List<String> sqls = new ArrayList<>();
+			final List<Object[]> values = new ArrayList<>();
+
+			final List<Object> uuids = new ArrayList<>();
+			final List<Object> rows = new ArrayList<>();
+
+			for (final Entry<UUID, PendingSave> entry : batch.entrySet()) {
+				final PendingSave pending = entry.getValue();
+
+				uuids.add(entry.getKey());
+
+				if (pending.json != null)
+					Collections.addAll(rows, entry.getKey(), pending.name, pending.json, pending.updated);
+			}
+
+			for (int from = 0; from < uuids.size(); from += BATCH_CHUNK_SIZE) {
+				final List<Object> chunk = uuids.subList(from, Math.min(uuids.size(), from + BATCH_CHUNK_SIZE));
+
+				sqls.add("DELETE FROM {table} WHERE UUID IN (" + Common.join(Collections.nCopies(chunk.size(), "?")) + ")");
+				values.add(chunk.toArray());
+			}
+
+			for (int from = 0; from < rows.size(); from += BATCH_CHUNK_SIZE * 4) {
+				final List<Object> chunk = rows.subList(from, Math.min(rows.size(), from + BATCH_CHUNK_SIZE * 4));
+
+				sqls.add("INSERT INTO {table}(UUID, Name, Data, Updated) VALUES " + Common.join(Collections.nCopies(chunk.size() / 4, "(?, ?, ?, ?)")));
+				values.add(chunk.toArray());
+			}
+
+			final long start = System.currentTimeMillis();
+
+			try {
+				updateInTransaction(sqls, values);
+
+				// Only drop saves not replaced by a newer one meanwhile
+				for (final Entry<UUID, PendingSave> entry : batch.entrySet())
+					pendingSaves.remove(entry.getKey(), entry.getValue());
+
+				Debugger.debug("mysql", "Flushed " + batch.size() + " queued saves in " + (System.currentTimeMillis() - start) + " ms");
+
+			} catch (final Throwable t) {
+				Common.error(t,
+						"Failed to write " + batch.size() + " queued saves to MySQL, will try again later!",
+						"Error: %error");
+			}
+		}
+	}
+
+	/*
+	 * Start the write-behind worker if not yet running
+	 */
+	private synchronized void startWriteBehind() {
+		if (writeBehindWorker != null && !writeBehindWorker.isShutdown())
+			return;
+
+		final long intervalMillis = Math.max(1, getWriteBehindIntervalTicks()) * 50L;
+
+		writeBehindWorker = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("Foundation MySQL Write-Behind %d"));
+		writeBehindWorker.scheduleWithFixedDelay(this::flushPendingSaves, intervalMillis, intervalMillis, TimeUnit.MILLISECONDS);
+
+		writeBehindDatabases.add(this);
+	}
+
+	/*
+	 * Stop the write-behind worker, wait for its current flush and write what is left
+	 */
+	private void stopWriteBehind() {
+		final ScheduledExecutorService worker;
+
+		synchronized (this) {
+			worker = writeBehindWorker;
+			writeBehindWorker = null;
+		}
+
+		writeBehindDatabases.remove(this);
+
+		if (worker != null) {
+			worker.shutdown();
+
+			try {
+				worker.awaitTermination(10, TimeUnit.SECONDS);
+
+			} catch (final InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+		}
+
+		flushPendingSaves();
+	}
+
+	/**
+	 * Stops write-behind workers of all databases and writes their queued saves.
+	 * <p>
+	 * Called automatically when the plugin is disabled, after onPluginStop.
+	 */
+	public static void flushAllPendingSaves() {
+		for (final SimpleFlatDatabase<?> database : new ArrayList<>(writeBehindDatabases))
+			database.stopWriteBehind();
+	}
+
 	/**
 	 * Utility method to finish LagCatcher mysql measure and log
 	 * if there was some lag, or if we detected mysql being run
@@ -217,7 +625,7 @@ public abstract class SimpleFlatDatabase<T> extends SimpleDatabase {
 	 * @throws SQLException
 	 */
 	private boolean isStored(@NonNull final UUID uuid) throws SQLException {
-		final ResultSet resultSet = query("SELECT * FROM {table} WHERE UUID= '" + uuid.toString() + "'");
+		final ResultSet resultSet = query("SELECT * FROM {table} WHERE UUID=?", uuid);
 
 		if (resultSet == null)
 			return false;
@@ -237,4 +645,26 @@ public abstract class SimpleFlatDatabase<T> extends SimpleDatabase {
 	 * @return
 	 */
 	protected abstract SerializedMap onSave(T data);
+
+	/**
+	 * Represents a save waiting to be written by the write-behind worker
+	 */
+	@RequiredArgsConstructor
+	private static final class PendingSave {
+
+		/**
+		 * The last known name
+		 */
+		private final String name;
+
+		/**
+		 * The JSON data, or null to remove the row
+		 */
+		private final String json;
+
+		/**
+		 * When the save was requested
+		 */
+		private final long updated;
+	}
 }
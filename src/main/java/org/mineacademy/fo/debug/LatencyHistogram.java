@@ -0,0 +1,149 @@
+package org.mineacademy.fo.debug;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.mineacademy.fo.MathUtil;
+
+/**
+ * A lock-free histogram recording how long an operation took,
+ * safe to record into from multiple threads at once
+ * <p>
+ * Durations are counted in power-of-two microsecond buckets,
+ * so percentiles are approximated by the bucket upper bound.
+ */
+public final class LatencyHistogram {
+
+	/**
+	 * The amount of buckets, the last one holds everything above ~4 seconds
+	 */
+	private static final int BUCKETS = 24;
+
+	/**
+	 * Counts per bucket, bucket i holds durations below 2^i microseconds
+	 */
+	private final LongAdder[] buckets = new LongAdder[BUCKETS];
+
+	/**
+	 * The total amount of recorded durations
+	 */
+	private final LongAdder count = new LongAdder();
+
+	/**
+	 * The sum of all recorded durations in nanoseconds
+	 */
+	private final LongAdder totalNanos = new LongAdder();
+
+	/**
+	 * The longest recorded duration in nanoseconds
+	 */
+	private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+
+	public LatencyHistogram() {
+		for (int i = 0; i < BUCKETS; i++)
+			this.buckets[i] = new LongAdder();
+	}
+
+	/**
+	 * Record an operation that started at the given {@link System#nanoTime()}
+	 *
+	 * @param startNanos
+	 */
+	public void recordSince(long startNanos) {
+		this.record(System.nanoTime() - startNanos);
+	}
+
+	/**
+	 * Record an operation that took the given amount of nanoseconds
+	 *
+	 * @param nanos
+	 */
+	public void record(long nanos) {
+		if (nanos < 0)
+			nanos = 0;
+
+		final long micros = nanos / 1000;
+		final int bucket = micros == 0 ? 0 : Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(micros));
+
+		this.buckets[bucket].increment();
+		this.count.increment();
+		this.totalNanos.add(nanos);
+		this.maxNanos.accumulate(nanos);
+	}
+
+	/**
+	 * Return how many durations were recorded
+	 *
+	 * @return
+	 */
+	public long getCount() {
+		return this.count.sum();
+	}
+
+	/**
+	 * Return the average duration in milliseconds
+	 *
+	 * @return
+	 */
+	public double getAverageMillis() {
+		final long count = this.count.sum();
+
+		return count == 0 ? 0 : this.totalNanos.sum() / 1_000_000D / count;
+	}
+
+	/**
+	 * Return the longest duration in milliseconds
+	 *
+	 * @return
+	 */
+	public double getMaxMillis() {
+		return this.maxNanos.get() / 1_000_000D;
+	}
+
+	/**
+	 * Return the approximate duration in milliseconds under which the given
+	 * percentage of operations finished, for example 99 for the 99th percentile
+	 *
+	 * @param percentile from 0 to 100
+	 * @return
+	 */
+	public double getPercentileMillis(double percentile) {
+		final long count = this.count.sum();
+
+		if (count == 0)
+			return 0;
+
+		final long threshold = (long) Math.ceil(count * MathUtil.range(percentile, 0, 100) / 100D);
+		long seen = 0;
+
+		for (int i = 0; i < BUCKETS; i++) {
+			seen += this.buckets[i].sum();
+
+			if (seen >= threshold && seen > 0)
+				return Math.min((1L << i) / 1000D, this.getMaxMillis());
+		}
+
+		return this.getMaxMillis();
+	}
+
+	/**
+	 * Clear all recorded durations
+	 */
+	public void reset() {
+		for (final LongAdder bucket : this.buckets)
+			bucket.reset();
+
+		this.count.reset();
+		this.totalNanos.reset();
+		this.maxNanos.reset();
+	}
+
+	@Override
+	public String toString() {
+		return "count=" + this.getCount()
+				+ ", avg=" + MathUtil.formatTwoDigits(this.getAverageMillis()) + "ms"
+				+ ", p50=" + MathUtil.formatTwoDigits(this.getPercentileMillis(50)) + "ms"
+				+ ", p99=" + MathUtil.formatTwoDigits(this.getPercentileMillis(99)) + "ms"
+				+ ", max=" + MathUtil.formatTwoDigits(this.getMaxMillis()) + "ms";
+	}
+}
@@ -4,9 +4,12 @@ import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.bukkit.entity.Player;
 import org.bukkit.event.inventory.ClickType;
@@ -92,6 +95,12 @@ public abstract class Menu {
 	 */
 	protected static final ItemStack NO_ITEM = null;
 
+	/**
+	 * Fields holding {@link Button} or Button[] for each menu class, so that
+	 * we only reflect over a class once instead of for each new menu
+	 */
+	private static final Map<Class<?>, List<Field>> buttonFields = new ConcurrentHashMap<>();
+
 	// --------------------------------------------------------------------------------
 	// Actual class
 	// --------------------------------------------------------------------------------
@@ -107,6 +116,31 @@ public abstract class Menu {
 	 */
 	private boolean buttonsRegistered = false;
 
+	/**
+	 * The items we last rendered to the viewer, by slot, null until rendered
+	 */
+	private ItemStack[] renderedItems;
+
+	/**
+	 * The registered button whose item we rendered at each slot, matching {@link #renderedItems}
+	 */
+	private Button[] slotButtons;
+
+	/**
+	 * Slots which item changed since we last matched buttons, their button is found when clicked
+	 */
+	private final BitSet unindexedSlots = new BitSet();
+
+	/**
+	 * Slots refreshed on their own schedule, with their period in ticks
+	 */
+	private final Map<Integer, Integer> slotRefreshPeriods = new HashMap<>();
+
+	/**
+	 * Is the task refreshing {@link #slotRefreshPeriods} running?
+	 */
+	private boolean slotRefreshRunning = false;
+
 	/**
 	 * Parent menu
 	 */
@@ -263,23 +297,17 @@ public abstract class Menu {
 		}
 
 		// Register buttons declared as fields
-		{
-			Class<?> lookup = getClass();
+		for (final Field field : getButtonFields(getClass()))
+			registerButton0(field);
 
-			do
-				for (final Field f : lookup.getDeclaredFields())
-					registerButton0(f);
-			while (Menu.class.isAssignableFrom(lookup = lookup.getSuperclass()));
-		}
+		// Buttons may have changed, match them again with what the viewer sees
+		if (renderedItems != null)
+			indexButtons();
 	}
 
-	// Scans the class and register fields that extend Button class
+	// Register the button or buttons the field holds
 	private void registerButton0(final Field field) {
-		field.setAccessible(true);
-
-		final Class<?> type = field.getType();
-
-		if (Button.class.isAssignableFrom(type)) {
+		if (Button.class.isAssignableFrom(field.getType())) {
 			final Button button = (Button) ReflectionUtil.getFieldContent(field, this);
 
 			Valid.checkNotNull(button, "Null button field named " + field.getName() + " in " + this);
@@ -287,8 +315,7 @@ public abstract class Menu {
 			if (!(button instanceof DummyButton))
 				registeredButtons.add(button);
 
-		} else if (Button[].class.isAssignableFrom(type)) {
-			Valid.checkBoolean(Modifier.isFinal(field.getModifiers()), "Report / Button[] field must be final: " + field);
+		} else {
 			final Button[] buttons = (Button[]) ReflectionUtil.getFieldContent(field, this);
 
 			Valid.checkBoolean(buttons != null && buttons.length > 0, "Null " + field.getName() + "[] in " + this);
@@ -296,6 +323,35 @@ public abstract class Menu {
 		}
 	}
 
+	/*
+	 * Return accessible fields holding buttons in the menu class and its super classes, cached
+	 */
+	private static List<Field> getButtonFields(final Class<?> menuClass) {
+		return buttonFields.computeIfAbsent(menuClass, clazz -> {
+			final List<Field> fields = new ArrayList<>();
+			Class<?> lookup = clazz;
+
+			do
+				for (final Field field : lookup.getDeclaredFields()) {
+					final Class<?> type = field.getType();
+
+					if (Button.class.isAssignableFrom(type)) {
+						field.setAccessible(true);
+						fields.add(field);
+
+					} else if (Button[].class.isAssignableFrom(type)) {
+						Valid.checkBoolean(Modifier.isFinal(field.getModifiers()), "Report / Button[] field must be final: " + field);
+
+						field.setAccessible(true);
+						fields.add(field);
+					}
+				}
+			while (Menu.class.isAssignableFrom(lookup = lookup.getSuperclass()));
+
+			return Collections.unmodifiableList(fields);
+		});
+	}
+
 	/*
 	 * Utility method to register buttons if they yet have not been registered
 	 *
@@ -321,6 +377,45 @@ public abstract class Menu {
 		return null;
 	}
 
+	/**
+	 * Attempts to find a clickable registered button at the given slot in this menu.
+	 *
+	 * <p>
+	 * If the item there is still the one we rendered, we return the button we matched it
+	 * with when rendering, otherwise we fall back to {@link #getButton(ItemStack)}
+	 *
+	 * @param slot the slot in the menu
+	 * @param fromItem the itemstack at the slot
+	 * @return the button or null if not found
+	 */
+	protected final Button getButton(final int slot, final ItemStack fromItem) {
+		registerButtonsIfHasnt();
+
+		if (slotButtons != null && slot >= 0 && slot < slotButtons.length && isRendered(slot, fromItem)) {
+			if (unindexedSlots.get(slot)) {
+				slotButtons[slot] = getButton(fromItem);
+
+				unindexedSlots.clear(slot);
+			}
+
+			return slotButtons[slot];
+		}
+
+		return getButton(fromItem);
+	}
+
+	/*
+	 * Return true if the item is what we rendered at the slot
+	 */
+	private boolean isRendered(final int slot, final ItemStack item) {
+		final ItemStack rendered = renderedItems[slot];
+
+		if (rendered == null)
+			return item == null || CompMaterial.isAir(item.getType());
+
+		return ItemUtil.isSimilar(item, rendered);
+	}
+
 	/**
 	 * Attempts to find a clickable registered button in this menu having the same
 	 * icon as the given item stack
@@ -407,6 +502,16 @@ public abstract class Menu {
 		// Render empty slots as slot numbers if enabled
 		debugSlotNumbers(drawer);
 
+		// Remember which button is where for clicking
+		{
+			final ItemStack[] items = new ItemStack[drawer.getSize()];
+
+			for (int slot = 0; slot < items.length; slot++)
+				items[slot] = drawer.getItem(slot);
+
+			setRenderedItems(items);
+		}
+
 		// Call event after items have been set to allow to get them
 		if (!Common.callEvent(new MenuOpenEvent(this, drawer, player)))
 			return;
@@ -436,6 +541,7 @@ public abstract class Menu {
 			player.setMetadata(FoConstants.NBT.TAG_MENU_CURRENT, new FixedMetadataValue(SimplePlugin.getInstance(), Menu.this));
 
 			opened = true;
+			startSlotRefresh();
 		});
 	}
 
@@ -489,21 +595,231 @@ public abstract class Menu {
 	}
 
 	/**
-	 * Redraws the bottom bar and updates inventory
+	 * Redraws the menu and updates inventory, only sending slots which item
+	 * is different from what the viewer has
 	 */
 	protected final void redraw() {
+		final Inventory inv = getOpenInventory0();
+
+		if (renderedItems == null || renderedItems.length != size)
+			renderedItems = new ItemStack[size];
+
+		boolean changed = false;
+
+		for (int slot = 0; slot < size; slot++) {
+			final ItemStack item = compileItem0(slot);
+
+			Valid.checkBoolean(slot < inv.getSize(), "Item (" + (item != null ? item.getType() : "null") + ") position (" + slot + ") > inv size (" + inv.getSize() + ")");
+
+			if (!isSameItem(item, inv.getItem(slot))) {
+				inv.setItem(slot, item);
+
+				changed = true;
+			}
+
+			if (!isSameItem(item, renderedItems[slot]))
+				setRenderedItem(slot, item);
+		}
+
+		if (changed)
+			getViewer().updateInventory();
+	}
+
+	/**
+	 * Updates slots which item changed since we last rendered them, without
+	 * registering buttons again or updating the whole player inventory.
+	 *
+	 * <p>
+	 * This compares with what we rendered before and is the cheapest way to
+	 * update live menus. Use {@link #redraw()} if the menu inventory could have
+	 * been changed from elsewhere.
+	 */
+	public final void refresh() {
+		if (renderedItems == null || renderedItems.length != size) {
+			redraw();
+
+			return;
+		}
+
+		final Inventory inv = getOpenInventory0();
+
+		for (int slot = 0; slot < size; slot++)
+			refreshSlot0(inv, slot);
+	}
+
+	/**
+	 * Updates the item at the given slot if it changed since we last rendered it
+	 *
+	 * @param slot
+	 */
+	protected final void refreshSlot(final int slot) {
+		Valid.checkBoolean(slot >= 0 && slot < size, "Slot " + slot + " is outside of menu " + this + " of size " + size);
+
+		if (renderedItems == null || renderedItems.length != size) {
+			redraw();
+
+			return;
+		}
+
+		refreshSlot0(getOpenInventory0(), slot);
+	}
+
+	/*
+	 * Set the item at the slot if it differs from what we rendered
+	 */
+	private void refreshSlot0(final Inventory inv, final int slot) {
+		final ItemStack item = compileItem0(slot);
+
+		if (!isSameItem(item, renderedItems[slot])) {
+			inv.setItem(slot, item);
+
+			setRenderedItem(slot, item);
+		}
+	}
+
+	/**
+	 * Refresh the item at the given slot using {@link #refreshSlot(int)} every given amount of ticks
+	 * while the menu is open, so that dynamic buttons can update on their own schedule.
+	 *
+	 * @param slot
+	 * @param periodTicks the period, or 0 to stop refreshing the slot
+	 */
+	protected final void setSlotRefreshPeriod(final int slot, final int periodTicks) {
+		Valid.checkBoolean(periodTicks >= 0, "Refresh period must not be negative for slot " + slot + " in " + this);
+
+		if (periodTicks == 0)
+			slotRefreshPeriods.remove(slot);
+		else
+			slotRefreshPeriods.put(slot, periodTicks);
+
+		if (opened)
+			startSlotRefresh();
+	}
+
+	/*
+	 * Start the task refreshing slots with a refresh period, if any and not running already
+	 */
+	private void startSlotRefresh() {
+		if (slotRefreshRunning || slotRefreshPeriods.isEmpty() || closed)
+			return;
+
+		slotRefreshRunning = true;
+
+		animate(1, new MenuRunnable() {
+
+			private long ticks = 0;
+
+			@Override
+			public void run() {
+				if (slotRefreshPeriods.isEmpty() || Menu.getMenu(viewer) != Menu.this) {
+					slotRefreshRunning = false;
+
+					cancel();
+				}
+
+				ticks++;
+
+				for (final Map.Entry<Integer, Integer> entry : slotRefreshPeriods.entrySet())
+					if (ticks % entry.getValue() == 0)
+						refreshSlot(entry.getKey());
+			}
+		});
+	}
+
+	/*
+	 * Return the item that should be at the slot, the bottom bar takes priority
+	 */
+	private ItemStack compileItem0(final int slot) {
+		final ItemStack item = getItemAt(slot);
+
+		if (slot == getInfoButtonPosition() || slot == getReturnButtonPosition()) {
+			final ItemStack barItem = compileBottomBar0().get(slot);
+
+			if (barItem != null)
+				return barItem;
+		}
+
+		return item;
+	}
+
+	/*
+	 * Return the viewer's open menu inventory
+	 */
+	private Inventory getOpenInventory0() {
 		final Inventory inv = getViewer().getOpenInventory().getTopInventory();
 		Valid.checkBoolean(inv.getType() == InventoryType.CHEST, getViewer().getName() + "'s inventory closed in the meanwhile (now == " + inv.getType() + ").");
 
-		for (int i = 0; i < size; i++) {
-			final ItemStack item = getItemAt(i);
+		return inv;
+	}
+
+	/*
+	 * Return true if both items are empty or equal including their amount
+	 */
+	private static boolean isSameItem(final ItemStack first, final ItemStack second) {
+		final boolean firstEmpty = first == null || CompMaterial.isAir(first.getType());
+		final boolean secondEmpty = second == null || CompMaterial.isAir(second.getType());
+
+		if (firstEmpty || secondEmpty)
+			return firstEmpty && secondEmpty;
+
+		return first.equals(second);
+	}
+
+	/*
+	 * Store a copy of the items the viewer now sees and match registered buttons to them
+	 */
+	private void setRenderedItems(final ItemStack[] items) {
+		renderedItems = new ItemStack[items.length];
+
+		for (int slot = 0; slot < items.length; slot++)
+			renderedItems[slot] = items[slot] != null ? items[slot].clone() : null;
+
+		indexButtons();
+	}
+
+	/*
+	 * Store a copy of the item now at the slot, its button is matched when clicked
+	 */
+	private void setRenderedItem(final int slot, final ItemStack item) {
+		renderedItems[slot] = item != null ? item.clone() : null;
+
+		if (slotButtons != null && slot < slotButtons.length) {
+			slotButtons[slot] = null;
+
+			unindexedSlots.set(slot);
+		}
+	}
 
-			Valid.checkBoolean(i < inv.getSize(), "Item (" + (item != null ? item.getType() : "null") + ") position (" + i + ") > inv size (" + inv.getSize() + ")");
-			inv.setItem(i, item);
+	/*
+	 * Find which registered button was rendered at each slot, building each button item only once
+	 */
+	private void indexButtons() {
+		final Button[] buttons = new Button[renderedItems.length];
+		final ItemStack[] buttonItems = new ItemStack[registeredButtons.size()];
+
+		for (int i = 0; i < buttonItems.length; i++) {
+			final Button button = registeredButtons.get(i);
+
+			buttonItems[i] = button != null ? button.getItem() : null;
+		}
+
+		for (int slot = 0; slot < renderedItems.length; slot++) {
+			final ItemStack item = renderedItems[slot];
+
+			if (item == null || CompMaterial.isAir(item.getType()))
+				continue;
+
+			// Same order as getButton(ItemStack) so the first matching button wins
+			for (int i = 0; i < buttonItems.length; i++)
+				if (buttonItems[i] != null && buttonItems[i].getType() == item.getType() && ItemUtil.isSimilar(item, buttonItems[i])) {
+					buttons[slot] = registeredButtons.get(i);
+
+					break;
+				}
 		}
 
-		compileBottomBar0().forEach((slot, item) -> inv.setItem(slot, item));
-		getViewer().updateInventory();
+		slotButtons = buttons;
+		unindexedSlots.clear();
 	}
 
 	/**
@@ -65,7 +65,7 @@ public final class MenuListener implements Listener {
 			if (action.toString().contains("PICKUP") || action.toString().contains("PLACE") || action.toString().equals("SWAP_WITH_CURSOR") || action == InventoryAction.CLONE_STACK) {
 				if (whereClicked == MenuClickLocation.MENU)
 					try {
-						final Button button = menu.getButton(slotItem);
+						final Button button = menu.getButton(event.getSlot(), slotItem);
 
 						if (button != null)
 							menu.onButtonClick(player, event.getSlot(), action, event.getClick(), button);
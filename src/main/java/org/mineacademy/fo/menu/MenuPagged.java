@@ -1,7 +1,10 @@
 package org.mineacademy.fo.menu;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 import org.bukkit.entity.Player;
 import org.bukkit.event.inventory.ClickType;
@@ -15,6 +18,7 @@ import org.mineacademy.fo.exception.FoException;
 import org.mineacademy.fo.menu.button.Button;
 import org.mineacademy.fo.menu.model.InventoryDrawer;
 import org.mineacademy.fo.menu.model.ItemCreator;
+import org.mineacademy.fo.menu.model.PageProvider;
 import org.mineacademy.fo.remain.CompMaterial;
 import org.mineacademy.fo.settings.SimpleLocalization;
 
@@ -24,6 +28,9 @@ import lombok.val;
 
 /**
  * An advanced menu listing items with automatic page support
+ * <p>
+ * Items are either given all at once, or fetched page by page from
+ * a {@link PageProvider} for large data sets.
  *
  * @param <T> the item that each page consists of
  */
@@ -51,10 +58,37 @@ public abstract class MenuPagged<T> extends Menu {
 
 	/**
 	 * The pages by the page number, containing a list of items
+	 * <p>
+	 * When using a {@link PageProvider}, this only holds recently viewed pages
 	 */
 	@Getter
 	private final Map<Integer, List<T>> pages;
 
+	/**
+	 * Where we fetch pages from, or null if all pages are in {@link #pages}
+	 */
+	private final PageProvider<T> pageProvider;
+
+	/**
+	 * How many items fit on a page
+	 */
+	private final int pageSize;
+
+	/**
+	 * The amount of pages when using a {@link PageProvider}, -1 if not known yet
+	 */
+	private int pageCount = -1;
+
+	/**
+	 * The page being fetched ahead of time, -1 if none
+	 */
+	private int prefetchedPage = -1;
+
+	/**
+	 * The items of {@link #prefetchedPage} once fetched
+	 */
+	private CompletableFuture<List<T>> prefetchedItems;
+
 	/**
 	 * The current page
 	 */
@@ -158,15 +192,100 @@ public abstract class MenuPagged<T> extends Menu {
 		super(parent, returnMakesNewInstance);
 
 		final int items = getItemAmount(pages);
-		final int autoPageSize = pageSize != null ? pageSize : items <= 9 ? 9 * 1 : items <= 9 * 2 ? 9 * 2 : items <= 9 * 3 ? 9 * 3 : items <= 9 * 4 ? 9 * 4 : 9 * 5;
+		final int autoPageSize = pageSize != null ? pageSize : getAutoPageSize(items);
 
 		this.currentPage = 1;
 		this.pages = Common.fillPages(autoPageSize, pages);
+		this.pageProvider = null;
+		this.pageSize = autoPageSize;
+
+		setSize(9 + autoPageSize);
+		setButtons();
+	}
+
+	/**
+	 * Create a new paged menu fetching pages on demand, where each page has up to
+	 * 5 rows + 1 bottom bar
+	 *
+	 * @param pageProvider where to fetch pages from
+	 */
+	protected MenuPagged(final PageProvider<T> pageProvider) {
+		this(null, pageProvider);
+	}
+
+	/**
+	 * Create a new paged menu fetching pages on demand
+	 *
+	 * @param parent the parent menu
+	 * @param pageProvider where to fetch pages from
+	 */
+	protected MenuPagged(final Menu parent, final PageProvider<T> pageProvider) {
+		this(parent, pageProvider, false);
+	}
+
+	/**
+	 * Create a new paged menu fetching pages on demand
+	 *
+	 * @param parent
+	 * @param pageProvider
+	 * @param returnMakesNewInstance
+	 */
+	protected MenuPagged(final Menu parent, final PageProvider<T> pageProvider, final boolean returnMakesNewInstance) {
+		this(null, parent, pageProvider, returnMakesNewInstance);
+	}
+
+	/**
+	 * Create a new paged menu fetching pages on demand
+	 *
+	 * @param pageSize               size of the menu, a multiple of 9 (keep in mind we already add
+	 *                               1 row there)
+	 * @param parent                 the parent menu
+	 * @param pageProvider           where to fetch pages from
+	 * @param returnMakesNewInstance should we re-instatiate the parent menu when returning to it?
+	 */
+	protected MenuPagged(final int pageSize, final Menu parent, final PageProvider<T> pageProvider, final boolean returnMakesNewInstance) {
+		this((Integer) pageSize, parent, pageProvider, returnMakesNewInstance);
+	}
+
+	/**
+	 * Create a new paged menu fetching pages on demand
+	 *
+	 * @param pageSize               size of the menu, or null to calculate from the item count
+	 * @param parent                 the parent menu
+	 * @param pageProvider           where to fetch pages from
+	 * @param returnMakesNewInstance should we re-instatiate the parent menu when returning to it?
+	 */
+	private MenuPagged(final Integer pageSize, final Menu parent, final PageProvider<T> pageProvider, final boolean returnMakesNewInstance) {
+		super(parent, returnMakesNewInstance);
+
+		Valid.checkNotNull(pageProvider, "Page provider cannot be null!");
+
+		final int items = pageProvider.getItemCount();
+		final int autoPageSize = pageSize != null ? pageSize : items < 0 ? 9 * 5 : getAutoPageSize(items);
+
+		this.currentPage = 1;
+		this.pageProvider = pageProvider;
+		this.pageSize = autoPageSize;
+		this.pageCount = items < 0 ? -1 : Math.max(1, (items + autoPageSize - 1) / autoPageSize);
+		this.pages = new LinkedHashMap<Integer, List<T>>(16, 0.75F, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(final Map.Entry<Integer, List<T>> eldest) {
+				return this.size() > Math.max(2, getPageCacheSize());
+			}
+		};
 
 		setSize(9 + autoPageSize);
 		setButtons();
 	}
 
+	// Return the smallest amount of rows fitting the items, up to 5
+	private static int getAutoPageSize(final int items) {
+		return items <= 9 ? 9 * 1 : items <= 9 * 2 ? 9 * 2 : items <= 9 * 3 ? 9 * 3 : items <= 9 * 4 ? 9 * 4 : 9 * 5;
+	}
+
 	@SuppressWarnings("unused")
 	private int getItemAmount(final Iterable<T> pages) {
 		int amount = 0;
@@ -179,7 +298,7 @@ public abstract class MenuPagged<T> extends Menu {
 
 	// Render the next/prev buttons
 	private void setButtons() {
-		final boolean hasPages = pages.size() > 1;
+		final boolean hasPages = getPageCount() != 1;
 
 		// Set previous button
 		prevButton = hasPages ? formPreviousButton() : Button.makeEmpty();
@@ -201,7 +320,7 @@ public abstract class MenuPagged<T> extends Menu {
 			@Override
 			public void onClickedInMenu(final Player pl, final Menu menu, final ClickType click) {
 				if (canGo) {
-					currentPage = MathUtil.range(currentPage - 1, 1, pages.size());
+					currentPage = Math.max(currentPage - 1, 1);
 
 					updatePage();
 				}
@@ -227,12 +346,15 @@ public abstract class MenuPagged<T> extends Menu {
 	 */
 	public Button formNextButton() {
 		return new Button() {
-			final boolean canGo = currentPage < pages.size();
+			final boolean canGo = getPageCount() == -1 || currentPage < getPageCount();
 
 			@Override
 			public void onClickedInMenu(final Player pl, final Menu menu, final ClickType click) {
 				if (canGo) {
-					currentPage = MathUtil.range(currentPage + 1, 1, pages.size());
+
+					// Without a known page count, stay if the next page turns out empty
+					if (getPageCount() != -1 || !getPageItems(currentPage).isEmpty())
+						currentPage = getPageCount() == -1 ? currentPage + 1 : MathUtil.range(currentPage + 1, 1, getPageCount());
 
 					updatePage();
 				}
@@ -240,7 +362,7 @@ public abstract class MenuPagged<T> extends Menu {
 
 			@Override
 			public ItemStack getItem() {
-				final boolean lastPage = currentPage == pages.size();
+				final boolean lastPage = currentPage == getPageCount();
 
 				return ItemCreator
 						.of(canGo ? activePageButton : inactivePageButton)
@@ -255,6 +377,7 @@ public abstract class MenuPagged<T> extends Menu {
 		setButtons();
 		redraw();
 		registerButtons();
+		prefetchNextPage();
 
 		Menu.getSound().play(getViewer());
 		PlayerUtil.updateInventoryTitle(getViewer(), compileTitle0());
@@ -262,9 +385,29 @@ public abstract class MenuPagged<T> extends Menu {
 
 	// Compile title and page numbers
 	private String compileTitle0() {
-		final boolean canAddNumbers = addPageNumbers() && pages.size() > 1;
+		final int count = getPageCount();
+		final boolean canAddNumbers = addPageNumbers() && count != 1;
+
+		return getTitle() + (canAddNumbers ? " &8" + currentPage + (count != -1 ? "/" + count : "") : "");
+	}
 
-		return getTitle() + (canAddNumbers ? " &8" + currentPage + "/" + pages.size() : "");
+	/**
+	 * Return the amount of pages, or -1 if the {@link PageProvider} does not
+	 * know the item count and we have not reached the last page yet
+	 *
+	 * @return
+	 */
+	public final int getPageCount() {
+		return pageProvider == null ? pages.size() : pageCount;
+	}
+
+	/**
+	 * How many pages fetched from the {@link PageProvider} to keep in memory, 5 by default
+	 *
+	 * @return
+	 */
+	protected int getPageCacheSize() {
+		return 5;
 	}
 
 	/**
@@ -279,6 +422,8 @@ public abstract class MenuPagged<T> extends Menu {
 	@Override
 	protected final void onDisplay(final InventoryDrawer drawer) {
 		drawer.setTitle(compileTitle0());
+
+		prefetchNextPage();
 	}
 
 	/**
@@ -325,6 +470,9 @@ public abstract class MenuPagged<T> extends Menu {
 	 * @return
 	 */
 	protected boolean isEmpty() {
+		if (pageProvider != null)
+			return getPageItems(0).isEmpty();
+
 		return pages.isEmpty() || pages.get(0).isEmpty();
 	}
 
@@ -405,8 +553,70 @@ public abstract class MenuPagged<T> extends Menu {
 
 	// Get all items in a page
 	private List<T> getCurrentPageItems() {
+		if (pageProvider != null)
+			return getPageItems(currentPage - 1);
+
 		Valid.checkBoolean(pages.containsKey(currentPage - 1), "The menu has only " + pages.size() + " pages, not " + currentPage + "!");
 
 		return pages.get(currentPage - 1);
 	}
+
+	// Get items on the page starting at 0, fetching them if not cached
+	private List<T> getPageItems(final int page) {
+		if (pageProvider == null)
+			return pages.getOrDefault(page, new ArrayList<>());
+
+		List<T> items = pages.get(page);
+
+		if (items == null) {
+			items = page == prefetchedPage ? joinPrefetched() : null;
+
+			if (items == null)
+				items = fetchPage(page);
+
+			// Discover the last page when the item count is unknown
+			if (pageCount == -1 && items.size() < pageSize)
+				pageCount = Math.max(1, items.isEmpty() ? page : page + 1);
+
+			pages.put(page, items);
+		}
+
+		return items;
+	}
+
+	// Fetch items on the page from the provider
+	private List<T> fetchPage(final int page) {
+		final List<T> items = pageProvider.getPage(page, pageSize);
+		Valid.checkNotNull(items, "Page provider returned null for page " + page + " in " + this);
+
+		return items;
+	}
+
+	// Fetch the page after the current one asynchronously unless we have it already
+	private void prefetchNextPage() {
+		final int nextPage = currentPage;
+
+		if (pageProvider == null || !pageProvider.isAsyncPrefetch() || (pageCount != -1 && nextPage >= pageCount) || pages.containsKey(nextPage) || prefetchedPage == nextPage)
+			return;
+
+		prefetchedPage = nextPage;
+		prefetchedItems = CompletableFuture.supplyAsync(() -> fetchPage(nextPage), Common::runAsync);
+	}
+
+	// Return the prefetched page waiting for it if needed, or null if fetching failed
+	private List<T> joinPrefetched() {
+		final CompletableFuture<List<T>> future = prefetchedItems;
+
+		prefetchedPage = -1;
+		prefetchedItems = null;
+
+		try {
+			return future.join();
+
+		} catch (final Throwable t) {
+			Common.error(t, "Failed to prefetch page in " + this + ", fetching it again");
+
+			return null;
+		}
+	}
 }
\ No newline at end of file
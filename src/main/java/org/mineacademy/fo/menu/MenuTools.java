@@ -195,7 +195,7 @@ final class ToggleableTool {
 				this.item = (ItemStack) unparsed;
 
 			else if (unparsed instanceof Tool)
-				this.item = ((Tool) unparsed).getItem();
+				this.item = ((Tool) unparsed).getTaggedItem();
 
 			else if (unparsed instanceof Number && ((Number) unparsed).intValue() == 0)
 				this.item = new ItemStack(Material.AIR);
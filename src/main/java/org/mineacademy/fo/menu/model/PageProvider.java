@@ -0,0 +1,50 @@
+package org.mineacademy.fo.menu.model;
+
+import java.util.List;
+
+import org.mineacademy.fo.menu.MenuPagged;
+
+/**
+ * Supplies items for {@link MenuPagged} one page at a time, so that large
+ * data sets such as database records do not need to be loaded up front.
+ * <p>
+ * Pages may be prefetched off the main thread, so implementations must be thread-safe
+ * when {@link #isAsyncPrefetch()} returns true.
+ *
+ * @param <T> the item that each page consists of
+ */
+@FunctionalInterface
+public interface PageProvider<T> {
+
+	/**
+	 * Return items on the given page, at most the page size of them.
+	 * Return an empty list if the page is past the last one.
+	 *
+	 * @param page the page, starting at 0
+	 * @param pageSize how many items fit on a page
+	 * @return
+	 */
+	List<T> getPage(int page, int pageSize);
+
+	/**
+	 * Return the total amount of items, or -1 if it is unknown or expensive to count.
+	 * <p>
+	 * When unknown, we discover the last page when the player reaches it
+	 * and do not show the total amount of pages in the title.
+	 *
+	 * @return
+	 */
+	default int getItemCount() {
+		return -1;
+	}
+
+	/**
+	 * Return true if the next page should be fetched asynchronously while
+	 * the player browses the current page, true by default
+	 *
+	 * @return
+	 */
+	default boolean isAsyncPrefetch() {
+		return true;
+	}
+}
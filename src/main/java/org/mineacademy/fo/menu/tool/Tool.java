@@ -5,7 +5,10 @@ import org.bukkit.event.block.BlockPlaceEvent;
 import org.bukkit.event.player.PlayerInteractEvent;
 import org.bukkit.inventory.ItemStack;
 import org.mineacademy.fo.ItemUtil;
+import org.mineacademy.fo.MinecraftVersion;
+import org.mineacademy.fo.MinecraftVersion.V;
 import org.mineacademy.fo.menu.model.ItemCreator;
+import org.mineacademy.fo.remain.CompMetadata;
 
 /**
  * Represents a tool. A tool is a simple ItemStack that is registered within the
@@ -36,12 +39,20 @@ public abstract class Tool {
 
 	/**
 	 * Evaluates the given itemstack whether it is this tool
+	 * <p>
+	 * Items from {@link #getTaggedItem()} are compared with our tagged item, since the tag
+	 * gives them item meta even when {@link #getItem()} has none.
 	 *
 	 * @param item the itemstack
 	 * @return true if this tool is the given itemstack
 	 */
 	public boolean isTool(final ItemStack item) {
-		return ItemUtil.isSimilar(getItem(), item);
+		if (ItemUtil.isSimilar(getItem(), item))
+			return true;
+
+		return item != null && item.hasItemMeta() && MinecraftVersion.atLeast(V.v1_7)
+				&& getId().equals(CompMetadata.getMetadata(item, ToolRegistry.NBT_KEY))
+				&& ItemUtil.isSimilar(getTaggedItem(), item);
 	}
 
 	/**
@@ -63,6 +74,27 @@ public abstract class Tool {
 	 */
 	public abstract ItemStack getItem();
 
+	/**
+	 * Get the tool item tagged with {@link #getId()}, so that {@link ToolRegistry#getTool(ItemStack)}
+	 * finds it instantly. Use this when giving the tool to players.
+	 *
+	 * @return the tool item with our tag
+	 */
+	public final ItemStack getTaggedItem() {
+		final ItemStack item = getItem();
+
+		return MinecraftVersion.atLeast(V.v1_7) ? CompMetadata.setMetadata(item, ToolRegistry.NBT_KEY, getId()) : item;
+	}
+
+	/**
+	 * Return the id we tag items of this tool with, the class name by default
+	 *
+	 * @return
+	 */
+	public String getId() {
+		return getClass().getName();
+	}
+
 	/**
 	 * Called automatically when the tool is clicked
 	 *
@@ -125,7 +157,7 @@ public abstract class Tool {
 	 * @param player
 	 */
 	public final void give(final Player player, final int slot) {
-		player.getInventory().setItem(slot, getItem());
+		player.getInventory().setItem(slot, getTaggedItem());
 	}
 
 	/**
@@ -134,7 +166,7 @@ public abstract class Tool {
 	 * @param player
 	 */
 	public final void give(final Player player) {
-		player.getInventory().addItem(getItem());
+		player.getInventory().addItem(getTaggedItem());
 	}
 
 	/**
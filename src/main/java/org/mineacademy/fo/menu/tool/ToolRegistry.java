@@ -1,10 +1,18 @@
 package org.mineacademy.fo.menu.tool;
 
 import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedQueue;
 
+import org.bukkit.Material;
 import org.bukkit.inventory.ItemStack;
+import org.mineacademy.fo.MinecraftVersion;
+import org.mineacademy.fo.MinecraftVersion.V;
 import org.mineacademy.fo.Valid;
+import org.mineacademy.fo.remain.CompMaterial;
+import org.mineacademy.fo.remain.CompMetadata;
 
 /**
  * Represents the tool registry holding all registered items
@@ -13,11 +21,38 @@ import org.mineacademy.fo.Valid;
  */
 public final class ToolRegistry {
 
+	/**
+	 * The NBT key storing the tool id on items from {@link Tool#getTaggedItem()}
+	 */
+	static final String NBT_KEY = "FoTool";
+
 	/**
 	 * The registered tools
 	 */
 	private static final Collection<Tool> tools = new ConcurrentLinkedQueue<>();
 
+	/**
+	 * Registered tools by their id, see {@link Tool#getId()}. Instances of the same
+	 * class share the default id so there can be more tools per id.
+	 */
+	private static final Map<String, Collection<Tool>> toolsById = new ConcurrentHashMap<>();
+
+	/**
+	 * Registered tools using the default {@link Tool#isTool(ItemStack)}, which only
+	 * match items of the same material as their item
+	 */
+	private static final Collection<Tool> similarityTools = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Materials of items of {@link #similarityTools}, other items cannot be these tools
+	 */
+	private static final Set<Material> similarityMaterials = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Registered tools overriding {@link Tool#isTool(ItemStack)}, always checked
+	 */
+	private static final Collection<Tool> customTools = new ConcurrentLinkedQueue<>();
+
 	/**
 	 * Add a new tool to register.
 	 * <p>
@@ -29,6 +64,27 @@ public final class ToolRegistry {
 		Valid.checkBoolean(!isRegistered(tool), "Tool with itemstack " + tool.getItem() + " already registered");
 
 		tools.add(tool);
+		toolsById.computeIfAbsent(tool.getId(), id -> new ConcurrentLinkedQueue<>()).add(tool);
+
+		if (hasCustomMatcher(tool))
+			customTools.add(tool);
+
+		else {
+			similarityMaterials.add(tool.getItem().getType());
+			similarityTools.add(tool);
+		}
+	}
+
+	/*
+	 * Return true if the tool overrides isTool so we cannot rely on its material
+	 */
+	private static boolean hasCustomMatcher(Tool tool) {
+		try {
+			return tool.getClass().getMethod("isTool", ItemStack.class).getDeclaringClass() != Tool.class;
+
+		} catch (final NoSuchMethodException ex) {
+			return true;
+		}
 	}
 
 	/**
@@ -43,12 +99,44 @@ public final class ToolRegistry {
 
 	/**
 	 * Attempts to find a registered tool from given itemstack
+	 * <p>
+	 * Items from {@link Tool#getTaggedItem()} are resolved by their id, and only compared
+	 * with the tools of that id when more tools share it. Items of a material no tool has
+	 * are skipped without comparing them with every tool.
 	 *
 	 * @param item the item
 	 * @return the corresponding tool, or null
 	 */
 	public static Tool getTool(ItemStack item) {
-		for (final Tool t : tools)
+		if (item == null || CompMaterial.isAir(item.getType()))
+			return null;
+
+		// Tagged items
+		if (item.hasItemMeta() && MinecraftVersion.atLeast(V.v1_7)) {
+			final String id = CompMetadata.getMetadata(item, NBT_KEY);
+
+			if (id != null) {
+				final Collection<Tool> tagged = toolsById.get(id);
+
+				// The id alone tells the tool, unless more tools share it
+				if (tagged != null && tagged.size() == 1)
+					return tagged.iterator().next();
+
+				if (tagged != null)
+					for (final Tool t : tagged)
+						if (t.isTool(item))
+							return t;
+			}
+		}
+
+		for (final Tool t : customTools)
+			if (t.isTool(item))
+				return t;
+
+		if (!similarityMaterials.contains(item.getType()))
+			return null;
+
+		for (final Tool t : similarityTools)
 			if (t.isTool(item))
 				return t;
 
@@ -6,6 +6,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
@@ -13,7 +14,11 @@ import java.util.NoSuchElementException;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -35,7 +40,6 @@ import org.bukkit.event.Listener;
 import org.bukkit.plugin.Plugin;
 import org.bukkit.plugin.RegisteredServiceProvider;
 import org.bukkit.plugin.java.JavaPlugin;
-import org.bukkit.scheduler.BukkitTask;
 import org.mineacademy.fo.Common;
 import org.mineacademy.fo.MinecraftVersion;
 import org.mineacademy.fo.MinecraftVersion.V;
@@ -43,6 +47,7 @@ import org.mineacademy.fo.PlayerUtil;
 import org.mineacademy.fo.ReflectionUtil;
 import org.mineacademy.fo.Valid;
 import org.mineacademy.fo.debug.Debugger;
+import org.mineacademy.fo.debug.LatencyHistogram;
 import org.mineacademy.fo.exception.FoException;
 import org.mineacademy.fo.plugin.SimplePlugin;
 import org.mineacademy.fo.region.Region;
@@ -91,6 +96,7 @@ import github.scarsz.discordsrv.util.DiscordUtil;
 import lombok.AccessLevel;
 import lombok.NoArgsConstructor;
 import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
 import me.angeschossen.lands.api.integration.LandsIntegration;
 import me.angeschossen.lands.api.land.Land;
 import me.clip.placeholderapi.PlaceholderAPI;
@@ -1196,6 +1202,52 @@ public final class HookManager {
 		return message;
 	}
 
+	/**
+	 * Uses PlaceholderAPI and MVdWPlaceholderAPI to replace placeholders in a message
+	 * without blocking the caller.
+	 * <p>
+	 * Variables of expansions marked with {@link #setPlaceholderAPIThreadSafe(Collection)}
+	 * are replaced on an async task, all others are then replaced on the main thread.
+	 * If nothing is left for the main thread, the future completes off it.
+	 *
+	 * @param player
+	 * @param message
+	 * @return
+	 */
+	public static CompletableFuture<String> replacePlaceholdersAsync(final Player player, final String message) {
+		if (message == null || "".equals(message.trim()))
+			return CompletableFuture.completedFuture(message);
+
+		CompletableFuture<String> future = isPlaceholderAPILoaded() ? placeholderAPIHook.replacePlaceholdersAsync(player, message) : CompletableFuture.completedFuture(message);
+
+		if (isMVdWPlaceholderAPILoaded())
+			future = future.thenApplyAsync(partial -> MVdWPlaceholderHook.replacePlaceholders(player, partial), Common::runLater);
+
+		return future;
+	}
+
+	/**
+	 * Set which PlaceholderAPI expansions are safe to call off the main thread
+	 * in {@link #replacePlaceholdersAsync(Player, String)}. Only list expansions
+	 * you know do not touch the Bukkit API in an unsafe way.
+	 *
+	 * @param identifiers the expansion identifiers, such as "player" or "vault"
+	 */
+	public static void setPlaceholderAPIThreadSafe(@NonNull final Collection<String> identifiers) {
+		if (isPlaceholderAPILoaded())
+			placeholderAPIHook.setThreadSafe(identifiers);
+	}
+
+	/**
+	 * Return how long each PlaceholderAPI expansion took to replace its variables,
+	 * by expansion identifier. Use this to find slow expansions.
+	 *
+	 * @return
+	 */
+	public static Map<String, LatencyHistogram> getPlaceholderAPILatencies() {
+		return isPlaceholderAPILoaded() ? placeholderAPIHook.getLatencies() : Collections.emptyMap();
+	}
+
 	/**
 	 * Uses PlaceholderAPI to replace relation placeholders in a message
 	 *
@@ -2077,6 +2129,27 @@ class VaultHook {
 
 class PlaceholderAPIHook {
 
+	/**
+	 * How long a single expansion may take before the watchdog stops it
+	 */
+	private static final long REQUEST_LIMIT_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+	/**
+	 * How long we may spend replacing variables in one message, variables left
+	 * after this budget runs out are not replaced
+	 */
+	private static final long MESSAGE_BUDGET_NANOS = TimeUnit.MILLISECONDS.toNanos(250);
+
+	/**
+	 * Identifiers of expansions known to be safe to call off the main thread
+	 */
+	private static final Set<String> threadSafeExpansions = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * How long each expansion took to replace its variables, by identifier
+	 */
+	private static final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+
 	private static volatile VariablesInjector injector;
 
 	PlaceholderAPIHook() {
@@ -2097,11 +2170,43 @@ class PlaceholderAPIHook {
 			} catch (final Throwable t) {
 				// Silence, probably plugin got removed in the meantime
 			}
+
+		Watchdog.stopThread();
+	}
+
+	final void setThreadSafe(final Collection<String> identifiers) {
+		threadSafeExpansions.clear();
+
+		for (final String identifier : identifiers)
+			threadSafeExpansions.add(identifier.toLowerCase());
+	}
+
+	final Map<String, LatencyHistogram> getLatencies() {
+		return Collections.unmodifiableMap(latencies);
 	}
 
 	final String replacePlaceholders(final Player pl, final String msg) {
+		return this.replacePlaceholders(pl, msg, identifier -> true);
+	}
+
+	/*
+	 * Resolve thread-safe expansions on an async task, then the rest on the main thread if any is left
+	 */
+	final CompletableFuture<String> replacePlaceholdersAsync(final Player pl, final String msg) {
+		return CompletableFuture
+				.supplyAsync(() -> this.replacePlaceholders(pl, msg, threadSafeExpansions::contains), Common::runAsync)
+				.thenCompose(partial -> this.hasPlaceholders(partial, identifier -> !threadSafeExpansions.contains(identifier))
+						? CompletableFuture.supplyAsync(() -> this.replacePlaceholders(pl, partial), Common::runLater)
+						: CompletableFuture.completedFuture(partial));
+	}
+
+	private String replacePlaceholders(final Player pl, final String msg, final Predicate<String> identifierFilter) {
 		try {
-			return setPlaceholders(pl, msg);
+			return setPlaceholders(pl, msg, identifierFilter);
+
+		} catch (final ThreadDeath death) {
+			// Interrupted by our watchdog which already told the console
+			return msg;
 
 		} catch (final Throwable t) {
 			Common.error(t,
@@ -2114,13 +2219,43 @@ class PlaceholderAPIHook {
 		}
 	}
 
-	private String setPlaceholders(final Player player, String text) {
+	/*
+	 * Return true if the message has a variable of a loaded expansion matching the filter
+	 */
+	private boolean hasPlaceholders(final String text, final Predicate<String> identifierFilter) {
+		final Map<String, PlaceholderHook> hooks = PlaceholderAPI.getPlaceholders();
+		final Matcher matcher = Variables.BRACKET_PLACEHOLDER_PATTERN.matcher(text);
+
+		while (matcher.find()) {
+			final String format = matcher.group(1);
+			final int start = format.startsWith("+") ? 1 : 0;
+			final int index = format.indexOf("_", start);
+
+			if (index > start) {
+				final String identifier = format.substring(start, index);
+
+				if (hooks.containsKey(identifier) && identifierFilter.test(identifier))
+					return true;
+			}
+		}
+
+		return false;
+	}
+
+	/*
+	 * Replace variables in one pass, copying the message into a builder only when something is replaced
+	 */
+	private String setPlaceholders(final Player player, final String text, final Predicate<String> identifierFilter) {
 		final Map<String, PlaceholderHook> hooks = PlaceholderAPI.getPlaceholders();
 
 		if (hooks.isEmpty())
 			return text;
 
 		final Matcher matcher = Variables.BRACKET_PLACEHOLDER_PATTERN.matcher(text);
+		final long startNanos = System.nanoTime();
+
+		StringBuilder builder = null;
+		int lastEnd = 0;
 
 		while (matcher.find()) {
 			String format = matcher.group(1);
@@ -2145,42 +2280,251 @@ class PlaceholderAPIHook {
 				continue;
 
 			final String identifier = format.substring(0, index);
-			final String params = format.substring(index + 1);
+			final PlaceholderHook hook = hooks.get(identifier);
 
-			if (hooks.containsKey(identifier)) {
+			if (hook == null || !identifierFilter.test(identifier))
+				continue;
+
+			if (System.nanoTime() - startNanos > MESSAGE_BUDGET_NANOS) {
+				Debugger.debug("placeholderapi", "Replacing variables took over " + TimeUnit.NANOSECONDS.toMillis(MESSAGE_BUDGET_NANOS) + " ms, leaving the rest untouched in: " + text);
+
+				break;
+			}
+
+			String value = this.request(hook, identifier, player, format.substring(index + 1));
 
-				// Wait 0.5 seconds then kill the thread to prevent server
-				// crashing on PlaceholderAPI variables hanging up on the main thread
-				final Thread currentThread = Thread.currentThread();
-				final BukkitTask watchDog = Common.runLater(20, () -> {
+			if (value != null) {
+				value = Common.colorize(value);
+
+				if (builder == null)
+					builder = new StringBuilder(text.length() + 16);
+
+				builder.append(text, lastEnd, matcher.start());
+
+				if (!value.isEmpty())
+					builder.append(frontSpace ? " " : "").append(value).append(backSpace ? " " : "");
+
+				lastEnd = matcher.end();
+			}
+		}
+
+		if (builder == null)
+			return text;
+
+		return builder.append(text, lastEnd, text.length()).toString();
+	}
+
+	/*
+	 * Ask the expansion for the value under the watchdog and record how long it took
+	 */
+	private String request(final PlaceholderHook hook, final String identifier, final Player player, final String params) {
+		final Watchdog.Watch watch = Watchdog.start(identifier, player);
+
+		try {
+			return hook.onRequest(player, params);
+
+		} finally {
+			final long tookNanos = watch.stop();
+
+			latencies.computeIfAbsent(identifier, key -> new LatencyHistogram()).record(tookNanos);
+		}
+	}
+
+	/**
+	 * One shared thread stopping expansions hanging for longer than {@link PlaceholderAPIHook#REQUEST_LIMIT_NANOS}
+	 * off the main thread to prevent the server from crashing, instead of scheduling one task per variable.
+	 * <p>
+	 * Calls on the main thread are never stopped since that could leave the server half-updated,
+	 * we only warn about them.
+	 */
+	private static final class Watchdog {
+
+		/**
+		 * Watches of all threads that replaced variables, dead threads are removed
+		 */
+		private static final Set<Watch> watches = ConcurrentHashMap.newKeySet();
+
+		/**
+		 * The watch reused by the current thread
+		 */
+		private static final ThreadLocal<Watch> currentWatch = ThreadLocal.withInitial(() -> {
+			final Watch watch = new Watch(Thread.currentThread(), Bukkit.isPrimaryThread());
+
+			watches.add(watch);
+
+			return watch;
+		});
+
+		/**
+		 * The watchdog thread, or null if not yet started or stopped
+		 */
+		private static volatile Thread thread;
+
+		/*
+		 * Start watching the current thread
+		 */
+		static Watch start(final String identifier, final Player player) {
+			final Watch watch = currentWatch.get();
+
+			if (thread == null)
+				startThread();
+
+			watch.identifier = identifier;
+			watch.playerName = player == null ? "" : player.getName();
+			watch.startNanos = System.nanoTime();
+			watch.watching = true;
+
+			return watch;
+		}
+
+		/*
+		 * Start the watchdog thread if not yet running
+		 */
+		private static synchronized void startThread() {
+			if (thread != null && thread.isAlive())
+				return;
+
+			thread = new Thread(Watchdog::run, "Foundation PlaceholderAPI Watchdog");
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		/*
+		 * Interrupt the watchdog thread and forget the watch of the calling thread
+		 * so that neither outlives the plugin, the thread is started again on the next variable
+		 */
+		static synchronized void stopThread() {
+			if (thread != null) {
+				thread.interrupt();
+
+				thread = null;
+			}
+
+			watches.removeIf(watch -> watch.thread == Thread.currentThread());
+			currentWatch.remove();
+		}
+
+		/*
+		 * Check all watches every 100ms
+		 */
+		private static void run() {
+			while (!Thread.currentThread().isInterrupted()) {
+				try {
+					Thread.sleep(100);
+
+				} catch (final InterruptedException ex) {
+					break;
+				}
+
+				final long now = System.nanoTime();
+
+				for (final Watch watch : watches)
+					if (!watch.thread.isAlive())
+						watches.remove(watch);
+
+					else if (watch.isRunningLongerThan(now, REQUEST_LIMIT_NANOS))
+						watch.interrupt();
+			}
+		}
+
+		/**
+		 * Tracks the variable a thread is currently replacing
+		 */
+		@RequiredArgsConstructor
+		static final class Watch {
+
+			/**
+			 * The watched thread
+			 */
+			private final Thread thread;
+
+			/**
+			 * True if the watched thread is the main server thread
+			 */
+			private final boolean primaryThread;
+
+			/**
+			 * The expansion being called
+			 */
+			private volatile String identifier;
+
+			/**
+			 * The player the variable is replaced for
+			 */
+			private volatile String playerName;
+
+			/**
+			 * When the last call started
+			 */
+			private volatile long startNanos;
+
+			/**
+			 * True while the thread is calling an expansion
+			 */
+			private volatile boolean watching;
+
+			/*
+			 * Mark the call as done and return how long it took
+			 */
+			synchronized long stop() {
+				this.watching = false;
+
+				return System.nanoTime() - this.startNanos;
+			}
+
+			/*
+			 * Return true if the thread is calling an expansion for longer than the given limit
+			 */
+			private boolean isRunningLongerThan(final long now, final long limitNanos) {
+				return this.watching && now - this.startNanos > limitNanos;
+			}
+
+			/*
+			 * Kill the call, or only warn if on the main thread, synchronized so it cannot happen after stop()
+			 */
+			@SuppressWarnings("deprecation")
+			private synchronized void interrupt() {
+				if (!this.watching)
+					return;
+
+				this.watching = false;
+
+				// Killing the main thread at a random point could leave the server half-updated
+				if (this.primaryThread) {
 					Common.logFramed(
-							"IMPORTANT: PREVENTED SERVER CRASH FROM PLACEHOLDERAPI",
+							"WARNING: PLACEHOLDERAPI IS FREEZING YOUR SERVER",
 							"Replacing a variable using PlaceholderAPI took",
-							"longer than our maximum limit (1 second) and",
-							"was forcefully interrupted to prevent your",
-							"server from crashing. This is not error on",
-							"our end, please contact the expansion author.",
+							"longer than our maximum limit (1 second) on",
+							"the main thread. We cannot safely interrupt it",
+							"so your server will hang until it finishes.",
+							"This is not error on our end, please contact",
+							"the expansion author.",
 							"",
-							"Variable: " + identifier,
-							"Player: " + player.getName());
-
-					currentThread.stop();
-				});
+							"Variable: " + this.identifier,
+							"Player: " + this.playerName);
 
-				String value = hooks.get(identifier).onRequest(player, params);
+					return;
+				}
 
-				// Indicate we no longer have to kill the thread
-				watchDog.cancel();
+				Common.logFramed(
+						"IMPORTANT: PREVENTED SERVER CRASH FROM PLACEHOLDERAPI",
+						"Replacing a variable using PlaceholderAPI took",
+						"longer than our maximum limit (1 second) and",
+						"was forcefully interrupted to prevent your",
+						"server from crashing. This is not error on",
+						"our end, please contact the expansion author.",
+						"",
+						"Variable: " + this.identifier,
+						"Player: " + this.playerName);
 
-				if (value != null) {
-					value = Matcher.quoteReplacement(Common.colorize(value));
+				try {
+					this.thread.stop();
 
-					text = text.replaceAll(Pattern.quote(matcher.group()), value.isEmpty() ? "" : (frontSpace ? " " : "") + value + (backSpace ? " " : ""));
+				} catch (final UnsupportedOperationException ex) {
+					// Java 20+ can no longer stop threads, at least we told the console
 				}
 			}
 		}
-
-		return text;
 	}
 
 	final String replaceRelationPlaceholders(final Player one, final Player two, final String message) {
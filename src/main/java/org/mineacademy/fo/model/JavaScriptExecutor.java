@@ -1,13 +1,21 @@
 package org.mineacademy.fo.model;
 
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Matcher;
 
+import javax.script.Bindings;
+import javax.script.Compilable;
+import javax.script.CompiledScript;
 import javax.script.ScriptContext;
 import javax.script.ScriptEngine;
 import javax.script.ScriptEngineFactory;
@@ -20,6 +28,7 @@ import org.bukkit.event.Event;
 import org.mineacademy.fo.Common;
 import org.mineacademy.fo.ReflectionUtil;
 import org.mineacademy.fo.collection.expiringmap.ExpiringMap;
+import org.mineacademy.fo.debug.LatencyHistogram;
 import org.mineacademy.fo.exception.EventHandledException;
 import org.mineacademy.fo.plugin.SimplePlugin;
 import org.mineacademy.fo.remain.Remain;
@@ -31,14 +40,51 @@ import lombok.NonNull;
  * <p>
  * The code is based off JavaScript with new Java methods, see:
  * https://winterbe.com/posts/2014/04/05/java8-nashorn-tutorial/
+ * <p>
+ * Scripts are compiled once and cached by their code. Engines are borrowed from
+ * a small pool for each evaluation, so scripts can also be run off the main thread
+ * such as in async chat.
  */
 public final class JavaScriptExecutor {
 
 	/**
-	 * The engine singleton
+	 * How many compiled scripts each engine keeps, least recently used are removed first
+	 */
+	private static final int COMPILED_CACHE_SIZE = 500;
+
+	/**
+	 * How many idle engines are kept for reuse, more are created when all are in use
+	 */
+	private static final int ENGINE_POOL_SIZE = 4;
+
+	/**
+	 * The engine singleton, used to tell if JavaScript is available
+	 * and to create pooled engines
 	 */
 	private static final ScriptEngine engine;
 
+	/**
+	 * Idle engines with their compiled scripts. An engine is only used by one thread
+	 * at once, and unlike a thread local nothing outside of this plugin holds them,
+	 * so they are released with the plugin on reload
+	 */
+	private static final BlockingQueue<PooledEngine> idleEngines = new ArrayBlockingQueue<>(ENGINE_POOL_SIZE);
+
+	/**
+	 * How many times we found a compiled script in the cache
+	 */
+	private static final LongAdder cacheHits = new LongAdder();
+
+	/**
+	 * How many times we had to compile a script
+	 */
+	private static final LongAdder cacheMisses = new LongAdder();
+
+	/**
+	 * How long scripts took to evaluate, including compiling them
+	 */
+	private static final LatencyHistogram evalLatency = new LatencyHistogram();
+
 	/**
 	 * Cache scripts for 1 second per player for highest performance
 	 * <p>
@@ -147,13 +193,13 @@ public final class JavaScriptExecutor {
 		}
 
 		try {
-			engine.getBindings(ScriptContext.ENGINE_SCOPE).clear();
+			final Map<String, Object> variables = new HashMap<>();
 
 			if (sender != null)
-				engine.put("player", sender);
+				variables.put("player", sender);
 
 			if (event != null)
-				engine.put("event", event);
+				variables.put("event", event);
 
 			if (sender instanceof DiscordSender) {
 				final Matcher matcher = Variables.BRACKET_PLACEHOLDER_PATTERN.matcher(javascript);
@@ -166,11 +212,11 @@ public final class JavaScriptExecutor {
 				}
 			}
 
-			final Object result = engine.eval(javascript);
+			final Object result = eval(javascript, variables);
 
 			if (sender instanceof Player) {
 				if (cached == null)
-					cached = new HashMap<>();
+					cached = Collections.synchronizedMap(new HashMap<>());
 
 				cached.put(javascript, result);
 				resultCache.put(((Player) sender).getUniqueId(), cached);
@@ -220,16 +266,135 @@ public final class JavaScriptExecutor {
 		}
 
 		try {
-			engine.getBindings(ScriptContext.ENGINE_SCOPE).clear();
-
-			if (replacements != null)
-				for (final Map.Entry<String, Object> replacement : replacements.entrySet())
-					engine.put(replacement.getKey(), replacement.getValue());
-
-			return engine.eval(javascript);
+			return eval(javascript, replacements);
 
 		} catch (final ScriptException ex) {
 			throw new RuntimeException("Script execution failed for '" + javascript + "'", ex);
 		}
 	}
+
+	/*
+	 * Evaluate the script with the given variables on an engine from the pool
+	 */
+	private static Object eval(final String javascript, final Map<String, Object> variables) throws ScriptException {
+		final long startNanos = System.nanoTime();
+		PooledEngine pooled = idleEngines.poll();
+
+		if (pooled == null)
+			pooled = new PooledEngine(newEngine());
+
+		try {
+			return pooled.eval(javascript, variables);
+
+		} finally {
+			idleEngines.offer(pooled);
+			evalLatency.recordSince(startNanos);
+		}
+	}
+
+	/*
+	 * Create a new engine like the singleton
+	 */
+	private static ScriptEngine newEngine() {
+		final ScriptEngineFactory factory = engine.getFactory();
+		final Thread thread = Thread.currentThread();
+		final ClassLoader previousLoader = thread.getContextClassLoader();
+
+		thread.setContextClassLoader(SimplePlugin.class.getClassLoader());
+
+		try {
+			return factory.getScriptEngine();
+
+		} finally {
+			thread.setContextClassLoader(previousLoader);
+		}
+	}
+
+	/**
+	 * Return how many times a script was found compiled in the cache
+	 *
+	 * @return
+	 */
+	public static long getCacheHits() {
+		return cacheHits.sum();
+	}
+
+	/**
+	 * Return how many times a script had to be compiled
+	 *
+	 * @return
+	 */
+	public static long getCacheMisses() {
+		return cacheMisses.sum();
+	}
+
+	/**
+	 * Return how long scripts took to evaluate, including compiling
+	 * those not found in the cache
+	 *
+	 * @return
+	 */
+	public static LatencyHistogram getEvalLatency() {
+		return evalLatency;
+	}
+
+	/**
+	 * An engine from the pool with the scripts it compiled
+	 */
+	private static final class PooledEngine {
+
+		/**
+		 * The engine
+		 */
+		private final ScriptEngine engine;
+
+		/**
+		 * Compiled scripts by their code
+		 */
+		private final Map<String, CompiledScript> compiledScripts = new LinkedHashMap<String, CompiledScript>(16, 0.75F, true) {
+
+			private static final long serialVersionUID = 1L;
+
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<String, CompiledScript> eldest) {
+				return this.size() > COMPILED_CACHE_SIZE;
+			}
+		};
+
+		private PooledEngine(ScriptEngine engine) {
+			this.engine = engine;
+		}
+
+		/*
+		 * Evaluate the compiled script with the given variables, compiling it first if not cached.
+		 * Variables of the previous evaluation are cleared from the engine scope first
+		 */
+		private Object eval(String javascript, Map<String, Object> variables) throws ScriptException {
+			final Bindings bindings = this.engine.getBindings(ScriptContext.ENGINE_SCOPE);
+
+			bindings.clear();
+
+			if (variables != null)
+				bindings.putAll(variables);
+
+			if (!(this.engine instanceof Compilable)) {
+				cacheMisses.increment();
+
+				return this.engine.eval(javascript);
+			}
+
+			CompiledScript compiled = this.compiledScripts.get(javascript);
+
+			if (compiled == null) {
+				cacheMisses.increment();
+
+				compiled = ((Compilable) this.engine).compile(javascript);
+				this.compiledScripts.put(javascript, compiled);
+
+			} else
+				cacheHits.increment();
+
+			return compiled.eval();
+		}
+	}
 }
\ No newline at end of file
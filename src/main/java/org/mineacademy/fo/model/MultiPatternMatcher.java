@@ -0,0 +1,526 @@
+package org.mineacademy.fo.model;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.function.BiPredicate;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+import org.mineacademy.fo.Common;
+
+import lombok.NonNull;
+
+/**
+ * Matches a message against many regular expressions at once, such as rules
+ * in a chat filter, and tells which of them matched.
+ * <p>
+ * The message is stripped of colors and accents once, see {@link Common#normalizeRegexInput(String)}.
+ * Most expressions begin with plain text, such as "fu" in "fu+ck", and we find those
+ * present in the message in a single pass, then only run expressions whose text was found.
+ * Expressions without such text are joined into alternations so that they are
+ * tested together and only run one by one when the alternation matches.
+ * <p>
+ * Patterns are compiled with {@link Common#compilePattern(String)}, so they
+ * follow your plugin's regex settings.
+ *
+ * @param <T> what identifies each expression, such as a rule
+ */
+public final class MultiPatternMatcher<T> {
+
+	/**
+	 * Expressions beginning with shorter text are not worth filtering
+	 */
+	private static final int MIN_LITERAL_LENGTH = 2;
+
+	/**
+	 * How many expressions without text are joined into one alternation
+	 */
+	private static final int GROUP_SIZE = 16;
+
+	/**
+	 * What identifies each expression
+	 */
+	private final List<T> ids;
+
+	/**
+	 * The compiled expressions
+	 */
+	private final Pattern[] patterns;
+
+	/**
+	 * Prepares messages before matching, such as stripping colors
+	 */
+	private final UnaryOperator<String> normalizer;
+
+	/**
+	 * Returns true if the pattern is found in the normalized message
+	 */
+	private final BiPredicate<Pattern, String> finder;
+
+	/**
+	 * Whether patterns ignore case, so we ignore it when finding their text
+	 */
+	private final boolean caseInsensitive;
+
+	/**
+	 * The root of the automaton finding the beginning text of expressions
+	 */
+	private final LiteralNode literals = new LiteralNode();
+
+	/**
+	 * Expressions that need to be run for every message
+	 */
+	private final BitSet unfiltered = new BitSet();
+
+	/**
+	 * Alternations of expressions without beginning text
+	 */
+	private final List<PatternGroup> groups = new ArrayList<>();
+
+	/**
+	 * Create a new matcher for the given expressions, each identified by itself
+	 *
+	 * @param expressions
+	 * @return
+	 */
+	public static MultiPatternMatcher<String> of(@NonNull final Iterable<?> expressions) {
+		final Map<String, String> map = new LinkedHashMap<>();
+
+		for (final Object expression : expressions)
+			map.put(String.valueOf(expression), String.valueOf(expression));
+
+		return new MultiPatternMatcher<>(map);
+	}
+
+	/**
+	 * Create a new matcher for the given rules such as those loaded by {@link RuleSetReader},
+	 * matching the expression each rule is identified by, see {@link Rule#getUid()}
+	 *
+	 * @param <R>
+	 * @param rules
+	 * @return
+	 */
+	public static <R extends Rule> MultiPatternMatcher<R> ofRules(@NonNull final Iterable<R> rules) {
+		final Map<R, String> map = new LinkedHashMap<>();
+
+		for (final R rule : rules)
+			map.put(rule, rule.getUid());
+
+		return new MultiPatternMatcher<>(map);
+	}
+
+	/**
+	 * Create a new matcher for the given expressions by what identifies them.
+	 * Matches are reported in the order of the map.
+	 *
+	 * @param expressions
+	 */
+	public MultiPatternMatcher(@NonNull final Map<T, String> expressions) {
+		this(compileAll(expressions), Common::normalizeRegexInput, (pattern, normalized) -> Common.regExMatch(Common.compileNormalizedMatcher(pattern, normalized)));
+	}
+
+	/**
+	 * Create a new matcher for the given compiled expressions by what identifies them,
+	 * preparing messages and running expressions with the given functions instead of
+	 * following your plugin's regex settings
+	 *
+	 * @param patterns
+	 * @param normalizer
+	 * @param finder
+	 */
+	MultiPatternMatcher(@NonNull final Map<T, Pattern> patterns, @NonNull final UnaryOperator<String> normalizer, @NonNull final BiPredicate<Pattern, String> finder) {
+		this.ids = new ArrayList<>(patterns.keySet());
+		this.patterns = patterns.values().toArray(new Pattern[patterns.size()]);
+		this.normalizer = normalizer;
+		this.finder = finder;
+		this.caseInsensitive = this.patterns.length > 0 && (this.patterns[0].flags() & Pattern.CASE_INSENSITIVE) != 0;
+
+		final List<Integer> groupable = new ArrayList<>();
+
+		for (int i = 0; i < this.patterns.length; i++) {
+			final String regex = this.patterns[i].pattern();
+			final String literal = getLiteralPrefix(regex);
+
+			if (literal.length() >= MIN_LITERAL_LENGTH)
+				this.addLiteral(literal, i);
+
+			else if (isGroupable(regex))
+				groupable.add(i);
+
+			else
+				this.unfiltered.set(i);
+		}
+
+		this.buildFailureLinks();
+
+		for (int from = 0; from < groupable.size(); from += GROUP_SIZE)
+			this.addGroup(groupable.subList(from, Math.min(from + GROUP_SIZE, groupable.size())));
+	}
+
+	/*
+	 * Compile the expressions following the plugin's regex settings
+	 */
+	private static <T> Map<T, Pattern> compileAll(final Map<T, String> expressions) {
+		final Map<T, Pattern> patterns = new LinkedHashMap<>();
+
+		for (final Map.Entry<T, String> entry : expressions.entrySet())
+			patterns.put(entry.getKey(), Common.compilePattern(entry.getValue()));
+
+		return patterns;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Matching
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * Return true if any expression matches the message
+	 *
+	 * @param message
+	 * @return
+	 */
+	public boolean matchesAny(final String message) {
+		return this.match(message, null);
+	}
+
+	/**
+	 * Return what identifies all expressions matching the message, in their order
+	 *
+	 * @param message
+	 * @return
+	 */
+	public List<T> findMatches(final String message) {
+		final BitSet matched = new BitSet(this.patterns.length);
+
+		if (!this.match(message, matched))
+			return Collections.emptyList();
+
+		final List<T> matches = new ArrayList<>(matched.cardinality());
+
+		for (int i = matched.nextSetBit(0); i >= 0; i = matched.nextSetBit(i + 1))
+			matches.add(this.ids.get(i));
+
+		return matches;
+	}
+
+	/**
+	 * Return how many expressions there are
+	 *
+	 * @return
+	 */
+	public int size() {
+		return this.patterns.length;
+	}
+
+	/*
+	 * Return true if any expression matches, stopping at the first one unless we collect them all
+	 */
+	private boolean match(final String message, final BitSet matched) {
+		if (this.patterns.length == 0)
+			return false;
+
+		final String normalized = this.normalizer.apply(message);
+		final BitSet candidates = this.findCandidates(normalized);
+
+		boolean found = false;
+
+		candidates.or(this.unfiltered);
+
+		for (int i = candidates.nextSetBit(0); i >= 0; i = candidates.nextSetBit(i + 1))
+			if (this.matches(this.patterns[i], normalized)) {
+				if (matched == null)
+					return true;
+
+				matched.set(i);
+				found = true;
+			}
+
+		for (final PatternGroup group : this.groups)
+			if (this.matches(group.pattern, normalized))
+				for (final int i : group.members)
+					if (this.matches(this.patterns[i], normalized)) {
+						if (matched == null)
+							return true;
+
+						matched.set(i);
+						found = true;
+					}
+
+		return found;
+	}
+
+	/*
+	 * Run the pattern on the normalized message
+	 */
+	private boolean matches(final Pattern pattern, final String normalized) {
+		return this.finder.test(pattern, normalized);
+	}
+
+	/*
+	 * Return expressions whose beginning text is in the message
+	 */
+	private BitSet findCandidates(final String message) {
+		final BitSet candidates = new BitSet(this.patterns.length);
+		LiteralNode node = this.literals;
+
+		for (int i = 0; i < message.length(); i++) {
+			final char c = this.fold(message.charAt(i));
+			LiteralNode next;
+
+			while ((next = node.children.get(c)) == null && node != this.literals)
+				node = node.failure;
+
+			if (next != null)
+				node = next;
+
+			for (final int expression : node.expressions)
+				candidates.set(expression);
+		}
+
+		return candidates;
+	}
+
+	/*
+	 * Ignore case the same way patterns do when they are case insensitive
+	 */
+	private char fold(final char c) {
+		return this.caseInsensitive ? Character.toLowerCase(Character.toUpperCase(c)) : c;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Building
+	// ------------------------------------------------------------------------------------------------------------
+
+	/*
+	 * Add the beginning text of the expression to the automaton
+	 */
+	private void addLiteral(final String literal, final int expression) {
+		LiteralNode node = this.literals;
+
+		for (int i = 0; i < literal.length(); i++)
+			node = node.children.computeIfAbsent(this.fold(literal.charAt(i)), key -> new LiteralNode());
+
+		node.expressions = Arrays.copyOf(node.expressions, node.expressions.length + 1);
+		node.expressions[node.expressions.length - 1] = expression;
+	}
+
+	/*
+	 * Link each node to the longest suffix of its text that is also in the automaton,
+	 * and add expressions of that suffix to the node
+	 */
+	private void buildFailureLinks() {
+		final Queue<LiteralNode> queue = new ArrayDeque<>();
+
+		for (final LiteralNode child : this.literals.children.values()) {
+			child.failure = this.literals;
+			queue.add(child);
+		}
+
+		while (!queue.isEmpty()) {
+			final LiteralNode node = queue.poll();
+
+			for (final Map.Entry<Character, LiteralNode> entry : node.children.entrySet()) {
+				final char c = entry.getKey();
+				final LiteralNode child = entry.getValue();
+				LiteralNode failure = node.failure;
+
+				while (failure != this.literals && !failure.children.containsKey(c))
+					failure = failure.failure;
+
+				final LiteralNode suffix = failure.children.get(c);
+				child.failure = suffix != null && suffix != child ? suffix : this.literals;
+
+				if (child.failure.expressions.length > 0) {
+					final int[] merged = Arrays.copyOf(child.expressions, child.expressions.length + child.failure.expressions.length);
+
+					System.arraycopy(child.failure.expressions, 0, merged, child.expressions.length, child.failure.expressions.length);
+					child.expressions = merged;
+				}
+
+				queue.add(child);
+			}
+		}
+	}
+
+	/*
+	 * Join the expressions into one alternation, or run them one by one if they cannot be joined
+	 */
+	private void addGroup(final List<Integer> members) {
+		final int[] indexes = new int[members.size()];
+		final StringBuilder alternation = new StringBuilder();
+
+		for (int i = 0; i < indexes.length; i++) {
+			indexes[i] = members.get(i);
+
+			alternation.append(i == 0 ? "" : "|").append("(?:").append(this.patterns[indexes[i]].pattern()).append(")");
+		}
+
+		try {
+			this.groups.add(new PatternGroup(Pattern.compile(alternation.toString(), this.patterns[indexes[0]].flags()), indexes));
+
+		} catch (final PatternSyntaxException ex) {
+			for (final int index : indexes)
+				this.unfiltered.set(index);
+		}
+	}
+
+	/*
+	 * Return the text every match of the expression begins with, or an empty string
+	 * if it does not begin with plain text or has alternatives at the top level
+	 */
+	private static String getLiteralPrefix(final String regex) {
+		if (hasTopLevelAlternation(regex))
+			return "";
+
+		final StringBuilder literal = new StringBuilder();
+		int index = regex.startsWith("^") ? 1 : 0;
+
+		// A word boundary matches no text, so the text after it is still in every match
+		if (regex.startsWith("\\b", index))
+			index += 2;
+
+		while (index < regex.length()) {
+			final char c = regex.charAt(index);
+			final char character;
+			final int next;
+
+			if (c == '\\') {
+
+				// Letters and digits after \ are classes, boundaries, quotes or back references
+				if (index + 1 >= regex.length() || Character.isLetterOrDigit(regex.charAt(index + 1)))
+					break;
+
+				character = regex.charAt(index + 1);
+				next = index + 2;
+
+			} else if (".[]()^$|?*+{}".indexOf(c) != -1)
+				break;
+
+			else {
+				character = c;
+				next = index + 1;
+			}
+
+			// Optional or counted, the text ends before it
+			if (next < regex.length() && "?*{".indexOf(regex.charAt(next)) != -1)
+				break;
+
+			literal.append(character);
+			index = next;
+
+			// Repeated, the text ends with it
+			if (next < regex.length() && regex.charAt(next) == '+')
+				break;
+		}
+
+		return literal.toString();
+	}
+
+	/*
+	 * Return true if the expression has | outside of groups and character classes
+	 */
+	private static boolean hasTopLevelAlternation(final String regex) {
+		int depth = 0;
+		boolean inClass = false;
+
+		for (int i = 0; i < regex.length(); i++) {
+			final char c = regex.charAt(i);
+
+			if (c == '\\')
+				i++;
+
+			else if (inClass) {
+				if (c == ']')
+					inClass = false;
+
+			} else if (c == '[')
+				inClass = true;
+
+			else if (c == '(')
+				depth++;
+
+			else if (c == ')')
+				depth--;
+
+			else if (c == '|' && depth == 0)
+				return true;
+		}
+
+		return false;
+	}
+
+	/*
+	 * Return true if the expression keeps its meaning inside an alternation,
+	 * which is not the case for back references and named groups
+	 */
+	private static boolean isGroupable(final String regex) {
+		for (int i = 0; i < regex.length() - 1; i++)
+			if (regex.charAt(i) == '\\') {
+				final char next = regex.charAt(i + 1);
+
+				if (Character.isDigit(next) || next == 'k' || next == 'Q')
+					return false;
+
+				i++;
+
+			} else if (regex.startsWith("(?<", i) && i + 3 < regex.length() && Character.isLetter(regex.charAt(i + 3)))
+				return false;
+
+		return true;
+	}
+
+	// ------------------------------------------------------------------------------------------------------------
+	// Classes
+	// ------------------------------------------------------------------------------------------------------------
+
+	/**
+	 * A node of the automaton finding beginning text of expressions
+	 */
+	private static final class LiteralNode {
+
+		/**
+		 * Next nodes by the next character
+		 */
+		private final Map<Character, LiteralNode> children = new HashMap<>();
+
+		/**
+		 * The node to continue from when the next character has no node
+		 */
+		private LiteralNode failure;
+
+		/**
+		 * Expressions whose beginning text ends at this node
+		 */
+		private int[] expressions = new int[0];
+	}
+
+	/**
+	 * Expressions joined into one alternation
+	 */
+	private static final class PatternGroup {
+
+		/**
+		 * The alternation
+		 */
+		private final Pattern pattern;
+
+		/**
+		 * Indexes of the joined expressions
+		 */
+		private final int[] members;
+
+		private PatternGroup(final Pattern pattern, final int[] members) {
+			this.pattern = pattern;
+			this.members = members;
+		}
+	}
+}
@@ -1,27 +1,51 @@
 package org.mineacademy.fo.model;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.File;
+import java.io.FileInputStream;
 import java.io.FilenameFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.Arrays;
 import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Chunk;
 import org.bukkit.World;
 import org.bukkit.scheduler.BukkitRunnable;
 import org.mineacademy.fo.Common;
+import org.mineacademy.fo.MathUtil;
 import org.mineacademy.fo.MinecraftVersion;
 import org.mineacademy.fo.MinecraftVersion.V;
 import org.mineacademy.fo.ReflectionUtil;
 import org.mineacademy.fo.ReflectionUtil.ReflectionException;
+import org.mineacademy.fo.collection.expiringmap.NamedThreadFactory;
+import org.mineacademy.fo.debug.Debugger;
 import org.mineacademy.fo.event.RegionScanCompleteEvent;
 import org.mineacademy.fo.plugin.SimplePlugin;
 import org.mineacademy.fo.remain.Remain;
+import org.mineacademy.fo.remain.nbt.NBTCompound;
+import org.mineacademy.fo.remain.nbt.NBTContainer;
 
 import lombok.Getter;
 import lombok.Setter;
@@ -47,16 +71,72 @@ public abstract class OfflineRegionScanner {
 	 */
 	private static int WAIT_TIME_BETWEEN_SCAN_SECONDS = 1;
 
+	/**
+	 * The size of one region file sector in bytes, the first two hold the chunk locations and timestamps
+	 */
+	private static final int SECTOR_BYTES = 4096;
+
+	/**
+	 * How long we may run tasks from {@link #runOnMainThread(Runnable)} each tick
+	 */
+	private static final long MAIN_THREAD_BUDGET_NANOS = 20_000_000;
+
+	/**
+	 * When this many tasks wait for the main thread, workers pause reading
+	 */
+	private static final int MAX_QUEUED_MAIN_THREAD_TASKS = 10_000;
+
+	/**
+	 * Milliseconds between progress messages in parallel mode
+	 */
+	private static final long PROGRESS_INTERVAL_MILLIS = 5_000;
+
 	/**
 	 * Changing flag: How many files processed out of total?
 	 */
-	private int processedFilesCount = 0;
+	private final AtomicInteger processedFilesCount = new AtomicInteger();
 
 	/**
 	 * Changing flag: The total amount of region files to scan
 	 */
+	@Getter
 	private int totalFilesCount = 0;
 
+	/**
+	 * Changing flag: How many chunks were decoded in parallel mode
+	 */
+	private final LongAdder scannedChunksCount = new LongAdder();
+
+	/**
+	 * Changing flag: How many chunks could not be read in parallel mode
+	 */
+	private final LongAdder failedChunksCount = new LongAdder();
+
+	/**
+	 * Changing flag: How many bytes of region files were read in parallel mode
+	 */
+	private final LongAdder readBytes = new LongAdder();
+
+	/**
+	 * Changing flag: When the scan started
+	 */
+	private long startTime;
+
+	/**
+	 * Changing flag: Tasks workers want to run on the main thread in parallel mode
+	 */
+	private final Queue<Runnable> mainThreadTasks = new ConcurrentLinkedQueue<>();
+
+	/**
+	 * Changing flag: The amount of tasks in {@link #mainThreadTasks}
+	 */
+	private final AtomicInteger queuedMainThreadTasks = new AtomicInteger();
+
+	/**
+	 * Changing flag: The amount of region files workers did not finish yet in parallel mode
+	 */
+	private final AtomicInteger remainingFilesCount = new AtomicInteger();
+
 	/**
 	 * Changing flag: The world we are scanning
 	 */
@@ -82,6 +162,22 @@ public abstract class OfflineRegionScanner {
 	@Setter
 	private boolean fastMode = false;
 
+	/**
+	 * In parallel mode we read region files directly from the disk on {@link #threads} worker threads
+	 * and decode chunks there, calling {@link #onChunkScanAsync(int, int, NBTCompound)} instead of
+	 * loading them. Only tasks given to {@link #runOnMainThread(Runnable)} touch the main thread.
+	 *
+	 * {@link #fastMode} is ignored and the watchdog is not suspended in this mode.
+	 */
+	@Setter
+	private boolean parallelMode = false;
+
+	/**
+	 * How many worker threads read region files in parallel mode
+	 */
+	@Setter
+	private int threads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+
 	/**
 	 * Starts the scan for the given world (warning: this operation is blocking
 	 * and takes long time, see {@link #getEstimatedWaitTimeSec(World)})
@@ -111,7 +207,8 @@ public abstract class OfflineRegionScanner {
 				Common.consoleLine());
 
 		// Disable watch dog
-		disableWatchdog();
+		if (!this.parallelMode)
+			disableWatchdog();
 
 		// Collect files
 		final File[] files = getRegionFiles(world);
@@ -127,9 +224,13 @@ public abstract class OfflineRegionScanner {
 
 		this.totalFilesCount = files.length;
 		this.world = world;
+		this.startTime = System.currentTimeMillis();
 
 		// Start the schedule
-		schedule0(queue);
+		if (this.parallelMode)
+			scheduleParallel(files);
+		else
+			schedule0(queue);
 	}
 
 	/*
@@ -207,7 +308,7 @@ public abstract class OfflineRegionScanner {
 		final int regionX = Integer.parseInt(matcher.group(1));
 		final int regionZ = Integer.parseInt(matcher.group(2));
 
-		System.out.print("[" + Math.round((double) processedFilesCount++ / (double) totalFilesCount * 100) + "%] Processing " + file);
+		System.out.print("[" + Math.round((double) processedFilesCount.getAndIncrement() / (double) totalFilesCount * 100) + "%] Processing " + file);
 
 		// Calculate time, collect memory and increase pauses in between if running out of memory
 		if (System.currentTimeMillis() - lastTick > 4000) {
@@ -266,6 +367,302 @@ public abstract class OfflineRegionScanner {
 
 	}
 
+	// ------------------------------------------------------------------------------------------------------------
+	// Parallel mode
+	// ------------------------------------------------------------------------------------------------------------
+
+	/*
+	 * Read all files on a worker pool and process tasks for the main thread each tick until done
+	 */
+	private void scheduleParallel(File[] files) {
+		final ExecutorService workers = Executors.newFixedThreadPool(Math.max(1, this.threads), new NamedThreadFactory("Region Scanner %d"));
+
+		this.remainingFilesCount.set(files.length);
+
+		for (final File file : files)
+			workers.execute(() -> {
+				try {
+					this.scanFileParallel(file);
+
+				} catch (final Throwable t) {
+					Common.error(t, "Failed to scan region file " + file);
+
+				} finally {
+					this.processedFilesCount.incrementAndGet();
+					this.remainingFilesCount.decrementAndGet();
+				}
+			});
+
+		workers.shutdown();
+
+		new BukkitRunnable() {
+
+			private long lastProgress = System.currentTimeMillis();
+
+			@Override
+			public void run() {
+				final long start = System.nanoTime();
+				Runnable task;
+
+				while (System.nanoTime() - start < MAIN_THREAD_BUDGET_NANOS && (task = mainThreadTasks.poll()) != null) {
+					queuedMainThreadTasks.decrementAndGet();
+
+					try {
+						task.run();
+
+					} catch (final Throwable t) {
+						Common.error(t, "Failed to apply region scan changes in " + world.getName());
+					}
+				}
+
+				if (remainingFilesCount.get() == 0 && mainThreadTasks.isEmpty()) {
+					Common.log(
+							Common.consoleLine(),
+							"Region scanner finished. " + getProgress(),
+							Common.consoleLine());
+
+					Common.callEvent(new RegionScanCompleteEvent(world));
+
+					finishScan();
+					cancel();
+
+					return;
+				}
+
+				if (System.currentTimeMillis() - this.lastProgress > PROGRESS_INTERVAL_MILLIS) {
+					Common.log("Scanning regions in " + world.getName() + ": " + getProgress());
+
+					this.lastProgress = System.currentTimeMillis();
+				}
+			}
+		}.runTaskTimer(SimplePlugin.getInstance(), 1, 1);
+	}
+
+	/*
+	 * Read the region file through a memory map and decode each saved chunk
+	 */
+	private void scanFileParallel(File file) throws IOException {
+		final Matcher matcher = FILE_PATTERN.matcher(file.getName());
+
+		if (!matcher.matches())
+			return;
+
+		final int regionX = Integer.parseInt(matcher.group(1));
+		final int regionZ = Integer.parseInt(matcher.group(2));
+
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			final long size = channel.size();
+
+			// Empty or not yet written region
+			if (size < SECTOR_BYTES * 2)
+				return;
+
+			final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+
+			for (int index = 0; index < 1024; index++) {
+				final int location = buffer.getInt(index * 4);
+				final int sectorOffset = location >>> 8;
+
+				if (sectorOffset < 2 || (location & 0xFF) == 0)
+					continue;
+
+				final int chunkX = (index & 31) + (regionX << 5);
+				final int chunkZ = (index >> 5) + (regionZ << 5);
+
+				try {
+					final NBTCompound chunk = readChunk(buffer, size, (long) sectorOffset * SECTOR_BYTES, file.getParentFile(), chunkX, chunkZ);
+
+					if (chunk == null) {
+						this.failedChunksCount.increment();
+
+						continue;
+					}
+
+					this.awaitMainThreadCapacity();
+					this.onChunkScanAsync(chunkX, chunkZ, chunk);
+
+					this.scannedChunksCount.increment();
+
+				} catch (final InterruptedException ex) {
+					Thread.currentThread().interrupt();
+
+					return;
+
+				} catch (final Throwable t) {
+					this.failedChunksCount.increment();
+
+					Debugger.debug("region-scanner", "Failed to read chunk " + chunkX + " " + chunkZ + " in " + file + ": " + t);
+				}
+			}
+
+			this.readBytes.add(size);
+		}
+	}
+
+	/*
+	 * Decode the chunk stored at the given position, or return null if it is malformed or uses unsupported compression
+	 */
+	private NBTCompound readChunk(MappedByteBuffer buffer, long size, long start, File regionFolder, int chunkX, int chunkZ) throws IOException {
+		if (start + 5 > size)
+			return null;
+
+		// The length includes the compression byte after it
+		final int length = buffer.getInt((int) start);
+		final byte compression = buffer.get((int) start + 4);
+
+		final InputStream data;
+
+		// Chunks too big for the region are stored in their own file
+		if ((compression & 0x80) != 0) {
+			final File external = new File(regionFolder, "c." + chunkX + "." + chunkZ + ".mcc");
+
+			if (!external.exists())
+				return null;
+
+			data = new BufferedInputStream(new FileInputStream(external));
+			this.readBytes.add(external.length());
+
+		} else {
+			if (length <= 1 || start + 4 + length > size)
+				return null;
+
+			final byte[] bytes = new byte[length - 1];
+			final ByteBuffer slice = buffer.duplicate();
+
+			slice.position((int) start + 5);
+			slice.get(bytes);
+
+			data = new ByteArrayInputStream(bytes);
+		}
+
+		try (InputStream input = data) {
+			switch (compression & 0x7F) {
+
+				// GZip is what NBTCompressedStreamTools reads
+				case 1:
+					return new NBTContainer(input);
+
+				case 2:
+					return new NBTContainer(toGzip(new InflaterInputStream(input)));
+
+				case 3:
+					return new NBTContainer(toGzip(input));
+
+				default:
+					return null;
+			}
+		}
+	}
+
+	/*
+	 * Wrap raw NBT into a stored, not compressed GZip stream because the server can only read
+	 * compressed NBT from a stream
+	 */
+	private static InputStream toGzip(InputStream nbt) throws IOException {
+		final ByteArrayOutputStream bytes = new ByteArrayOutputStream(16 * 1024);
+
+		try (StoredGzipOutputStream gzip = new StoredGzipOutputStream(bytes)) {
+			final byte[] chunk = new byte[8192];
+			int read;
+
+			while ((read = nbt.read(chunk)) != -1)
+				gzip.write(chunk, 0, read);
+		}
+
+		return new ByteArrayInputStream(bytes.toByteArray());
+	}
+
+	/*
+	 * Pause the worker while the main thread is behind on our tasks
+	 */
+	private void awaitMainThreadCapacity() throws InterruptedException {
+		while (this.queuedMainThreadTasks.get() > MAX_QUEUED_MAIN_THREAD_TASKS)
+			Thread.sleep(50);
+	}
+
+	/**
+	 * Run the given task on the main thread, use this from {@link #onChunkScanAsync(int, int, NBTCompound)}
+	 * for changes that need the world. Tasks are run in batches each tick.
+	 *
+	 * @param task
+	 */
+	protected final void runOnMainThread(Runnable task) {
+		this.mainThreadTasks.add(task);
+		this.queuedMainThreadTasks.incrementAndGet();
+	}
+
+	/**
+	 * Return how many region files were processed so far
+	 *
+	 * @return
+	 */
+	public final int getProcessedFilesCount() {
+		return this.processedFilesCount.get();
+	}
+
+	/**
+	 * Return how many chunks were decoded so far in parallel mode
+	 *
+	 * @return
+	 */
+	public final long getScannedChunksCount() {
+		return this.scannedChunksCount.sum();
+	}
+
+	/**
+	 * Return how many chunks could not be read so far in parallel mode
+	 *
+	 * @return
+	 */
+	public final long getFailedChunksCount() {
+		return this.failedChunksCount.sum();
+	}
+
+	/**
+	 * Return how many chunks are decoded per second in parallel mode
+	 *
+	 * @return
+	 */
+	public final double getChunksPerSecond() {
+		final long elapsed = System.currentTimeMillis() - this.startTime;
+
+		return elapsed <= 0 ? 0 : this.scannedChunksCount.sum() * 1000D / elapsed;
+	}
+
+	/**
+	 * Return how many megabytes of region files are read per second in parallel mode
+	 *
+	 * @return
+	 */
+	public final double getMegabytesPerSecond() {
+		final long elapsed = System.currentTimeMillis() - this.startTime;
+
+		return elapsed <= 0 ? 0 : this.readBytes.sum() / 1_000_000D * 1000D / elapsed;
+	}
+
+	/*
+	 * Return a progress message with throughput
+	 */
+	private String getProgress() {
+		return this.getProcessedFilesCount() + "/" + this.totalFilesCount + " files, "
+				+ this.getScannedChunksCount() + " chunks (" + this.getFailedChunksCount() + " failed), "
+				+ MathUtil.formatOneDigit(this.getChunksPerSecond()) + " chunks/s, "
+				+ MathUtil.formatTwoDigits(this.getMegabytesPerSecond()) + " MB/s, "
+				+ this.queuedMainThreadTasks.get() + " pending changes";
+	}
+
+	/**
+	 * Called for each saved chunk off the main thread when {@link #parallelMode} is enabled,
+	 * with the chunk data as stored on the disk. Do not touch the world here,
+	 * use {@link #runOnMainThread(Runnable)} for that.
+	 *
+	 * @param chunkX
+	 * @param chunkZ
+	 * @param chunk
+	 */
+	protected void onChunkScanAsync(int chunkX, int chunkZ, NBTCompound chunk) {
+	}
+
 	/**
 	 * Called when a chunk is being scanned and loaded
 	 * ONLY CALLED WHEN FASTMODE IS NOT ENABLED (by default)
@@ -349,6 +746,18 @@ public abstract class OfflineRegionScanner {
 	}
 }
 
+/**
+ * A GZip stream that only stores data without compressing it
+ */
+class StoredGzipOutputStream extends GZIPOutputStream {
+
+	StoredGzipOutputStream(OutputStream out) throws IOException {
+		super(out);
+
+		this.def.setLevel(Deflater.NO_COMPRESSION);
+	}
+}
+
 /**
  * Reflection helper class for accessing region files
  */
@@ -0,0 +1,158 @@
+package org.mineacademy.fo.model;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+import org.mineacademy.fo.ChatUtil;
+import org.mineacademy.fo.Valid;
+
+/**
+ * Holds the last messages, such as chat history of a player for anti-spam,
+ * to quickly find if a new message is similar to any of them as measured by
+ * {@link ChatUtil#getSimilarityPercentage(String, String)}.
+ * <p>
+ * Messages are normalized with {@link ChatUtil#removeSimilarity(String)} once when added.
+ * Pairs that cannot be similar enough by their length or the letter pairs they contain
+ * are skipped, and the edit distance of others stops as soon as it is too large.
+ */
+public final class SimilarityIndex {
+
+	/**
+	 * How many messages are kept
+	 */
+	private final int capacity;
+
+	/**
+	 * The messages, newest first
+	 */
+	private final Deque<Entry> entries = new ArrayDeque<>();
+
+	/**
+	 * Create a new index keeping the given amount of last messages
+	 *
+	 * @param capacity
+	 */
+	public SimilarityIndex(int capacity) {
+		Valid.checkBoolean(capacity > 0, "Capacity must be positive, got " + capacity);
+
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Add a message, removing the oldest one if the index is full
+	 *
+	 * @param message
+	 */
+	public synchronized void add(String message) {
+		if (this.entries.size() >= this.capacity)
+			this.entries.removeLast();
+
+		this.entries.addFirst(new Entry(message));
+	}
+
+	/**
+	 * Return the newest message whose similarity to the given one is at least the threshold, or null if none
+	 *
+	 * @param message
+	 * @param threshold the similarity within 0.00 and 1.00
+	 * @return
+	 */
+	public synchronized String findSimilar(String message, double threshold) {
+		final Entry query = new Entry(message);
+
+		for (final Entry entry : this.entries)
+			if (query.isSimilar(entry, threshold))
+				return entry.message;
+
+		return null;
+	}
+
+	/**
+	 * Return true if any message is at least as similar to the given one as the threshold
+	 *
+	 * @param message
+	 * @param threshold the similarity within 0.00 and 1.00
+	 * @return
+	 */
+	public boolean isSimilar(String message, double threshold) {
+		return this.findSimilar(message, threshold) != null;
+	}
+
+	/**
+	 * Remove all messages
+	 */
+	public synchronized void clear() {
+		this.entries.clear();
+	}
+
+	/**
+	 * Return how many messages there are
+	 *
+	 * @return
+	 */
+	public synchronized int size() {
+		return this.entries.size();
+	}
+
+	/**
+	 * A message with its normalized form and letter pair signature
+	 */
+	private static final class Entry {
+
+		/**
+		 * The message as added
+		 */
+		private final String message;
+
+		/**
+		 * The message from {@link ChatUtil#removeSimilarity(String)}
+		 */
+		private final String normalized;
+
+		/**
+		 * Bits of hashed pairs of following letters in the normalized message
+		 */
+		private final long signature;
+
+		private Entry(String message) {
+			this.message = message;
+			this.normalized = ChatUtil.removeSimilarity(message);
+
+			long signature = 0;
+
+			for (int i = 0; i + 1 < this.normalized.length(); i++) {
+				final int hash = (this.normalized.charAt(i) * 31 + this.normalized.charAt(i + 1)) * 0x9E3779B9;
+
+				signature |= 1L << (hash >>> 26);
+			}
+
+			this.signature = signature;
+		}
+
+		/*
+		 * Return true if the similarity to the other message is at least the threshold
+		 */
+		private boolean isSimilar(Entry other, double threshold) {
+			if (this.message.isEmpty() && other.message.isEmpty())
+				return true;
+
+			final int longerLength = Math.max(this.normalized.length(), other.normalized.length());
+
+			if (longerLength == 0)
+				return threshold <= 0;
+
+			final int maxDistance = ChatUtil.getMaxEditDistance(longerLength, threshold);
+
+			if (maxDistance < 0 || Math.abs(this.normalized.length() - other.normalized.length()) > maxDistance)
+				return false;
+
+			// Each letter pair only one message has was broken by an edit, and an edit breaks at most two pairs
+			final int missingPairs = Math.max(Long.bitCount(this.signature & ~other.signature), Long.bitCount(other.signature & ~this.signature));
+
+			if ((missingPairs + 1) / 2 > maxDistance)
+				return false;
+
+			return ChatUtil.getEditDistance(this.normalized, other.normalized, maxDistance) <= maxDistance;
+		}
+	}
+}
@@ -1,12 +1,15 @@
 package org.mineacademy.fo.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.regex.Pattern;
 
 import org.bukkit.Bukkit;
@@ -29,6 +32,7 @@ import org.mineacademy.fo.MinecraftVersion;
 import org.mineacademy.fo.MinecraftVersion.V;
 import org.mineacademy.fo.Valid;
 import org.mineacademy.fo.plugin.SimplePlugin;
+import org.mineacademy.fo.remain.CompMaterial;
 import org.mineacademy.fo.remain.Remain;
 
 import lombok.NonNull;
@@ -52,6 +56,29 @@ public abstract class SimpleEnchantment extends Enchantment {
 	 */
 	private static final Pattern VALID_NAMESPACE = Pattern.compile("[a-z0-9._-]+");
 
+	/**
+	 * The maximum amount of lores in {@link #loreCache}
+	 */
+	private static final int LORE_CACHE_SIZE = 500;
+
+	/**
+	 * All created enchantments, so that we skip items when there are none
+	 */
+	private static final Set<SimpleEnchantment> registeredEnchantments = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Recently compiled lores by the custom enchants and the original lore of the item
+	 */
+	private static final Map<LoreKey, List<String>> loreCache = Collections.synchronizedMap(new LinkedHashMap<LoreKey, List<String>>(LORE_CACHE_SIZE, 0.75F, true) {
+
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(final Map.Entry<LoreKey, List<String>> eldest) {
+			return this.size() > LORE_CACHE_SIZE;
+		}
+	});
+
 	/**
 	 * The name of this enchant
 	 */
@@ -74,6 +101,9 @@ public abstract class SimpleEnchantment extends Enchantment {
 		this.maxLevel = maxLevel;
 
 		Remain.registerEnchantment(this);
+
+		registeredEnchantments.add(this);
+		loreCache.clear();
 	}
 
 	// Convert a name into a namespace
@@ -340,6 +370,15 @@ public abstract class SimpleEnchantment extends Enchantment {
 		return map;
 	}
 
+	/**
+	 * Return true if any {@link SimpleEnchantment} has been created
+	 *
+	 * @return
+	 */
+	public static boolean hasRegisteredEnchantments() {
+		return !registeredEnchantments.isEmpty();
+	}
+
 	/**
 	 * Since Minecraft client cannot display custom enchantments we have to add lore manually.
 	 * <p>
@@ -351,52 +390,159 @@ public abstract class SimpleEnchantment extends Enchantment {
 	 */
 	@Deprecated
 	public static ItemStack addEnchantmentLores(ItemStack item) {
-		final List<String> customEnchants = new ArrayList<>();
 
-		// Fill in our enchants
+		// Items without meta cannot have enchants
+		if (registeredEnchantments.isEmpty() || item == null || !item.hasItemMeta())
+			return null;
+
+		final List<Object> customEnchants = new ArrayList<>(2);
+
+		// Fill in our enchants and their levels
 		try {
 			for (final Map.Entry<Enchantment, Integer> e : item.getEnchantments().entrySet())
 				if (e.getKey() instanceof SimpleEnchantment) {
-					final String lore = ((SimpleEnchantment) e.getKey()).getLore(e.getValue());
-
-					if (lore != null && !lore.isEmpty())
-						customEnchants.add(Common.colorize("&r&7" + lore));
+					customEnchants.add(e.getKey());
+					customEnchants.add(e.getValue());
 				}
 
 		} catch (final NullPointerException ex) {
 			// Some weird problem in third party plugin
 		}
 
-		if (!customEnchants.isEmpty()) {
-			final ItemMeta meta = item.hasItemMeta() ? item.getItemMeta() : Bukkit.getItemFactory().getItemMeta(item.getType());
-			final List<String> originalLore = meta.hasLore() ? meta.getLore() : new ArrayList<>();
-			final List<String> finalLore = new ArrayList<>();
+		if (customEnchants.isEmpty())
+			return null;
+
+		final ItemMeta meta = item.getItemMeta();
+		final List<String> originalLore = meta.hasLore() ? meta.getLore() : new ArrayList<>();
+		final LoreKey key = new LoreKey(customEnchants, originalLore);
+
+		List<String> finalLore = loreCache.get(key);
+
+		if (finalLore == null) {
+			finalLore = compileLore(customEnchants, originalLore);
+
+			if (finalLore == null)
+				return null;
+
+			loreCache.put(key, finalLore);
+		}
+
+		// Set the lore
+		meta.setLore(finalLore);
+
+		// Update the item stack
+		item.setItemMeta(meta);
+
+		return item;
+	}
+
+	/**
+	 * Adds the fake enchant lores to all items in the list, replacing edited items,
+	 * see {@link #addEnchantmentLores(ItemStack)}
+	 *
+	 * @param items
+	 * @return true if any item was edited
+	 * @deprecated internal use only
+	 */
+	@Deprecated
+	public static boolean addEnchantmentLores(List<ItemStack> items) {
+		if (registeredEnchantments.isEmpty())
+			return false;
+
+		boolean edited = false;
 
-			final List<String> colorlessOriginals = new ArrayList<>();
+		for (int i = 0; i < items.size(); i++) {
+			final ItemStack item = items.get(i);
 
-			for (final String original : originalLore)
-				colorlessOriginals.add(ChatColor.stripColor(Common.colorize(original)));
+			if (item != null && !CompMaterial.isAir(item.getType())) {
+				final ItemStack editedItem = addEnchantmentLores(item);
 
-			// Place our enchants
-			for (final String customEnchant : customEnchants) {
-				final String colorlessEnchant = ChatColor.stripColor(Common.colorize(customEnchant));
+				if (editedItem != null) {
+					items.set(i, editedItem);
 
-				if (!colorlessOriginals.contains(colorlessEnchant))
-					finalLore.add(customEnchant);
+					edited = true;
+				}
 			}
+		}
 
-			// Place the original lore at the bottom
-			finalLore.addAll(originalLore);
+		return edited;
+	}
 
-			// Set the lore
-			meta.setLore(finalLore);
+	/*
+	 * Return our enchant lores followed by the original lore, or null if no enchant has a lore
+	 */
+	private static List<String> compileLore(List<Object> customEnchants, List<String> originalLore) {
+		final List<String> customLores = new ArrayList<>();
 
-			// Update the item stack
-			item.setItemMeta(meta);
+		for (int i = 0; i < customEnchants.size(); i += 2) {
+			final String lore = ((SimpleEnchantment) customEnchants.get(i)).getLore((int) customEnchants.get(i + 1));
 
-			return item;
+			if (lore != null && !lore.isEmpty())
+				customLores.add(Common.colorize("&r&7" + lore));
 		}
 
-		return null;
+		if (customLores.isEmpty())
+			return null;
+
+		final List<String> finalLore = new ArrayList<>();
+		final Set<String> colorlessOriginals = new HashSet<>();
+
+		for (final String original : originalLore)
+			colorlessOriginals.add(ChatColor.stripColor(Common.colorize(original)));
+
+		// Place our enchants
+		for (final String customLore : customLores) {
+			final String colorlessEnchant = ChatColor.stripColor(Common.colorize(customLore));
+
+			if (!colorlessOriginals.contains(colorlessEnchant))
+				finalLore.add(customLore);
+		}
+
+		// Place the original lore at the bottom
+		finalLore.addAll(originalLore);
+
+		return Collections.unmodifiableList(finalLore);
+	}
+
+	/*
+	 * Identifies an item lore by its custom enchants with levels, in order, and its original lore
+	 */
+	private static final class LoreKey {
+
+		/**
+		 * Our enchants followed by their level
+		 */
+		private final List<Object> customEnchants;
+
+		/**
+		 * The lore before we added our enchants
+		 */
+		private final List<String> originalLore;
+
+		/**
+		 * Computed once since keys are compared often
+		 */
+		private final int hash;
+
+		private LoreKey(List<Object> customEnchants, List<String> originalLore) {
+			this.customEnchants = customEnchants;
+			this.originalLore = originalLore;
+			this.hash = 31 * customEnchants.hashCode() + originalLore.hashCode();
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof LoreKey))
+				return false;
+
+			final LoreKey other = (LoreKey) obj;
+
+			return this.hash == other.hash && this.customEnchants.equals(other.customEnchants) && this.originalLore.equals(other.originalLore);
+		}
+
+		@Override
+		public int hashCode() {
+			return this.hash;
+		}
 	}
-}
\ No newline at end of file
+}
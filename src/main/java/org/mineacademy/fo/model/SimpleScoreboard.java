@@ -2,10 +2,10 @@ package org.mineacademy.fo.model;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 
-import org.apache.commons.lang.StringUtils;
 import org.bukkit.Bukkit;
 import org.bukkit.ChatColor;
 import org.bukkit.entity.Player;
@@ -14,21 +14,28 @@ import org.bukkit.scheduler.BukkitTask;
 import org.bukkit.scoreboard.DisplaySlot;
 import org.bukkit.scoreboard.Objective;
 import org.bukkit.scoreboard.Scoreboard;
+import org.bukkit.scoreboard.Team;
 import org.mineacademy.fo.Common;
 import org.mineacademy.fo.MinecraftVersion;
 import org.mineacademy.fo.MinecraftVersion.V;
-import org.mineacademy.fo.RandomUtil;
 import org.mineacademy.fo.Valid;
 import org.mineacademy.fo.collection.StrictList;
 import org.mineacademy.fo.plugin.SimplePlugin;
 import org.mineacademy.fo.remain.Remain;
 
 import lombok.AccessLevel;
-import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
 import lombok.Setter;
 
+/**
+ * A sidebar scoreboard shown to players and updated periodically.
+ * <p>
+ * Each row is a team whose prefix, entry and suffix hold the text, so we only send rows
+ * that changed for each viewer instead of recreating the sidebar. Rows short enough
+ * for the prefix and suffix keep a fixed invisible entry.
+ */
 public class SimpleScoreboard {
 
 	// ------------------------------------------------------------------------------------------------------------
@@ -94,6 +101,14 @@ public class SimpleScoreboard {
 	@Getter
 	private int updateDelayTicks;
 
+	/**
+	 * How many milliseconds each update may spend replacing variables for viewers,
+	 * viewers we do not get to are updated first the next time
+	 */
+	@Getter
+	@Setter
+	private int updateBudgetMillis = 2;
+
 	// ------------------------------------------------------------------------------------------------------------
 	// Classes
 	// ------------------------------------------------------------------------------------------------------------
@@ -103,7 +118,7 @@ public class SimpleScoreboard {
 	 */
 	@Getter
 	@Setter
-	@AllArgsConstructor(access = AccessLevel.PRIVATE)
+	@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
 	private class ViewedScoreboard {
 
 		/**
@@ -112,7 +127,7 @@ public class SimpleScoreboard {
 		private final Scoreboard scoreboard;
 
 		/**
-		 * The objective
+		 * The objective, registered once on the first update
 		 */
 		private Objective objective;
 
@@ -121,6 +136,21 @@ public class SimpleScoreboard {
 		 */
 		private final Player viewer;
 
+		/**
+		 * The title last sent to the viewer
+		 */
+		private String renderedTitle;
+
+		/**
+		 * The rows last sent to the viewer, from top to bottom
+		 */
+		private final List<String> renderedRows = new ArrayList<>();
+
+		/**
+		 * The entries holding the rendered rows, from top to bottom
+		 */
+		private final List<String> renderedEntries = new ArrayList<>();
+
 		@Override
 		public boolean equals(final Object obj) {
 			return obj instanceof ViewedScoreboard && ((ViewedScoreboard) obj).getViewer().equals(this.viewer);
@@ -136,6 +166,11 @@ public class SimpleScoreboard {
 	 */
 	private BukkitTask updateTask;
 
+	/**
+	 * The index of the viewer to update first in the next update
+	 */
+	private int nextViewerIndex;
+
 	/**
 	 * Create a new scoreboard
 	 */
@@ -228,57 +263,213 @@ public class SimpleScoreboard {
 	}
 
 	/**
-	 * Updates this scoreboard
+	 * Updates this scoreboard for as many viewers as {@link #getUpdateBudgetMillis()} allows
 	 */
 	private final void update() {
 		onUpdate();
 
-		for (final ViewedScoreboard viewedScoreboard : scoreboards) {
-			resetObjective(viewedScoreboard);
-			reloadEntries(viewedScoreboard);
+		final int viewers = scoreboards.size();
+		final long deadline = System.nanoTime() + updateBudgetMillis * 1_000_000L;
+
+		for (int updated = 0; updated < viewers; updated++) {
+			if (updated > 0 && System.nanoTime() > deadline)
+				break;
+
+			if (nextViewerIndex >= viewers)
+				nextViewerIndex = 0;
+
+			render(scoreboards.get(nextViewerIndex++));
 		}
 	}
 
 	/**
-	 * Resets the objective
+	 * Sends the title and rows that changed since the last update to the viewer
 	 *
 	 * @param viewedScoreboard
 	 */
-	private final void resetObjective(final ViewedScoreboard viewedScoreboard) {
+	private final void render(final ViewedScoreboard viewedScoreboard) {
 		final Scoreboard scoreboard = viewedScoreboard.getScoreboard();
+		final Player viewer = viewedScoreboard.getViewer();
 		Objective objective = viewedScoreboard.getObjective();
 
-		if (objective != null)
-			objective.unregister();
+		if (objective == null) {
+			objective = scoreboard.registerNewObjective(viewer.getName(), "dummy");
+
+			objective.setDisplaySlot(DisplaySlot.SIDEBAR);
+			viewedScoreboard.setObjective(objective);
+		}
+
+		final String title = Common.colorize(this.title);
+
+		if (!title.equals(viewedScoreboard.getRenderedTitle())) {
+			objective.setDisplayName(title);
 
-		objective = scoreboard.registerNewObjective(viewedScoreboard.getViewer().getName(), "dummy");
+			viewedScoreboard.setRenderedTitle(title);
+		}
+
+		final List<String> renderedRows = viewedScoreboard.getRenderedRows();
+		final int oldSize = renderedRows.size();
+		final int newSize = rows.size();
+
+		for (int index = 0; index < newSize; index++) {
+			final String row = Common.colorize(replaceVariables(viewer, replaceTheme(rows.get(index))));
+
+			if (index < oldSize) {
+				if (row.equals(renderedRows.get(index)))
+					continue;
 
-		objective.setDisplayName(Common.colorize(title));
-		objective.setDisplaySlot(DisplaySlot.SIDEBAR);
+				renderedRows.set(index, row);
+
+			} else
+				renderedRows.add(row);
+
+			renderRow(viewedScoreboard, index, row, newSize);
+		}
 
-		viewedScoreboard.setObjective(objective);
+		// Rows were added or removed, so scores of the remaining rows move
+		if (oldSize != newSize) {
+			final List<String> renderedEntries = viewedScoreboard.getRenderedEntries();
+
+			for (int index = newSize; index < oldSize; index++) {
+				resetScore(scoreboard, renderedEntries.remove(renderedEntries.size() - 1));
+
+				renderedRows.remove(renderedRows.size() - 1);
+			}
+
+			for (int index = 0; index < newSize; index++)
+				Remain.getScore(objective, renderedEntries.get(index)).setScore(newSize - index);
+		}
 	}
 
-	/**
-	 * Reload entries for the given player
-	 *
-	 * @param viewedScoreboard
+	/*
+	 * Send the row text to its team and move the row to a new entry if its middle part changed
 	 */
-	private final void reloadEntries(final ViewedScoreboard viewedScoreboard) {
-		final Objective objective = viewedScoreboard.getObjective();
-		final StrictList<String> duplicates = new StrictList<>();
+	private final void renderRow(final ViewedScoreboard viewedScoreboard, final int index, final String row, final int size) {
+		final Scoreboard scoreboard = viewedScoreboard.getScoreboard();
+		final List<String> renderedEntries = viewedScoreboard.getRenderedEntries();
+		final String oldEntry = index < renderedEntries.size() ? renderedEntries.get(index) : null;
+
+		String[] parts;
+		String entry;
+
+		// Two rows cannot share an entry, pad ours with resets until no other row uses it
+		for (int padding = 0;; padding++) {
+			parts = splitRow(row, padding * 2);
+			entry = (parts[1].isEmpty() ? getRowEntry(index) : parts[1]) + String.join("", Collections.nCopies(padding, ChatColor.RESET.toString()));
+
+			if (entry.equals(oldEntry) || !renderedEntries.contains(entry))
+				break;
+		}
+
+		final Team team = getRowTeam(scoreboard, index);
 
-		for (int i = rows.size(); i > 0; i--) {
-			final String sidebarEntry = rows.get(rows.size() - i);
-			final String entry = replaceVariables(viewedScoreboard.getViewer(), replaceTheme(sidebarEntry));
+		team.setPrefix(parts[0]);
+		team.setSuffix(parts[2]);
 
-			String line = fixDuplicates(duplicates, entry);
+		if (entry.equals(oldEntry))
+			return;
 
-			if (line.length() > 40)
-				line = line.substring(0, 40);
+		try {
+			team.addEntry(entry);
 
-			Remain.getScore(objective, line).setScore(i);
+		} catch (final NoSuchMethodError err) {
+			team.addPlayer(Bukkit.getOfflinePlayer(entry));
 		}
+
+		Remain.getScore(viewedScoreboard.getObjective(), entry).setScore(size - index);
+
+		if (oldEntry != null) {
+			resetScore(scoreboard, oldEntry);
+
+			try {
+				team.removeEntry(oldEntry);
+
+			} catch (final NoSuchMethodError err) {
+				team.removePlayer(Bukkit.getOfflinePlayer(oldEntry));
+			}
+
+			renderedEntries.set(index, entry);
+
+		} else
+			renderedEntries.add(entry);
+	}
+
+	/*
+	 * Return the team holding the row at the given index, registering it if needed
+	 */
+	private final Team getRowTeam(final Scoreboard scoreboard, final int index) {
+		final String name = "fo_row_" + index;
+		final Team team = scoreboard.getTeam(name);
+
+		return team != null ? team : scoreboard.registerNewTeam(name);
+	}
+
+	/*
+	 * Split the row into the team prefix, the middle part for the entry and the suffix,
+	 * continuing colors of each part in the next one. The middle part is only used before
+	 * Minecraft 1.13 where prefix and suffix only have 16 letters, while entries have up to 40.
+	 * The given amount of letters is kept free at the end of the entry.
+	 */
+	private static String[] splitRow(final String row, final int reserved) {
+		final boolean legacy = MinecraftVersion.olderThan(V.v1_13);
+		final int limit = legacy ? 16 : 64;
+
+		final String prefix = cut(row, limit);
+		String rest = row.substring(prefix.length());
+		String middle = "";
+
+		if (legacy && !rest.isEmpty()) {
+			final String colors = ChatColor.getLastColors(prefix);
+
+			middle = cut(colors + rest, (MinecraftVersion.atLeast(V.v1_8) ? 40 : 16) - reserved);
+			rest = rest.substring(Math.max(0, middle.length() - colors.length()));
+		}
+
+		final String suffix = rest.isEmpty() ? "" : cut(ChatColor.getLastColors(prefix + middle) + rest, limit);
+
+		return new String[] { prefix, middle, suffix };
+	}
+
+	/*
+	 * Cut the text to the given length, not leaving a color character at its end
+	 */
+	private static String cut(final String text, final int limit) {
+		if (text.length() <= limit)
+			return text;
+
+		if (limit <= 0)
+			return "";
+
+		return text.substring(0, text.charAt(limit - 1) == ChatColor.COLOR_CHAR ? limit - 1 : limit);
+	}
+
+	/*
+	 * Remove the score of the given entry from the sidebar
+	 */
+	private final void resetScore(final Scoreboard scoreboard, final String entry) {
+		try {
+			scoreboard.resetScores(entry);
+
+		} catch (final NoSuchMethodError err) {
+			scoreboard.resetScores(Bukkit.getOfflinePlayer(entry));
+		}
+	}
+
+	/*
+	 * Return the invisible entry for the row at the given index, made of color codes
+	 * unique to the index and a reset so that it does not color the suffix
+	 */
+	private static String getRowEntry(final int index) {
+		final StringBuilder entry = new StringBuilder();
+
+		for (int digits = index;; digits /= 16) {
+			entry.append(ChatColor.COLOR_CHAR).append(Character.forDigit(digits % 16, 16));
+
+			if (digits < 16)
+				break;
+		}
+
+		return entry.append(ChatColor.RESET).toString();
 	}
 
 	/**
@@ -321,32 +512,6 @@ public class SimpleScoreboard {
 			this.theme[0] = "&" + primary.getChar();
 	}
 
-	/**
-	 * Fixes color and empty lines colliding into one by adding random colors
-	 *
-	 * @param duplicates
-	 * @param message
-	 * @return
-	 */
-	private final String fixDuplicates(final StrictList<String> duplicates, String message) {
-		message = StringUtils.substring(message, 0, 40);
-
-		final boolean cut = MinecraftVersion.olderThan(V.v1_8);
-
-		if (cut && message.length() > 16)
-			message = message.substring(0, 16);
-
-		if (duplicates.contains(message))
-			for (int i = 0; i < duplicates.size() && message.length() < 40; i++)
-				message += RandomUtil.nextColorOrDecoration();
-
-		if (cut && message.length() > 16)
-			message = message.substring(0, 16);
-
-		duplicates.add(message);
-		return message;
-	}
-
 	/**
 	 * Replaces variables in the message for the given player
 	 *
@@ -429,7 +594,7 @@ public class SimpleScoreboard {
 
 		final Scoreboard scoreboard = Bukkit.getScoreboardManager().getNewScoreboard();
 
-		scoreboards.add(new ViewedScoreboard(scoreboard, null, player));
+		scoreboards.add(new ViewedScoreboard(scoreboard, player));
 		player.setScoreboard(scoreboard);
 	}
 
@@ -0,0 +1,223 @@
+package org.mineacademy.fo.model;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+
+import org.bukkit.ChatColor;
+import org.bukkit.command.CommandSender;
+import org.bukkit.entity.Player;
+import org.mineacademy.fo.Common;
+
+import lombok.AccessLevel;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+/**
+ * Represents a message parsed once into literal text and {variable} parts
+ * so that it can be rendered for many senders without being parsed again.
+ * <p>
+ * Obtain one using {@link Variables#compile(String)}.
+ */
+@RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+public final class VariableTemplate {
+
+	/**
+	 * The message this template was parsed from
+	 */
+	@Getter
+	private final String message;
+
+	/**
+	 * The message split into literal {@link String}s and {@link Part} variables, in order
+	 */
+	private final Object[] parts;
+
+	/**
+	 * The amount of variables in {@link #parts}
+	 */
+	@Getter
+	private final int variableCount;
+
+	/**
+	 * Length of the source message, used to size the builder
+	 */
+	private final int messageLength;
+
+	/**
+	 * Return true if the message has no variables at all
+	 *
+	 * @return
+	 */
+	public boolean isLiteral() {
+		return this.variableCount == 0;
+	}
+
+	/**
+	 * Render this template for the given sender, see {@link Variables#replace(String, CommandSender, Map, boolean)}
+	 *
+	 * @param sender
+	 * @param replacements
+	 * @param javascript
+	 * @return the message with variables replaced, not colorized
+	 */
+	String render(final CommandSender sender, final Map<String, Object> replacements, final boolean javascript) {
+		if (this.isLiteral())
+			return this.message;
+
+		final Player player = sender instanceof Player ? (Player) sender : null;
+		final StringBuilder builder = new StringBuilder(this.messageLength + this.variableCount * 16);
+
+		for (final Object part : this.parts)
+			if (part instanceof Part)
+				((Part) part).render(builder, sender, player, replacements, javascript);
+			else
+				builder.append((String) part);
+
+		return builder.toString();
+	}
+
+	@Override
+	public String toString() {
+		return "VariableTemplate{" + this.message + "}";
+	}
+
+	/**
+	 * Parse the given message using {@link Variables#BRACKET_PLACEHOLDER_PATTERN}
+	 *
+	 * @param message
+	 * @return
+	 */
+	static VariableTemplate parse(final String message) {
+		final Matcher matcher = Variables.BRACKET_PLACEHOLDER_PATTERN.matcher(message);
+		final List<Object> parts = new ArrayList<>();
+
+		int lastEnd = 0;
+		int variableCount = 0;
+
+		while (matcher.find()) {
+			if (matcher.start() > lastEnd)
+				parts.add(message.substring(lastEnd, matcher.start()));
+
+			parts.add(new Part(matcher.group(), matcher.group(1)));
+			variableCount++;
+
+			lastEnd = matcher.end();
+		}
+
+		if (lastEnd < message.length())
+			parts.add(message.substring(lastEnd));
+
+		return new VariableTemplate(message, parts.toArray(), variableCount, message.length());
+	}
+
+	/**
+	 * A single variable in the message
+	 */
+	private static final class Part {
+
+		/**
+		 * The variable as written, with brackets, used when it cannot be replaced
+		 */
+		private final String raw;
+
+		/**
+		 * The variable without brackets
+		 */
+		private final String inner;
+
+		/**
+		 * The variable without brackets and + space modifiers
+		 */
+		private final String name;
+
+		/**
+		 * Add a space before the value if not empty?
+		 */
+		private final boolean frontSpace;
+
+		/**
+		 * Add a space after the value if not empty?
+		 */
+		private final boolean backSpace;
+
+		private Part(final String raw, final String inner) {
+			String name = inner;
+
+			this.frontSpace = name.startsWith("+");
+
+			if (this.frontSpace)
+				name = name.substring(1);
+
+			this.backSpace = name.endsWith("+");
+
+			if (this.backSpace)
+				name = name.substring(0, name.length() - 1);
+
+			this.raw = raw;
+			this.inner = inner;
+			this.name = name;
+		}
+
+		/*
+		 * Replace this variable in the same order as we always did: JavaScript format variables,
+		 * then PlaceholderAPI for players, then our own variables, leaving it as is if nothing matched
+		 */
+		private void render(final StringBuilder builder, final CommandSender sender, final Player player, final Map<String, Object> replacements, final boolean javascript) {
+
+			// JavaScript format variables, their output is then replaced with the rest
+			if (javascript) {
+				final Variable variable = Variable.findVariable(this.inner);
+
+				if (variable != null && variable.getType() == Variable.Type.FORMAT) {
+					final SimpleComponent component = variable.build(sender, SimpleComponent.empty(), replacements);
+
+					// We do not support interact chat elements in format variables,
+					// so we just flatten the variable. Use formatting or chat variables instead.
+					String plain = component.getPlainMessage();
+
+					// And we remove the white prefix that is by default added in every component
+					if (plain.startsWith(ChatColor.COLOR_CHAR + "f" + ChatColor.COLOR_CHAR + "f"))
+						plain = plain.substring(4);
+
+					builder.append(Variables.compile(plain).render(sender, replacements, false));
+					return;
+				}
+			}
+
+			// PlaceholderAPI and MvdvPlaceholderAPI
+			if (player != null) {
+				final String replaced = HookManager.replacePlaceholders(player, this.raw);
+
+				if (!this.raw.equals(replaced)) {
+					builder.append(replaced);
+
+					return;
+				}
+			}
+
+			// Our own variables
+			final String value = Variables.lookupVariable0(player, sender, this.name);
+
+			if (value == null) {
+				builder.append(this.raw);
+
+				return;
+			}
+
+			if (value.isEmpty())
+				return;
+
+			final boolean emptyColorless = Common.stripColors(value).isEmpty();
+
+			if (this.frontSpace && !emptyColorless)
+				builder.append(' ');
+
+			builder.append(Common.colorize(value));
+
+			if (this.backSpace && !emptyColorless)
+				builder.append(' ');
+		}
+	}
+}
@@ -4,9 +4,9 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
-import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 import org.bukkit.ChatColor;
@@ -51,6 +51,16 @@ public final class Variables {
 	 */
 	private static final Map<String, Map<String, String>> cache = ExpiringMap.builder().expiration(500, TimeUnit.MILLISECONDS).build();
 
+	/**
+	 * How many parsed messages we keep before starting over
+	 */
+	private static final int TEMPLATE_CACHE_LIMIT = 2_000;
+
+	/**
+	 * Message - Message parsed into literal and variable parts
+	 */
+	private static final Map<String, VariableTemplate> templates = new ConcurrentHashMap<>();
+
 	/**
 	 * Should we replace javascript placeholders from variables/ folder automatically?
 	 * Used internally to prevent race condition
@@ -253,26 +263,19 @@ public final class Variables {
 				return cachedVar;
 		}
 
-		// Custom placeholders
+		// JavaScript, PlaceholderAPI/MvdvPlaceholderAPI and our own variables in one pass
 		if (REPLACE_JAVASCRIPT) {
 			REPLACE_JAVASCRIPT = false;
 
 			try {
-				message = replaceJavascriptVariables0(message, sender, replacements);
+				message = compile(message).render(sender, replacements, true);
 
 			} finally {
 				REPLACE_JAVASCRIPT = true;
 			}
-		}
-
-		if (senderIsPlayer) {
-
-			// PlaceholderAPI and MvdvPlaceholderAPI
-			message = HookManager.replacePlaceholders((Player) sender, message);
-		}
 
-		// Default
-		message = replaceHardVariables0(sender, message);
+		} else
+			message = compile(message).render(sender, replacements, false);
 
 		// Support the & color system
 		if (!message.startsWith("[JSON]"))
@@ -290,78 +293,33 @@ public final class Variables {
 		return message;
 	}
 
-	/*
-	 * Replaces JavaScript variables in the message
-	 */
-	private static String replaceJavascriptVariables0(String message, CommandSender sender, Map<String, Object> replacements) {
-
-		final Matcher matcher = BRACKET_PLACEHOLDER_PATTERN.matcher(message);
-
-		while (matcher.find()) {
-			final String variableKey = matcher.group();
-
-			// Find the variable key without []
-			final Variable variable = Variable.findVariable(variableKey.substring(1, variableKey.length() - 1));
-
-			if (variable != null && variable.getType() == Variable.Type.FORMAT) {
-				final SimpleComponent component = variable.build(sender, SimpleComponent.empty(), replacements);
-
-				// We do not support interact chat elements in format variables,
-				// so we just flatten the variable. Use formatting or chat variables instead.
-				String plain = component.getPlainMessage();
-
-				// And we remove the white prefix that is by default added in every component
-				if (plain.startsWith(ChatColor.COLOR_CHAR + "f" + ChatColor.COLOR_CHAR + "f"))
-					plain = plain.substring(4);
-
-				message = message.replace(variableKey, plain);
-			}
-		}
-
-		return message;
-	}
-
-	/*
-	 * Replaces our hardcoded variables in the message, using a cache for better performance
+	/**
+	 * Parse the message into literal text and variables once, returning a cached
+	 * template you can render for any sender without parsing it again.
+	 *
+	 * @param message
+	 * @return
 	 */
-	private static String replaceHardVariables0(CommandSender sender, String message) {
-		final Matcher matcher = Variables.BRACKET_PLACEHOLDER_PATTERN.matcher(message);
-		final Player player = sender instanceof Player ? (Player) sender : null;
-
-		while (matcher.find()) {
-			String variable = matcher.group(1);
-			boolean frontSpace = false;
-			boolean backSpace = false;
-
-			if (variable.startsWith("+")) {
-				variable = variable.substring(1);
-
-				frontSpace = true;
-			}
+	public static VariableTemplate compile(String message) {
+		VariableTemplate template = templates.get(message);
 
-			if (variable.endsWith("+")) {
-				variable = variable.substring(0, variable.length() - 1);
+		if (template == null) {
+			template = VariableTemplate.parse(message);
 
-				backSpace = true;
-			}
-
-			String value = lookupVariable0(player, sender, variable);
-
-			if (value != null) {
-				final boolean emptyColorless = Common.stripColors(value).isEmpty();
-				value = value.isEmpty() ? "" : (frontSpace && !emptyColorless ? " " : "") + Common.colorize(value) + (backSpace && !emptyColorless ? " " : "");
+			// Prevent unbounded growth from messages that are never repeated
+			if (templates.size() >= TEMPLATE_CACHE_LIMIT)
+				templates.clear();
 
-				message = message.replace(matcher.group(), value);
-			}
+			templates.put(message, template);
 		}
 
-		return message;
+		return template;
 	}
 
 	/*
 	 * Replaces the given variable with a few hardcoded within the plugin, see below
 	 */
-	private static String lookupVariable0(Player player, CommandSender console, String variable) {
+	static String lookupVariable0(Player player, CommandSender console, String variable) {
 		GeoResponse geoResponse = null;
 
 		if (player != null && Arrays.asList("country_code", "country_name", "region_name", "isp").contains(variable))
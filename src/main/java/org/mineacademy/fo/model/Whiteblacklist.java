@@ -1,12 +1,14 @@
 package org.mineacademy.fo.model;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
 import org.mineacademy.fo.Valid;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
 
@@ -18,7 +20,7 @@ import lombok.NonNull;
 public final class Whiteblacklist {
 
 	/**
-	 * The list of items
+	 * The list of items, unmodifiable since {@link #isInListRegex(String)} compiles them once
 	 */
 	private final Set<String> items;
 
@@ -36,6 +38,12 @@ public final class Whiteblacklist {
 	 */
 	private final boolean entireList;
 
+	/**
+	 * The items compiled for {@link #isInListRegex(String)}, created on first use
+	 */
+	@Getter(AccessLevel.NONE)
+	private volatile MultiPatternMatcher<String> regexMatcher;
+
 	/**
 	 * Create a new white black list from the given list
 	 *
@@ -56,11 +64,11 @@ public final class Whiteblacklist {
 			if (this.entireList || firstLine.equals("@blacklist"))
 				newItems.remove(0);
 
-			this.items = new HashSet<>(this.whitelist ? items : newItems);
+			this.items = Collections.unmodifiableSet(new HashSet<>(this.whitelist ? items : newItems));
 		}
 
 		else {
-			this.items = new HashSet<>();
+			this.items = Collections.emptySet();
 			this.whitelist = true;
 			this.entireList = false;
 		}
@@ -83,8 +91,10 @@ public final class Whiteblacklist {
 	}
 
 	/**
-	 * Return true if {@link Valid#isInListRegex(String, Iterable)} returns true
+	 * Return true if any item matches as a regular expression like {@link Valid#isInListRegex(String, Iterable)}
 	 * inverting it according to the {@link #isWhitelist()} flag
+	 * <p>
+	 * Items are compiled once into a {@link MultiPatternMatcher}.
 	 *
 	 * @param item
 	 * @return
@@ -93,7 +103,12 @@ public final class Whiteblacklist {
 		if (entireList)
 			return true;
 
-		final boolean match = Valid.isInListRegex(item, this.items);
+		MultiPatternMatcher<String> matcher = this.regexMatcher;
+
+		if (matcher == null)
+			this.regexMatcher = matcher = MultiPatternMatcher.of(this.items);
+
+		final boolean match = matcher.matchesAny(item);
 
 		return whitelist ? match : !match;
 	}
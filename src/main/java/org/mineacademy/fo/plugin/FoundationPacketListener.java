@@ -1,6 +1,12 @@
 package org.mineacademy.fo.plugin;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import org.bukkit.inventory.ItemStack;
+import org.mineacademy.fo.MinecraftVersion;
+import org.mineacademy.fo.MinecraftVersion.V;
 import org.mineacademy.fo.PacketUtil;
 import org.mineacademy.fo.model.HookManager;
 import org.mineacademy.fo.model.SimpleEnchantment;
@@ -18,10 +24,13 @@ final class FoundationPacketListener {
 	 * Registers our packet listener for some of the more advanced features of Foundation
 	 */
 	static void addNativeListener() {
-		if (HookManager.isProtocolLibLoaded())
+		if (HookManager.isProtocolLibLoaded()) {
 
 			// Auto placement of our lore when items are custom enchanted
 			PacketUtil.addSendingListener(PacketType.Play.Server.SET_SLOT, event -> {
+				if (!SimpleEnchantment.hasRegisteredEnchantments())
+					return;
+
 				final StructureModifier<ItemStack> itemModifier = event.getPacket().getItemModifier();
 				ItemStack item = itemModifier.read(0);
 
@@ -33,5 +42,27 @@ final class FoundationPacketListener {
 						itemModifier.write(0, item);
 				}
 			});
+
+			// Same for whole inventories sent at once, such as when opening a chest
+			PacketUtil.addSendingListener(PacketType.Play.Server.WINDOW_ITEMS, event -> {
+				if (!SimpleEnchantment.hasRegisteredEnchantments())
+					return;
+
+				if (MinecraftVersion.atLeast(V.v1_11)) {
+					final StructureModifier<List<ItemStack>> itemsModifier = event.getPacket().getItemListModifier();
+					final List<ItemStack> items = new ArrayList<>(itemsModifier.read(0));
+
+					if (SimpleEnchantment.addEnchantmentLores(items))
+						itemsModifier.write(0, items);
+
+				} else {
+					final StructureModifier<ItemStack[]> itemsModifier = event.getPacket().getItemArrayModifier();
+					final List<ItemStack> items = Arrays.asList(itemsModifier.read(0));
+
+					if (SimpleEnchantment.addEnchantmentLores(items))
+						itemsModifier.write(0, items.toArray(new ItemStack[items.size()]));
+				}
+			});
+		}
 	}
 }
@@ -14,13 +14,11 @@ import java.io.File;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.Modifier;
-import java.util.Enumeration;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Objects;
 import java.util.Set;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
 import java.util.regex.Pattern;
 
 import org.bukkit.Bukkit;
@@ -45,6 +43,7 @@ import org.mineacademy.fo.collection.StrictList;
 import org.mineacademy.fo.command.SimpleCommand;
 import org.mineacademy.fo.command.SimpleCommandGroup;
 import org.mineacademy.fo.command.SimpleSubCommand;
+import org.mineacademy.fo.database.SimpleFlatDatabase;
 import org.mineacademy.fo.debug.Debugger;
 import org.mineacademy.fo.event.SimpleListener;
 import org.mineacademy.fo.exception.FoException;
@@ -409,104 +408,99 @@ public abstract class SimplePlugin extends JavaPlugin implements Listener {
 	private static void checkSingletons() {
 
 		final Pattern anonymousClassPattern = Pattern.compile("\\w+\\$[0-9]$");
+		final Set<Class<?>> classes = new LinkedHashSet<>();
 
-		try (final JarFile file = new JarFile(SimplePlugin.getSource())) {
-			for (final Enumeration<JarEntry> entry = file.entries(); entry.hasMoreElements();) {
-				final JarEntry jar = entry.nextElement();
-				final String name = jar.getName().replace("/", ".");
+		// Only load classes that can be singletons instead of the whole jar
+		try {
+			classes.addAll(ReflectionUtil.getClasses(instance, Tool.class));
+			classes.addAll(ReflectionUtil.getClasses(instance, SimpleEnchantment.class));
+			classes.addAll(ReflectionUtil.getClasses(instance, SimpleExpansion.class));
 
-				try {
+		} catch (final Throwable t) {
+			Common.error(t, "Failed to scan classes using Foundation!");
 
-					if (name.endsWith(".class")) {
-						final String className = name.substring(0, name.length() - 6);
-						Class<?> clazz = null;
+			return;
+		}
 
-						try {
-							clazz = SimplePlugin.class.getClassLoader().loadClass(className);
-						} catch (final NoClassDefFoundError | ClassNotFoundException | IncompatibleClassChangeError error) {
-							continue;
-						}
+		for (final Class<?> clazz : classes) {
+			final String className = clazz.getName();
 
-						if (Modifier.isAbstract(clazz.getModifiers()))
-							continue;
+			try {
+				if (Modifier.isAbstract(clazz.getModifiers()))
+					continue;
 
-						if (anonymousClassPattern.matcher(className).find()) {
-							continue;
-						}
+				if (anonymousClassPattern.matcher(className).find())
+					continue;
 
-						final boolean isTool = Tool.class.isAssignableFrom(clazz);
-						final boolean isEnchant = SimpleEnchantment.class.isAssignableFrom(clazz);
-						final boolean isExpansion = SimpleExpansion.class.isAssignableFrom(clazz);
+				final boolean isTool = Tool.class.isAssignableFrom(clazz);
+				final boolean isEnchant = SimpleEnchantment.class.isAssignableFrom(clazz);
+				final boolean isExpansion = SimpleExpansion.class.isAssignableFrom(clazz);
 
-						if (isTool || isEnchant || isExpansion) {
+				if (isTool || isEnchant || isExpansion) {
 
-							if (isEnchant && MinecraftVersion.olderThan(V.v1_13)) {
-								Bukkit.getLogger().warning("**** WARNING ****");
-								Bukkit.getLogger().warning("SimpleEnchantment requires Minecraft 1.13.2 or greater. The following class will not be registered: " + clazz.getName());
+					if (isEnchant && MinecraftVersion.olderThan(V.v1_13)) {
+						Bukkit.getLogger().warning("**** WARNING ****");
+						Bukkit.getLogger().warning("SimpleEnchantment requires Minecraft 1.13.2 or greater. The following class will not be registered: " + clazz.getName());
 
-								continue;
-							}
+						continue;
+					}
 
-							try {
-								Field instanceField = null;
+					try {
+						Field instanceField = null;
 
-								for (final Field field : clazz.getDeclaredFields())
-									if ((Tool.class.isAssignableFrom(field.getType()) || Enchantment.class.isAssignableFrom(field.getType()) || SimpleExpansion.class.isAssignableFrom(field.getType()))
-											&& Modifier.isPrivate(field.getModifiers()) && Modifier.isStatic(field.getModifiers()) && Modifier.isFinal(field.getModifiers()))
-										instanceField = field;
+						for (final Field field : clazz.getDeclaredFields())
+							if ((Tool.class.isAssignableFrom(field.getType()) || Enchantment.class.isAssignableFrom(field.getType()) || SimpleExpansion.class.isAssignableFrom(field.getType()))
+									&& Modifier.isPrivate(field.getModifiers()) && Modifier.isStatic(field.getModifiers()) && Modifier.isFinal(field.getModifiers()))
+								instanceField = field;
 
-								Valid.checkNotNull(instanceField, "Your class " + className + " must be a singleton and have 'private static final " + clazz.getSimpleName()
-										+ " instance' field and a private constructor!");
+						Valid.checkNotNull(instanceField, "Your class " + className + " must be a singleton and have 'private static final " + clazz.getSimpleName()
+								+ " instance' field and a private constructor!");
 
-								if (instanceField != null) {
-									instanceField.setAccessible(true);
+						if (instanceField != null) {
+							instanceField.setAccessible(true);
 
-									final Object instance = instanceField.get(null);
+							final Object instance = instanceField.get(null);
 
-									// Enforce private constructors
-									for (final Constructor<?> con : instance.getClass().getDeclaredConstructors())
-										Valid.checkBoolean(Modifier.isPrivate(con.getModifiers()), "Constructor " + con + " not private! Did you put '@NoArgsConstructor(access = AccessLevel.PRIVATE)' in your "
-												+ className + " class?");
+							// Enforce private constructors
+							for (final Constructor<?> con : instance.getClass().getDeclaredConstructors())
+								Valid.checkBoolean(Modifier.isPrivate(con.getModifiers()), "Constructor " + con + " not private! Did you put '@NoArgsConstructor(access = AccessLevel.PRIVATE)' in your "
+										+ className + " class?");
 
-									// Register if expansion
-									if (isExpansion)
-										Variables.addExpansion((SimpleExpansion) instance);
+							// Register if expansion
+							if (isExpansion)
+								Variables.addExpansion((SimpleExpansion) instance);
 
-									// Finally register events
-									if (instance instanceof Listener)
-										Common.registerEvents((Listener) instance);
-								}
+							// Finally register events
+							if (instance instanceof Listener)
+								Common.registerEvents((Listener) instance);
+						}
 
-							} catch (final NoClassDefFoundError | NoSuchFieldError ex) {
-								Bukkit.getLogger().warning("Failed to auto register class " + clazz + " due to it requesting missing fields/classes: " + ex.getMessage());
+					} catch (final NoClassDefFoundError | NoSuchFieldError ex) {
+						Bukkit.getLogger().warning("Failed to auto register class " + clazz + " due to it requesting missing fields/classes: " + ex.getMessage());
 
-								// Ignore if no field is present
+						// Ignore if no field is present
 
-							} catch (final Throwable t) {
-								final String error = Common.getOrEmpty(t.getMessage());
+					} catch (final Throwable t) {
+						final String error = Common.getOrEmpty(t.getMessage());
 
-								if (t instanceof NoClassDefFoundError && error.contains("org/bukkit/entity")) {
-									Bukkit.getLogger().warning("**** WARNING ****");
+						if (t instanceof NoClassDefFoundError && error.contains("org/bukkit/entity")) {
+							Bukkit.getLogger().warning("**** WARNING ****");
 
-									if (error.contains("DragonFireball"))
-										Bukkit.getLogger().warning("Your Minecraft version does not have DragonFireball class, we suggest replacing it with a Fireball instead in: " + clazz);
-									else
-										Bukkit.getLogger().warning("Your Minecraft version does not have " + error + " class you call in: " + clazz);
-								} else
-									Common.error(t, "Failed to auto register class " + clazz);
-							}
-						}
+							if (error.contains("DragonFireball"))
+								Bukkit.getLogger().warning("Your Minecraft version does not have DragonFireball class, we suggest replacing it with a Fireball instead in: " + clazz);
+							else
+								Bukkit.getLogger().warning("Your Minecraft version does not have " + error + " class you call in: " + clazz);
+						} else
+							Common.error(t, "Failed to auto register class " + clazz);
 					}
+				}
 
-				} catch (final Throwable t) {
-					if (t instanceof VerifyError) // Exception in other class we loaded
-						continue;
+			} catch (final Throwable t) {
+				if (t instanceof VerifyError) // Exception in other class we loaded
+					continue;
 
-					Common.error(t, "Failed to scan class '" + name + "' using Foundation!");
-				}
+				Common.error(t, "Failed to scan class '" + className + "' using Foundation!");
 			}
-		} catch (final Throwable t) {
-			Common.error(t, "Failed to scan classes using Foundation!");
 		}
 	}
 
@@ -700,6 +694,26 @@ public abstract class SimplePlugin extends JavaPlugin implements Listener {
 			Common.log("&cPlugin might not shut down property. Got " + t.getClass().getSimpleName() + ": " + t.getMessage());
 		}
 
+		try {
+			SimpleFlatDatabase.flushAllPendingSaves();
+
+		} catch (final Throwable t) {
+			Common.log("Error writing queued MySQL saves..");
+
+			t.printStackTrace();
+		}
+
+		try {
+			CompMetadata.MetadataFile.getInstance().flush();
+			YamlConfig.flushPendingSaves();
+			YamlConfig.shutdownSaveThread();
+
+		} catch (final Throwable t) {
+			Common.log("Error writing queued config saves..");
+
+			t.printStackTrace();
+		}
+
 		unregisterReloadables();
 
 		try {
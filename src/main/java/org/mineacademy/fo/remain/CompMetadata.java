@@ -1,9 +1,11 @@
 package org.mineacademy.fo.remain;
 
 import java.util.ArrayList;
-import java.util.Iterator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 import org.bukkit.Location;
@@ -32,9 +34,9 @@ import org.mineacademy.fo.remain.nbt.NBTCompound;
 import org.mineacademy.fo.remain.nbt.NBTItem;
 import org.mineacademy.fo.settings.YamlSectionConfig;
 
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NonNull;
-import lombok.RequiredArgsConstructor;
 
 /**
  * Utility class for persistent metadata manipulation
@@ -69,10 +71,12 @@ public final class CompMetadata {
 	public static ItemStack setMetadata(final ItemStack item, final String key, final String value) {
 		Valid.checkNotNull(item, "Setting NBT tag got null item");
 
-		final NBTItem nbt = new NBTItem(item);
+		final NBTItem nbt = new NBTItem(item).startSession();
 		final NBTCompound tag = nbt.addCompound(FoConstants.NBT.TAG);
 
 		tag.setString(key, value);
+		nbt.commitSession();
+
 		return nbt.getItem();
 	}
 
@@ -163,7 +167,7 @@ public final class CompMetadata {
 			return null;
 
 		final String compoundTag = FoConstants.NBT.TAG;
-		final NBTItem nbt = new NBTItem(item);
+		final NBTItem nbt = NBTItem.readOnly(item);
 
 		final String value = nbt.hasKey(compoundTag) ? nbt.getCompound(compoundTag).getString(key) : null;
 
@@ -196,9 +200,14 @@ public final class CompMetadata {
 
 	// Parses the tag and gets its value
 	private static String getTag(final String raw, final String key) {
-		final String[] parts = raw.split(DELIMITER);
+		final String prefix = SimplePlugin.getNamed() + DELIMITER + key + DELIMITER;
+
+		if (raw.length() <= prefix.length() || !raw.startsWith(prefix))
+			return null;
 
-		return parts.length == 3 && parts[0].equals(SimplePlugin.getNamed()) && parts[1].equals(key) ? parts[2] : null;
+		final String value = raw.substring(prefix.length());
+
+		return value.contains(DELIMITER) ? null : value;
 	}
 
 	/**
@@ -248,7 +257,7 @@ public final class CompMetadata {
 		if (CompMaterial.isAir(item.getType()))
 			return false;
 
-		final NBTItem nbt = new NBTItem(item);
+		final NBTItem nbt = NBTItem.readOnly(item);
 		final NBTCompound tag = nbt.getCompound(FoConstants.NBT.TAG);
 
 		return tag != null && tag.hasKey(key);
@@ -300,9 +309,7 @@ public final class CompMetadata {
 
 	// Parses the tag and gets its value
 	private static boolean hasTag(final String raw, final String tag) {
-		final String[] parts = raw.split(DELIMITER);
-
-		return parts.length == 3 && parts[0].equals(SimplePlugin.getNamed()) && parts[1].equals(tag);
+		return getTag(raw, tag) != null;
 	}
 
 	/**
@@ -381,14 +388,33 @@ public final class CompMetadata {
 	 */
 	public static final class MetadataFile extends YamlSectionConfig {
 
+		/**
+		 * How long to wait after a change before writing changed entries, changes made meanwhile are written together
+		 */
+		private static final int FLUSH_DELAY_TICKS = 5 * 20;
+
 		private static volatile Object LOCK = new Object();
 
 		@Getter
 		private static volatile MetadataFile instance = new MetadataFile();
 
-		private final StrictMap<UUID, List<String>> entityMetadataMap = new StrictMap<>();
+		/**
+		 * Stored tags for each entity, by their key
+		 */
+		private final StrictMap<UUID, Map<String, String>> entityMetadataMap = new StrictMap<>();
 		private final StrictMap<Location, BlockCache> blockMetadataMap = new StrictMap<>();
 
+		/**
+		 * Entities and blocks changed since the last {@link #flush()}
+		 */
+		private final Set<UUID> dirtyEntities = new HashSet<>();
+		private final Set<Location> dirtyBlocks = new HashSet<>();
+
+		/**
+		 * Is there a flush waiting to run?
+		 */
+		private boolean flushScheduled = false;
+
 		private MetadataFile() {
 			super("Metadata");
 
@@ -424,13 +450,13 @@ public final class CompMetadata {
 
 					// Check if the entity is still real
 					if (!metadata.isEmpty() && entity != null && entity.isValid() && !entity.isDead()) {
-						entityMetadataMap.put(uuid, metadata);
+						entityMetadataMap.put(uuid, indexTags(metadata));
 
 						applySavedMetadata(metadata, entity);
-					}
-				}
 
-				save("Entity", this.entityMetadataMap);
+					} else
+						setNoSave("Entity." + uuidName, null);
+				}
 			}
 		}
 
@@ -449,10 +475,10 @@ public final class CompMetadata {
 						blockMetadataMap.put(location, blockCache);
 
 						applySavedMetadata(blockCache.getMetadata(), block);
-					}
-				}
 
-				save("Block", this.blockMetadataMap);
+					} else
+						setNoSave("Block." + locationRaw, null);
+				}
 			}
 		}
 
@@ -475,56 +501,132 @@ public final class CompMetadata {
 
 		protected void addMetadata(final Entity entity, @NonNull final String key, final String value) {
 			synchronized (LOCK) {
-				final List<String> metadata = entityMetadataMap.getOrPut(entity.getUniqueId(), new ArrayList<>());
+				final UUID uuid = entity.getUniqueId();
 
-				for (final Iterator<String> i = metadata.iterator(); i.hasNext();) {
-					final String meta = i.next();
+				setTag(entityMetadataMap.getOrPut(uuid, new LinkedHashMap<>()), key, value);
+				dirtyEntities.add(uuid);
 
-					if (getTag(meta, key) != null)
-						i.remove();
-				}
+				scheduleFlush();
+			}
+		}
 
-				if (value != null && !value.isEmpty()) {
-					final String formatted = format(key, value);
+		protected void addMetadata(final BlockState blockState, final String key, final String value) {
+			synchronized (LOCK) {
+				final Location location = blockState.getLocation();
+				final BlockCache blockCache = blockMetadataMap.getOrPut(location, new BlockCache(CompMaterial.fromBlock(blockState.getBlock()), new ArrayList<>()));
 
-					metadata.add(formatted);
-				}
+				setTag(blockCache.tags, key, value);
+				dirtyBlocks.add(location);
 
-				save("Entity", entityMetadataMap);
+				scheduleFlush();
 			}
 		}
 
-		protected void addMetadata(final BlockState blockState, final String key, final String value) {
+		/*
+		 * Replace the tag of the given key, removing it if the value is empty
+		 */
+		private static void setTag(final Map<String, String> tags, final String key, final String value) {
+			if (value != null && !value.isEmpty())
+				tags.put(key, format(key, value));
+			else
+				tags.remove(key);
+		}
+
+		/*
+		 * Write the changed entries at once after a short while
+		 */
+		private void scheduleFlush() {
+			if (!flushScheduled) {
+				flushScheduled = true;
+
+				Common.runLater(FLUSH_DELAY_TICKS, this::flush);
+			}
+		}
+
+		/**
+		 * Write entities and blocks whose tags changed into the file and save it,
+		 * called automatically shortly after a change and when the plugin is reloaded or disabled
+		 */
+		public void flush() {
 			synchronized (LOCK) {
-				final BlockCache blockCache = blockMetadataMap.getOrPut(blockState.getLocation(), new BlockCache(CompMaterial.fromBlock(blockState.getBlock()), new ArrayList<>()));
+				flushScheduled = false;
 
-				for (final Iterator<String> i = blockCache.getMetadata().iterator(); i.hasNext();) {
-					final String meta = i.next();
+				if (dirtyEntities.isEmpty() && dirtyBlocks.isEmpty())
+					return;
 
-					if (getTag(meta, key) != null)
-						i.remove();
-				}
+				for (final UUID uuid : dirtyEntities) {
+					final Map<String, String> tags = entityMetadataMap.get(uuid);
+
+					if (tags == null || tags.isEmpty()) {
+						entityMetadataMap.removeWeak(uuid);
 
-				if (value != null && !value.isEmpty()) {
-					final String formatted = format(key, value);
+						setNoSave("Entity." + uuid, null);
 
-					blockCache.getMetadata().add(formatted);
+					} else
+						setNoSave("Entity." + uuid, new ArrayList<>(tags.values()));
 				}
 
-				{ // Save
-					for (final Map.Entry<Location, BlockCache> entry : blockMetadataMap.entrySet())
-						setNoSave("Block." + SerializeUtil.serializeLoc(entry.getKey()), entry.getValue().serialize());
+				for (final Location location : dirtyBlocks) {
+					final BlockCache blockCache = blockMetadataMap.get(location);
 
-					save();
+					if (blockCache == null || blockCache.tags.isEmpty()) {
+						blockMetadataMap.removeWeak(location);
+
+						setNoSave("Block." + SerializeUtil.serializeLoc(location), null);
+
+					} else
+						setNoSave("Block." + SerializeUtil.serializeLoc(location), blockCache.serialize());
 				}
+
+				dirtyEntities.clear();
+				dirtyBlocks.clear();
+
+				save();
+			}
+		}
+
+		/*
+		 * Index the saved tag lines by their key, lines of other plugins are kept by the full line
+		 */
+		private static Map<String, String> indexTags(final List<String> lines) {
+			final Map<String, String> tags = new LinkedHashMap<>();
+			final String prefix = SimplePlugin.getNamed() + DELIMITER;
+
+			for (final String line : lines) {
+				if (line.isEmpty())
+					continue;
+
+				final int keyEnd = line.startsWith(prefix) ? line.indexOf(DELIMITER, prefix.length()) : -1;
+
+				tags.put(keyEnd != -1 ? line.substring(prefix.length(), keyEnd) : line, line);
 			}
+
+			return tags;
 		}
 
 		@Getter
-		@RequiredArgsConstructor
 		public static final class BlockCache implements ConfigSerializable {
 			private final CompMaterial type;
-			private final List<String> metadata;
+
+			/**
+			 * The tag lines by their key
+			 */
+			@Getter(AccessLevel.NONE)
+			private final Map<String, String> tags;
+
+			public BlockCache(final CompMaterial type, final List<String> metadata) {
+				this.type = type;
+				this.tags = indexTags(metadata);
+			}
+
+			/**
+			 * Return a copy of the stored tag lines
+			 *
+			 * @return
+			 */
+			public List<String> getMetadata() {
+				return new ArrayList<>(this.tags.values());
+			}
 
 			public static BlockCache deserialize(final SerializedMap map) {
 				final CompMaterial type = map.getMaterial("Type");
@@ -538,13 +640,15 @@ public final class CompMetadata {
 				final SerializedMap map = new SerializedMap();
 
 				map.put("Type", type.toString());
-				map.put("Metadata", metadata);
+				map.put("Metadata", this.getMetadata());
 
 				return map;
 			}
 		}
 
 		public static void onReload() {
+			instance.flush();
+
 			instance = new MetadataFile();
 		}
 	}
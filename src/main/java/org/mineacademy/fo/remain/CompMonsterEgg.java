@@ -142,7 +142,7 @@ public final class CompMonsterEgg {
 	private static EntityType readEntity0(final ItemStack item) {
 		Valid.checkNotNull(item, "Reading entity got null item");
 
-		final NBTItem nbt = new NBTItem(item);
+		final NBTItem nbt = NBTItem.readOnly(item);
 		final String type = nbt.hasKey(TAG) ? nbt.getCompound(TAG).getString("entity") : null;
 
 		return type != null && !type.isEmpty() ? EntityType.valueOf(type) : null;
@@ -238,10 +238,12 @@ public final class CompMonsterEgg {
 		Valid.checkNotNull(item, "setting nbt got null item");
 		Valid.checkNotNull(type, "setting nbt got null entity");
 
-		final NBTItem nbt = new NBTItem(item);
+		final NBTItem nbt = new NBTItem(item).startSession();
 		final NBTCompound tag = nbt.addCompound(TAG);
 
 		tag.setString("entity", type.toString());
+		nbt.commitSession();
+
 		return nbt.getItem();
 	}
 }
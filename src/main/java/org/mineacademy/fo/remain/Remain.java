@@ -82,6 +82,8 @@ import org.mineacademy.fo.MinecraftVersion;
 import org.mineacademy.fo.MinecraftVersion.V;
 import org.mineacademy.fo.PlayerUtil;
 import org.mineacademy.fo.ReflectionUtil;
+import org.mineacademy.fo.ReflectionUtil.FieldAccessor;
+import org.mineacademy.fo.ReflectionUtil.MethodAccessor;
 import org.mineacademy.fo.ReflectionUtil.ReflectionException;
 import org.mineacademy.fo.Valid;
 import org.mineacademy.fo.collection.SerializedMap;
@@ -148,6 +150,13 @@ public final class Remain {
 	 */
 	private static Method sendPacket;
 
+	/**
+	 * The three members above bound for fast access when sending packets
+	 */
+	private static MethodAccessor getHandleAccessor;
+	private static FieldAccessor playerConnectionAccessor;
+	private static MethodAccessor sendPacketAccessor;
+
 	// ----------------------------------------------------------------------------------------------------
 	// Flags below
 	// ----------------------------------------------------------------------------------------------------
@@ -275,6 +284,10 @@ public final class Remain {
 				sendPacket = getNMSClass(hasNMS ? "PlayerConnection" : "NetServerHandler", "net.minecraft.server.network.PlayerConnection")
 						.getMethod(MinecraftVersion.atLeast(V.v1_18) ? "a" : "sendPacket", getNMSClass("Packet", "net.minecraft.network.protocol.Packet"));
 
+				getHandleAccessor = ReflectionUtil.bind(getHandle);
+				playerConnectionAccessor = ReflectionUtil.bind(fieldPlayerConnection);
+				sendPacketAccessor = ReflectionUtil.bind(sendPacket);
+
 			} catch (final Throwable t) {
 				Bukkit.getLogger().warning("Unable to find setup some parts of reflection. Plugin will still function.");
 				Bukkit.getLogger().warning("Error: " + t.getClass().getSimpleName() + ": " + t.getMessage());
@@ -283,6 +296,10 @@ public final class Remain {
 				fieldPlayerConnection = null;
 				sendPacket = null;
 				getHandle = null;
+
+				getHandleAccessor = null;
+				playerConnectionAccessor = null;
+				sendPacketAccessor = null;
 			}
 
 			// Load mandatory parts
@@ -435,20 +452,20 @@ public final class Remain {
 	 * @param packet the packet
 	 */
 	public static void sendPacket(final Player player, final Object packet) {
-		if (getHandle == null || fieldPlayerConnection == null || sendPacket == null) {
+		if (getHandleAccessor == null || playerConnectionAccessor == null || sendPacketAccessor == null) {
 			Common.log("Cannot send packet " + packet.getClass().getSimpleName() + " on your server sofware (known to be broken on Cauldron).");
 
 			return;
 		}
 
 		try {
-			final Object handle = getHandle.invoke(player);
-			final Object playerConnection = fieldPlayerConnection.get(handle);
+			final Object handle = getHandleAccessor.invoke(player);
+			final Object playerConnection = playerConnectionAccessor.get(handle);
 
-			sendPacket.invoke(playerConnection, packet);
+			sendPacketAccessor.invoke(playerConnection, packet);
 
-		} catch (final ReflectiveOperationException ex) {
-			throw new ReflectionException(ex, "Error sending packet " + packet.getClass() + " to player " + player.getName());
+		} catch (final ReflectionException ex) {
+			throw new ReflectionException(ex.getCause(), "Error sending packet " + packet.getClass() + " to player " + player.getName());
 		}
 	}
 
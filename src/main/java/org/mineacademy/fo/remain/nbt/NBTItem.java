@@ -17,6 +17,18 @@ public class NBTItem extends NBTCompound {
 	private final boolean directApply;
 	private ItemStack originalSrcStack = null;
 
+	/**
+	 * When true, the item is not cloned and the NBT cannot be changed, see {@link #readOnly(ItemStack)}
+	 */
+	private final boolean readOnly;
+
+	/**
+	 * The NMS tag all reads and writes go to while a session is open, see {@link #startSession()}
+	 */
+	private Object sessionCompound;
+	private boolean sessionOpen = false;
+	private boolean sessionChanged = false;
+
 	/**
 	 * Constructor for NBTItems. The ItemStack will be cloned!
 	 *
@@ -35,22 +47,93 @@ public class NBTItem extends NBTCompound {
 	 * @param directApply
 	 */
 	public NBTItem(ItemStack item, boolean directApply) {
+		this(item, directApply, false);
+	}
+
+	private NBTItem(ItemStack item, boolean directApply, boolean readOnly) {
 		super(null, null);
 		if (item == null || item.getType() == Material.AIR)
 			throw new NullPointerException("ItemStack can't be null/Air! This is not a NBTAPI bug!");
 		this.directApply = directApply;
-		this.bukkitItem = item.clone();
+		this.readOnly = readOnly;
+		this.bukkitItem = readOnly ? item : item.clone();
 		if(directApply)
 			this.originalSrcStack = item;
 	}
 
+	/**
+	 * Creates a NBTItem for reading only. The ItemStack is not cloned and its
+	 * NMS tag is copied just once, so all hasKey/getString etc. lookups are cheap.
+	 * Any attempt to change the NBT throws {@link UnsupportedOperationException}.
+	 *
+	 * @param item
+	 * @return
+	 */
+	public static NBTItem readOnly(ItemStack item) {
+		final NBTItem nbt = new NBTItem(item, false, true);
+		nbt.startSession();
+
+		return nbt;
+	}
+
+	/**
+	 * Copies the NMS tag once and serves all following reads and writes from
+	 * that copy, including those of sub compounds, until {@link #commitSession()}
+	 * writes the changes back to the item in one go.
+	 *
+	 * @return this NBTItem
+	 */
+	public NBTItem startSession() {
+		if (!this.sessionOpen) {
+			this.sessionCompound = this.getCompound();
+			this.sessionChanged = false;
+			this.sessionOpen = true;
+		}
+
+		return this;
+	}
+
+	/**
+	 * Writes changes made since {@link #startSession()} back to the item and closes the session
+	 */
+	public void commitSession() {
+		if (!this.sessionOpen)
+			return;
+
+		this.sessionOpen = false;
+
+		if (this.sessionChanged) {
+			this.setCompound(this.sessionCompound);
+			this.saveCompound();
+		}
+
+		this.sessionCompound = null;
+		this.sessionChanged = false;
+	}
+
+	/**
+	 * @return true if a session started by {@link #startSession()} is open
+	 */
+	public boolean isSessionOpen() {
+		return this.sessionOpen;
+	}
+
 	@Override
 	public Object getCompound() {
+		if (this.sessionOpen)
+			return this.sessionCompound;
 		return NBTReflectionUtil.getItemRootNBTTagCompound(ReflectionMethod.ITEMSTACK_NMSCOPY.run(null, this.bukkitItem));
 	}
 
 	@Override
 	protected void setCompound(Object compound) {
+		if (this.readOnly)
+			throw new UnsupportedOperationException("Cannot change NBT of a read-only NBTItem!");
+		if (this.sessionOpen) {
+			this.sessionCompound = compound;
+			this.sessionChanged = true;
+			return;
+		}
 		final Object stack = ReflectionMethod.ITEMSTACK_NMSCOPY.run(null, this.bukkitItem);
 		ReflectionMethod.ITEMSTACK_SET_TAG.run(stack, compound);
 		this.bukkitItem = (ItemStack) ReflectionMethod.ITEMSTACK_BUKKITMIRROR.run(null, stack);
@@ -93,7 +176,7 @@ public class NBTItem extends NBTCompound {
 		if (item == null || item.getType() == Material.AIR)
 			throw new NullPointerException("ItemStack can't be null/Air!");
 		final ItemMeta meta = item.getItemMeta();
-		NBTReflectionUtil.getUnhandledNBTTags(meta).putAll(NBTReflectionUtil.getUnhandledNBTTags(this.bukkitItem.getItemMeta()));
+		NBTReflectionUtil.getUnhandledNBTTags(meta).putAll(NBTReflectionUtil.getUnhandledNBTTags(this.getItem().getItemMeta()));
 		item.setItemMeta(meta);
 	}
 
@@ -104,7 +187,7 @@ public class NBTItem extends NBTCompound {
 	 * @return true when custom tags are present
 	 */
 	public boolean hasCustomNbtData() {
-        final ItemMeta meta = this.bukkitItem.getItemMeta();
+        final ItemMeta meta = this.getItem().getItemMeta();
         return !NBTReflectionUtil.getUnhandledNBTTags(meta).isEmpty();
 	}
 
@@ -112,15 +195,25 @@ public class NBTItem extends NBTCompound {
 	 * Remove all custom (non-vanilla) NBT tags from the NBTItem.
 	 */
 	public void clearCustomNBT() {
+		if (this.readOnly)
+			throw new UnsupportedOperationException("Cannot change NBT of a read-only NBTItem!");
+		final boolean hadSession = this.sessionOpen;
+		this.commitSession();
 		final ItemMeta meta = this.bukkitItem.getItemMeta();
 		NBTReflectionUtil.getUnhandledNBTTags(meta).clear();
 		this.bukkitItem.setItemMeta(meta);
+		if (hadSession)
+			this.startSession();
 	}
 
 	/**
-	 * @return The modified ItemStack
+	 * @return The modified ItemStack, including changes of an open session
 	 */
 	public ItemStack getItem() {
+		if (this.sessionOpen && this.sessionChanged) {
+			this.commitSession();
+			this.startSession();
+		}
 		return this.bukkitItem;
 	}
 
@@ -162,7 +255,7 @@ public class NBTItem extends NBTCompound {
 
 	@Override
 	protected void saveCompound() {
-		if(this.directApply)
+		if(this.directApply && !this.sessionOpen)
 			this.applyNBT(this.originalSrcStack);
 	}
 
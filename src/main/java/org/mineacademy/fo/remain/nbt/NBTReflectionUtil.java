@@ -14,6 +14,7 @@ import java.util.UUID;
 import org.bukkit.block.BlockState;
 import org.bukkit.entity.Entity;
 import org.bukkit.inventory.meta.ItemMeta;
+import org.mineacademy.fo.ReflectionUtil.FieldAccessor;
 import org.mineacademy.fo.exception.FoException;
 
 import com.google.gson.Gson;
@@ -29,12 +30,12 @@ public class NBTReflectionUtil {
 
 	private static final Gson gson = new Gson();
 
-	private static Field field_unhandledTags = null;
+	private static FieldAccessor field_unhandledTags = null;
 
 	static {
 		try {
-			field_unhandledTags = ClassWrapper.CRAFT_METAITEM.getClazz().getDeclaredField("unhandledTags");
-			field_unhandledTags.setAccessible(true);
+			final Field field = ClassWrapper.CRAFT_METAITEM.getClazz().getDeclaredField("unhandledTags");
+			field_unhandledTags = org.mineacademy.fo.ReflectionUtil.bind(field);
 		} catch (final NoSuchFieldException e) {
 
 		}
@@ -171,7 +172,7 @@ public class NBTReflectionUtil {
 	 */
 	public static Map<String, Object> getUnhandledNBTTags(ItemMeta meta) {
 		try {
-			return (Map<String, Object>) field_unhandledTags.get(meta);
+			return field_unhandledTags.get(meta);
 		} catch (final Exception e) {
 			throw new FoException("Exception while getting unhandled tags from ItemMeta!", e);
 		}
@@ -7,6 +7,7 @@ import java.util.Arrays;
 import java.util.UUID;
 
 import org.bukkit.inventory.ItemStack;
+import org.mineacademy.fo.ReflectionUtil.MethodAccessor;
 import org.mineacademy.fo.exception.FoException;
 
 /**
@@ -118,6 +119,7 @@ enum ReflectionMethod {
 	private MinecraftVersion removedAfter;
 	private Since targetVersion;
 	private Method method;
+	private MethodAccessor accessor;
 	private boolean loaded = false;
 	private boolean compatible = false;
 	private String methodName = null;
@@ -175,7 +177,9 @@ enum ReflectionMethod {
 		if (this.method == null)
 			throw new FoException("Method not loaded! '" + this + "'");
 		try {
-			return this.method.invoke(target, args);
+			if (this.accessor == null)
+				this.accessor = org.mineacademy.fo.ReflectionUtil.bind(this.method);
+			return this.accessor.invokeWithArguments(target, args);
 		} catch (final Exception ex) {
 			throw new FoException("Error while calling the method '" + this.methodName + "', loaded: " + this.loaded + ", Enum: " + this + " Passed Class: " + target.getClass(), ex);
 		}
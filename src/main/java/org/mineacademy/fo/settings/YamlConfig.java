@@ -6,6 +6,8 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.io.Writer;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
@@ -18,12 +20,19 @@ import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
 import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 
 import org.bukkit.Bukkit;
 import org.bukkit.Location;
 import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.InvalidConfigurationException;
+import org.bukkit.configuration.serialization.ConfigurationSerializable;
+import org.bukkit.configuration.serialization.ConfigurationSerialization;
 import org.bukkit.enchantments.Enchantment;
 import org.bukkit.entity.Player;
 import org.bukkit.event.entity.CreatureSpawnEvent.SpawnReason;
@@ -38,6 +47,7 @@ import org.mineacademy.fo.collection.SerializedMap;
 import org.mineacademy.fo.collection.StrictList;
 import org.mineacademy.fo.collection.StrictMap;
 import org.mineacademy.fo.collection.StrictSet;
+import org.mineacademy.fo.collection.expiringmap.NamedThreadFactory;
 import org.mineacademy.fo.constants.FoConstants;
 import org.mineacademy.fo.debug.Debugger;
 import org.mineacademy.fo.exception.FoException;
@@ -136,11 +146,32 @@ public class YamlConfig {
 	 * Clear the list of loaded files
 	 */
 	public static final void clearLoadedFiles() {
+		flushPendingSaves();
+
 		synchronized (loadedFiles) {
 			loadedFiles.clear();
 		}
 	}
 
+	/**
+	 * Write all files whose save is still waiting on the save thread
+	 * and wait for writes in progress to finish
+	 * <p>
+	 * Called automatically when the plugin is reloaded or disabled
+	 */
+	public static final void flushPendingSaves() {
+		ConfigInstance.flushPendingSaves();
+	}
+
+	/**
+	 * Stop the thread writing config files, waiting for the write in progress to finish
+	 * <p>
+	 * Called automatically when the plugin is disabled, after {@link #flushPendingSaves()}
+	 */
+	public static final void shutdownSaveThread() {
+		ConfigInstance.shutdownSaveThread();
+	}
+
 	/**
 	 * Remove a loaded file from {@link #loadedFiles}
 	 *
@@ -2040,6 +2071,26 @@ public class YamlConfig {
 @RequiredArgsConstructor
 final class ConfigInstance {
 
+	/**
+	 * How long to wait after a save before writing the file, saves made meanwhile are merged
+	 */
+	private static final long SAVE_DELAY_MILLIS = 1_000;
+
+	/**
+	 * The thread dumping and writing config files, or null if not yet started or shut down
+	 */
+	private static ScheduledExecutorService saveThread;
+
+	/**
+	 * Instances with a snapshot waiting to be written
+	 */
+	private static final Set<ConfigInstance> pendingInstances = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * The latest snapshot of values waiting to be written, or null if none
+	 */
+	private final AtomicReference<Map<String, Object>> pendingValues = new AtomicReference<>();
+
 	/**
 	 * The file this configuration belongs to.
 	 */
@@ -2107,29 +2158,196 @@ final class ConfigInstance {
 			if (!writeComments()) {
 
 				// Pull the data on the main thread
-				final Map<String, Object> values = config.getValues(false);
+				final Map<String, Object> values = snapshot(config.getValues(false));
 
-				try {
+				// Write at once when the plugin is not running, such as when saving on disable
+				if (SimplePlugin.getInstance().isEnabled())
+					this.queueWrite(values);
+				else
+					this.write(values);
+			}
 
-					// Yaml#dump should be save async... note that this also builds header
-					final String data = config.saveToString(values);
-					Files.createParentDirs(file);
+		} catch (final Exception ex) {
+			Common.error(ex, "Failed to save " + file.getName());
+		}
+	}
 
-					final Writer writer = new OutputStreamWriter(new FileOutputStream(file), Charsets.UTF_8);
+	/*
+	 * Copy sections, collections and serializable objects so that the main thread
+	 * can keep changing the config while the snapshot is being written
+	 */
+	private static Map<String, Object> snapshot(final Map<String, Object> values) {
+		final Map<String, Object> copy = new LinkedHashMap<>(values.size());
 
-					try {
-						writer.write(data);
-					} finally {
-						writer.close();
-					}
+		for (final Map.Entry<String, Object> entry : values.entrySet())
+			copy.put(entry.getKey(), snapshotValue(entry.getValue()));
 
-				} catch (final Throwable t) {
-					Common.error(t);
-				}
+		return copy;
+	}
+
+	/*
+	 * Copy a single value for the snapshot, see above
+	 */
+	private static Object snapshotValue(final Object value) {
+		if (value instanceof ConfigurationSection)
+			return snapshot(((ConfigurationSection) value).getValues(false));
+
+		// Serialize such as items or locations now the same way Bukkit would when dumping them
+		if (value instanceof ConfigurationSerializable) {
+			final ConfigurationSerializable serializable = (ConfigurationSerializable) value;
+			final Map<String, Object> serialized = new LinkedHashMap<>();
+
+			serialized.put(ConfigurationSerialization.SERIALIZED_TYPE_KEY, ConfigurationSerialization.getAlias(serializable.getClass()));
+			serialized.putAll(serializable.serialize());
+
+			return snapshotValue(serialized);
+		}
+
+		if (value instanceof Map) {
+			final Map<Object, Object> copy = new LinkedHashMap<>();
+
+			for (final Map.Entry<?, ?> entry : ((Map<?, ?>) value).entrySet())
+				copy.put(entry.getKey(), snapshotValue(entry.getValue()));
+
+			return copy;
+		}
+
+		if (value instanceof Collection) {
+			final List<Object> copy = new ArrayList<>(((Collection<?>) value).size());
+
+			for (final Object element : (Collection<?>) value)
+				copy.add(snapshotValue(element));
+
+			return copy;
+		}
+
+		return value;
+	}
+
+	/*
+	 * Store the snapshot and schedule writing it unless a write is already
+	 * scheduled, in which case that write picks up the newest snapshot
+	 */
+	private void queueWrite(final Map<String, Object> values) {
+		if (this.pendingValues.getAndSet(values) == null) {
+			pendingInstances.add(this);
+
+			getSaveThread().schedule(this::writePending, SAVE_DELAY_MILLIS, TimeUnit.MILLISECONDS);
+		}
+	}
+
+	/*
+	 * Return the save thread, starting it if needed
+	 */
+	private static synchronized ScheduledExecutorService getSaveThread() {
+		if (saveThread == null)
+			saveThread = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("Foundation Config Saver %d"));
+
+		return saveThread;
+	}
+
+	/*
+	 * Write the latest snapshot if there is any
+	 */
+	private synchronized void writePending() {
+		pendingInstances.remove(this);
+
+		final Map<String, Object> values = this.pendingValues.getAndSet(null);
+
+		if (values != null)
+			this.write(values);
+	}
+
+	/*
+	 * Dump the values and write them into a temporary file that then replaces
+	 * our file, so that a crash never leaves it half written
+	 */
+	private synchronized void write(final Map<String, Object> values) {
+		final File tempFile = new File(file.getParentFile(), file.getName() + ".tmp");
+
+		try {
+
+			// Yaml#dump should be save async... note that this also builds header
+			final String data = config.saveToString(values);
+			Files.createParentDirs(file);
+
+			final FileOutputStream outputStream = new FileOutputStream(tempFile);
+			final Writer writer = new OutputStreamWriter(outputStream, Charsets.UTF_8);
+
+			try {
+				writer.write(data);
+				writer.flush();
+
+				outputStream.getFD().sync();
+			} finally {
+				writer.close();
 			}
 
+			try {
+				java.nio.file.Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+			} catch (final AtomicMoveNotSupportedException ex) {
+				java.nio.file.Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+			}
+
+		} catch (final Throwable t) {
+			tempFile.delete();
+
+			Common.error(t, "Failed to save " + file.getName());
+		}
+	}
+
+	/**
+	 * Write all pending snapshots on the calling thread and wait for the save thread
+	 * to finish the write it is currently doing
+	 */
+	static void flushPendingSaves() {
+		for (final ConfigInstance instance : pendingInstances)
+			instance.writePending();
+
+		final ScheduledExecutorService thread;
+
+		synchronized (ConfigInstance.class) {
+			thread = saveThread;
+		}
+
+		if (thread == null)
+			return;
+
+		try {
+			thread.submit(() -> {
+			}).get(10, TimeUnit.SECONDS);
+
 		} catch (final Exception ex) {
-			Common.error(ex, "Failed to save " + file.getName());
+			Common.error(ex, "Failed to wait for config files to be saved");
+		}
+	}
+
+	/**
+	 * Shut the save thread down and wait for it to finish so that it does not
+	 * outlive the plugin, it is started again on the next save
+	 */
+	static void shutdownSaveThread() {
+		final ScheduledExecutorService thread;
+
+		synchronized (ConfigInstance.class) {
+			thread = saveThread;
+			saveThread = null;
+		}
+
+		if (thread == null)
+			return;
+
+		thread.shutdown();
+
+		try {
+			if (!thread.awaitTermination(10, TimeUnit.SECONDS))
+				thread.shutdownNow();
+
+		} catch (final InterruptedException ex) {
+			thread.shutdownNow();
+
+			Thread.currentThread().interrupt();
 		}
 	}
 
@@ -2154,6 +2372,8 @@ final class ConfigInstance {
 	 * @throws Exception
 	 */
 	protected void reload() throws IOException, InvalidConfigurationException {
+		this.writePending();
+
 		config.load(file);
 	}
 
@@ -2163,6 +2383,11 @@ final class ConfigInstance {
 	protected void delete() {
 		YamlConfig.unregisterLoadedFile(file);
 
+		synchronized (this) {
+			pendingInstances.remove(this);
+			this.pendingValues.set(null);
+		}
+
 		file.delete();
 	}
 
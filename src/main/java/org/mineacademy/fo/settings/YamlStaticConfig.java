@@ -1,19 +1,15 @@
 package org.mineacademy.fo.settings;
 
-import java.io.IOException;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.Enumeration;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Set;
 import java.util.TreeMap;
-import java.util.jar.JarEntry;
-import java.util.jar.JarFile;
 
 import org.bukkit.configuration.file.FileConfiguration;
 import org.bukkit.enchantments.Enchantment;
@@ -123,19 +119,13 @@ public abstract class YamlStaticConfig {
 				loadedManually = true;
 
 		// Step 2: See if there is a file found in the plugin jar
-		try (JarFile jarFile = new JarFile(SimplePlugin.getSource())) {
+		for (final String name : ReflectionUtil.getJarEntries(SimplePlugin.getInstance()))
+			if (name.matches(nameMatcher)) {
+				fileExists = true;
 
-			for (final Enumeration<JarEntry> it = jarFile.entries(); it.hasMoreElements();) {
-				final JarEntry type = it.nextElement();
-				final String name = type.getName();
-
-				if (name.matches(nameMatcher))
-					fileExists = true;
+				break;
 			}
 
-		} catch (final IOException ex) {
-		}
-
 		// If there is no file or it has been loaded manually, skip
 		if (loadedManually || !fileExists)
 			return manuallyLoadedClasses;
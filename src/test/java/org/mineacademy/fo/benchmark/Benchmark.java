@@ -0,0 +1,113 @@
+package org.mineacademy.fo.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * A small timing harness shared by the benchmarks in src/test.
+ * <p>
+ * Each operation is warmed up first, then run for a fixed time on the given
+ * amount of threads, and the throughput is printed. Results are consumed so that
+ * the JIT cannot remove the work. This is not JMH, so only compare numbers
+ * measured on the same machine in the same run.
+ * <p>
+ * Run a benchmark from your IDE or with:
+ * mvn test-compile exec:java -Dexec.classpathScope=test -Dexec.mainClass=org.mineacademy.fo.benchmark.MathUtilBenchmark
+ */
+public final class Benchmark {
+
+	/**
+	 * How long each operation runs before measuring
+	 */
+	private static final long WARMUP_MILLIS = 2_000;
+
+	/**
+	 * How long each operation is measured
+	 */
+	private static final long MEASURE_MILLIS = 5_000;
+
+	/**
+	 * Results of operations, stored so that their work is not optimized away
+	 */
+	private static volatile Object sink;
+
+	private Benchmark() {
+	}
+
+	/**
+	 * Measure the operation on the calling thread and print the result
+	 *
+	 * @param name
+	 * @param operation
+	 */
+	public static void run(final String name, final Supplier<?> operation) {
+		run(name, 1, operation);
+	}
+
+	/**
+	 * Measure the operation called from the given amount of threads at once and print the result
+	 *
+	 * @param name
+	 * @param threads
+	 * @param operation
+	 */
+	public static void run(final String name, final int threads, final Supplier<?> operation) {
+		measure(operation, threads, WARMUP_MILLIS);
+
+		final long operations = measure(operation, threads, MEASURE_MILLIS);
+		final double perSecond = operations * 1_000D / MEASURE_MILLIS;
+		final double nanosPerOperation = threads * MEASURE_MILLIS * 1_000_000D / Math.max(1, operations);
+
+		System.out.println(String.format("%-50s %3d thread(s) %,16.0f ops/s %,12.1f ns/op", name, threads, perSecond, nanosPerOperation));
+	}
+
+	/*
+	 * Run the operation on the threads for the given time and return how many times it was called
+	 */
+	private static long measure(final Supplier<?> operation, final int threads, final long millis) {
+		final LongAdder operations = new LongAdder();
+		final CountDownLatch start = new CountDownLatch(1);
+		final Thread[] workers = new Thread[threads];
+
+		for (int i = 0; i < threads; i++) {
+			workers[i] = new Thread(() -> {
+				try {
+					start.await();
+
+				} catch (final InterruptedException ex) {
+					return;
+				}
+
+				final long deadline = System.nanoTime() + millis * 1_000_000L;
+				Object result = null;
+				long count = 0;
+
+				do {
+					for (int batch = 0; batch < 64; batch++)
+						result = operation.get();
+
+					count += 64;
+
+				} while (System.nanoTime() < deadline);
+
+				operations.add(count);
+				sink = result;
+			}, "Benchmark " + i);
+
+			workers[i].start();
+		}
+
+		start.countDown();
+
+		for (final Thread worker : workers)
+			try {
+				worker.join();
+
+			} catch (final InterruptedException ex) {
+				Thread.currentThread().interrupt();
+			}
+
+		return operations.sum();
+	}
+}
@@ -0,0 +1,55 @@
+package org.mineacademy.fo.benchmark;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.mineacademy.fo.collection.expiringmap.ExpiringMap;
+import org.mineacademy.fo.collection.expiringmap.WheelExpiringMap;
+
+/**
+ * Compares {@link ExpiringMap} with {@link WheelExpiringMap} under contention from 8 to 32 threads,
+ * using them like the 500ms variable caches: mostly reads of a small set of keys with some writes.
+ * <p>
+ * Contention only shows with as many cores as threads, run this on such a machine.
+ */
+public final class ExpiringMapBenchmark {
+
+	/**
+	 * How many different keys are used
+	 */
+	private static final int KEYS = 1_000;
+
+	/**
+	 * How many of 100 operations are writes
+	 */
+	private static final int WRITE_PERCENT = 10;
+
+	public static void main(final String[] args) {
+		final String[] keys = new String[KEYS];
+
+		for (int i = 0; i < KEYS; i++)
+			keys[i] = "key-" + i;
+
+		for (final int threads : new int[] { 8, 16, 32 }) {
+			final Map<String, String> expiringMap = ExpiringMap.builder().expiration(500, TimeUnit.MILLISECONDS).build();
+			final Map<String, String> wheelMap = WheelExpiringMap.builder().expiration(500, TimeUnit.MILLISECONDS).build();
+
+			Benchmark.run("ExpiringMap", threads, () -> access(expiringMap, keys));
+			Benchmark.run("WheelExpiringMap", threads, () -> access(wheelMap, keys));
+		}
+	}
+
+	/*
+	 * Read a random key, or write it in some cases
+	 */
+	private static String access(final Map<String, String> map, final String[] keys) {
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		final String key = keys[random.nextInt(keys.length)];
+
+		if (random.nextInt(100) < WRITE_PERCENT)
+			return map.put(key, key);
+
+		return map.get(key);
+	}
+}
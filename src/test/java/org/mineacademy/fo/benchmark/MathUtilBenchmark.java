@@ -0,0 +1,66 @@
+package org.mineacademy.fo.benchmark;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.mineacademy.fo.MathUtil;
+import org.mineacademy.fo.MathUtil.Expression;
+
+/**
+ * Compares evaluating a formula the way configs did, by replacing its variables
+ * and calling {@link MathUtil#calculate(String)}, with evaluating it once compiled
+ * by {@link MathUtil#compile(String)}.
+ */
+public final class MathUtilBenchmark {
+
+	/**
+	 * A price scaling formula like those in configs
+	 */
+	private static final String FORMULA = "(base + level * 2.5) ^ 1.2 / (1 + discount / 100)";
+
+	public static void main(final String[] args) {
+		final Expression expression = MathUtil.compile(FORMULA);
+		final double[] values = new double[expression.getVariables().length];
+
+		final int baseIndex = expression.getVariableIndex("base");
+		final int levelIndex = expression.getVariableIndex("level");
+		final int discountIndex = expression.getVariableIndex("discount");
+
+		final Map<String, Double> map = new HashMap<>();
+
+		Benchmark.run("replace + calculate, new numbers each time", () -> {
+			final ThreadLocalRandom random = ThreadLocalRandom.current();
+
+			return MathUtil.calculate(FORMULA
+					.replace("base", String.valueOf(random.nextInt(100)))
+					.replace("level", String.valueOf(random.nextInt(1_000)))
+					.replace("discount", String.valueOf(random.nextInt(50))));
+		});
+
+		Benchmark.run("replace + calculate, same numbers", () -> MathUtil.calculate(FORMULA
+				.replace("base", "50")
+				.replace("level", "10")
+				.replace("discount", "20")));
+
+		Benchmark.run("compiled evaluate(double...)", () -> {
+			final ThreadLocalRandom random = ThreadLocalRandom.current();
+
+			values[baseIndex] = random.nextInt(100);
+			values[levelIndex] = random.nextInt(1_000);
+			values[discountIndex] = random.nextInt(50);
+
+			return expression.evaluate(values);
+		});
+
+		Benchmark.run("compiled evaluate(Map)", () -> {
+			final ThreadLocalRandom random = ThreadLocalRandom.current();
+
+			map.put("base", (double) random.nextInt(100));
+			map.put("level", (double) random.nextInt(1_000));
+			map.put("discount", (double) random.nextInt(50));
+
+			return expression.evaluate(map);
+		});
+	}
+}
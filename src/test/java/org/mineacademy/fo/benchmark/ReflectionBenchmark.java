@@ -0,0 +1,56 @@
+package org.mineacademy.fo.benchmark;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+
+import org.mineacademy.fo.ReflectionUtil;
+import org.mineacademy.fo.ReflectionUtil.FieldAccessor;
+import org.mineacademy.fo.ReflectionUtil.MethodAccessor;
+
+/**
+ * Compares {@link ReflectionUtil#invoke(Method, Object, Object...)} and reading fields
+ * through reflection with the accessors from {@link ReflectionUtil#bind(Method)}
+ * and {@link ReflectionUtil#bind(Field)}.
+ */
+public final class ReflectionBenchmark {
+
+	public static void main(final String[] args) throws ReflectiveOperationException {
+		final Target target = new Target();
+
+		final Method method = Target.class.getDeclaredMethod("add", int.class);
+		final Field field = Target.class.getDeclaredField("value");
+
+		method.setAccessible(true);
+		field.setAccessible(true);
+
+		final MethodAccessor methodAccessor = ReflectionUtil.bind(method);
+		final FieldAccessor fieldAccessor = ReflectionUtil.bind(field);
+
+		final Integer argument = 1;
+
+		Benchmark.run("ReflectionUtil.invoke", () -> ReflectionUtil.invoke(method, target, argument));
+		Benchmark.run("MethodAccessor.invoke", () -> methodAccessor.invoke(target, argument));
+
+		Benchmark.run("Field.get", () -> {
+			try {
+				return field.get(target);
+
+			} catch (final IllegalAccessException ex) {
+				throw new IllegalStateException(ex);
+			}
+		});
+		Benchmark.run("FieldAccessor.get", () -> fieldAccessor.get(target));
+	}
+
+	/*
+	 * A class with private members, like the server classes we reach through reflection
+	 */
+	private static final class Target {
+
+		private int value;
+
+		private int add(final int amount) {
+			return this.value += amount;
+		}
+	}
+}
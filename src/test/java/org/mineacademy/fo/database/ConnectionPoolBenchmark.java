@@ -0,0 +1,146 @@
+package org.mineacademy.fo.database;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.mineacademy.fo.benchmark.Benchmark;
+import org.mineacademy.fo.database.ConnectionPool.PooledConnection;
+
+/**
+ * Compares loading and saving rows like {@link SimpleFlatDatabase} does through the single
+ * shared connection with SQL built from strings, as {@link SimpleDatabase} used to,
+ * with the {@link ConnectionPool} and its cached prepared statements.
+ * <p>
+ * Runs against an in-memory H2 database in MySQL mode, so the numbers show the cost on
+ * our side rather than the network. The pool gains more against a real server.
+ */
+public final class ConnectionPoolBenchmark {
+
+	/**
+	 * The in-memory database, kept open until the benchmark ends
+	 */
+	private static final String URL = "jdbc:h2:mem:benchmark;MODE=MySQL;DB_CLOSE_DELAY=-1";
+
+	/**
+	 * How many rows the table has
+	 */
+	private static final int ROWS = 1_000;
+
+	/**
+	 * How many of 100 operations are saves, the rest are loads
+	 */
+	private static final int SAVE_PERCENT = 20;
+
+	/**
+	 * The connections in the pool, the default of {@link SimpleDatabase#getPoolSize()}
+	 */
+	private static final int POOL_SIZE = 4;
+
+	public static void main(final String[] args) throws SQLException {
+		final UUID[] uuids = new UUID[ROWS];
+
+		try (Connection setup = DriverManager.getConnection(URL, "sa", "")) {
+			try (Statement statement = setup.createStatement()) {
+				statement.executeUpdate("CREATE TABLE Players(UUID varchar(64), Name text, Data text, Updated bigint)");
+			}
+
+			try (PreparedStatement statement = setup.prepareStatement("INSERT INTO Players(UUID, Name, Data, Updated) VALUES (?, ?, ?, ?)")) {
+				for (int i = 0; i < ROWS; i++) {
+					uuids[i] = UUID.randomUUID();
+
+					statement.setString(1, uuids[i].toString());
+					statement.setString(2, "Player" + i);
+					statement.setString(3, json(i));
+					statement.setString(4, String.valueOf(System.currentTimeMillis()));
+					statement.addBatch();
+				}
+
+				statement.executeBatch();
+			}
+		}
+
+		final Connection connection = DriverManager.getConnection(URL, "sa", "");
+		final ConnectionPool pool = new ConnectionPool(URL, "sa", "", POOL_SIZE, 64);
+
+		for (final int threads : new int[] { 1, POOL_SIZE }) {
+			Benchmark.run("single connection, SQL from strings", threads, () -> accessSingle(connection, uuids));
+			Benchmark.run("pool, cached prepared statements", threads, () -> accessPooled(pool, uuids));
+		}
+
+		pool.close();
+		connection.close();
+	}
+
+	/*
+	 * Load or save a random row through the shared connection, one query at a time
+	 */
+	private static Object accessSingle(final Connection connection, final UUID[] uuids) {
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		final UUID uuid = uuids[random.nextInt(uuids.length)];
+
+		synchronized (connection) {
+			try (Statement statement = connection.createStatement()) {
+				if (random.nextInt(100) < SAVE_PERCENT)
+					return statement.executeUpdate("UPDATE Players SET Data='" + json(random.nextInt()) + "', Updated='" + System.currentTimeMillis() + "' WHERE UUID='" + uuid + "';");
+
+				try (ResultSet resultSet = statement.executeQuery("SELECT * FROM Players WHERE UUID='" + uuid + "'")) {
+					return resultSet.next() ? resultSet.getString("Data") : null;
+				}
+
+			} catch (final SQLException ex) {
+				throw new IllegalStateException(ex);
+			}
+		}
+	}
+
+	/*
+	 * Load or save a random row through a connection from the pool
+	 */
+	private static Object accessPooled(final ConnectionPool pool, final UUID[] uuids) {
+		final ThreadLocalRandom random = ThreadLocalRandom.current();
+		final UUID uuid = uuids[random.nextInt(uuids.length)];
+
+		PooledConnection pooled = null;
+
+		try {
+			pooled = pool.borrow();
+
+			if (random.nextInt(100) < SAVE_PERCENT) {
+				final PreparedStatement statement = pooled.prepare("UPDATE Players SET Data=?, Updated=? WHERE UUID=?");
+
+				statement.setString(1, json(random.nextInt()));
+				statement.setString(2, String.valueOf(System.currentTimeMillis()));
+				statement.setString(3, uuid.toString());
+
+				return statement.executeUpdate();
+			}
+
+			final PreparedStatement statement = pooled.prepare("SELECT * FROM Players WHERE UUID=?");
+			statement.setString(1, uuid.toString());
+
+			try (ResultSet resultSet = statement.executeQuery()) {
+				return resultSet.next() ? resultSet.getString("Data") : null;
+			}
+
+		} catch (final SQLException ex) {
+			throw new IllegalStateException(ex);
+
+		} finally {
+			if (pooled != null)
+				pool.release(pooled);
+		}
+	}
+
+	/*
+	 * Return player data like plugins store it
+	 */
+	private static String json(final int seed) {
+		return "{\"Kills\":" + seed + ",\"Rank\":\"Member\",\"Settings\":{\"Chat\":true,\"Sounds\":false}}";
+	}
+}
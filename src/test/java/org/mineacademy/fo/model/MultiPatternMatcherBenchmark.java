@@ -0,0 +1,141 @@
+package org.mineacademy.fo.model;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.BiPredicate;
+import java.util.function.UnaryOperator;
+import java.util.regex.Pattern;
+
+import org.mineacademy.fo.Valid;
+import org.mineacademy.fo.benchmark.Benchmark;
+
+/**
+ * Compares {@link MultiPatternMatcher} with running rules one by one like
+ * {@link Valid#isInListRegex(String, Iterable)} does, for 100, 1,000 and 10,000 rules
+ * checked against chat messages.
+ * <p>
+ * Patterns are compiled case insensitive like with the default regex settings.
+ * Messages are not normalized and have no timeout, so only matching is measured.
+ */
+public final class MultiPatternMatcherBenchmark {
+
+	/**
+	 * The flags of patterns from the default regex settings
+	 */
+	private static final int FLAGS = Pattern.CASE_INSENSITIVE;
+
+	/**
+	 * How many different messages are checked
+	 */
+	private static final int MESSAGES = 1_000;
+
+	/**
+	 * How many of 100 messages contain a word a rule catches
+	 */
+	private static final int HIT_PERCENT = 5;
+
+	public static void main(final String[] args) {
+		final Random random = new Random(42);
+
+		for (final int size : new int[] { 100, 1_000, 10_000 }) {
+			final List<String> words = new ArrayList<>();
+			final Map<String, Pattern> patterns = new LinkedHashMap<>();
+
+			for (int i = 0; i < size; i++) {
+				final String word = randomWord(random);
+				final String regex = toRule(word, random);
+
+				words.add(word);
+				patterns.put(regex, Pattern.compile(regex, FLAGS));
+			}
+
+			final List<String> regexes = new ArrayList<>(patterns.keySet());
+			final List<Pattern> compiled = new ArrayList<>(patterns.values());
+			final String[] messages = new String[MESSAGES];
+
+			for (int i = 0; i < MESSAGES; i++)
+				messages[i] = randomMessage(random, random.nextInt(100) < HIT_PERCENT ? words.get(random.nextInt(words.size())) : null);
+
+			final BiPredicate<Pattern, String> finder = (pattern, message) -> pattern.matcher(message).find();
+			final MultiPatternMatcher<String> matcher = new MultiPatternMatcher<>(patterns, UnaryOperator.identity(), finder);
+
+			Benchmark.run(size + " rules, compiled on each check", () -> {
+				final String message = messages[ThreadLocalRandom.current().nextInt(MESSAGES)];
+
+				for (final String regex : regexes)
+					if (Pattern.compile(regex, FLAGS).matcher(message).find())
+						return true;
+
+				return false;
+			});
+
+			Benchmark.run(size + " rules, precompiled one by one", () -> {
+				final String message = messages[ThreadLocalRandom.current().nextInt(MESSAGES)];
+
+				for (final Pattern pattern : compiled)
+					if (pattern.matcher(message).find())
+						return true;
+
+				return false;
+			});
+
+			Benchmark.run(size + " rules, MultiPatternMatcher", () -> matcher.matchesAny(messages[ThreadLocalRandom.current().nextInt(MESSAGES)]));
+		}
+	}
+
+	/*
+	 * Return a rule catching the word in the shapes chat filters use
+	 */
+	private static String toRule(final String word, final Random random) {
+		final int shape = random.nextInt(10);
+
+		// Repeated letters such as "fu+ck+"
+		if (shape < 6) {
+			final StringBuilder regex = new StringBuilder(word.substring(0, 2));
+
+			for (int i = 2; i < word.length(); i++)
+				regex.append(word.charAt(i)).append(i % 2 == 0 ? "+" : "");
+
+			return regex.toString();
+		}
+
+		// Whole words
+		if (shape < 9)
+			return "\\b" + word + "\\b";
+
+		// Look-alike letters at the start
+		return "[" + word.charAt(0) + "1!]" + word.substring(1);
+	}
+
+	/*
+	 * Return a random lower case word of 5 to 8 letters
+	 */
+	private static String randomWord(final Random random) {
+		final int length = 5 + random.nextInt(4);
+		final StringBuilder word = new StringBuilder();
+
+		for (int i = 0; i < length; i++)
+			word.append((char) ('a' + random.nextInt(26)));
+
+		return word.toString();
+	}
+
+	/*
+	 * Return a chat message of common words, containing the given word if not null
+	 */
+	private static String randomMessage(final Random random, final String word) {
+		final String[] common = { "hey", "guys", "who", "wants", "to", "trade", "diamonds", "for", "my", "sword", "lol", "meet", "at", "spawn", "in", "five", "minutes", "gg" };
+		final int length = 4 + random.nextInt(10);
+		final int wordAt = word == null ? -1 : random.nextInt(length);
+		final StringBuilder message = new StringBuilder();
+
+		for (int i = 0; i < length; i++)
+			message.append(i == 0 ? "" : " ").append(i == wordAt ? word : common[random.nextInt(common.length)]);
+
+		return message.toString();
+	}
+}